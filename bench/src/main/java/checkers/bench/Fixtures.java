@@ -0,0 +1,64 @@
+package checkers.bench;
+
+import checkers.engine.BenchPositions;
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import checkers.game.MoveList;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Общие данные бенчмарков: игры на позициях BenchPositions и записанные партии
+final class Fixtures {
+    // Длина записанной партии в полуходах (или меньше, если партия закончилась раньше)
+    static final int RECORDED_PLIES = 120;
+
+    private Fixtures() {
+    }
+
+    static GameSettings settings(GameSettings.Variant variant) {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(variant);
+        return settings;
+    }
+
+    // Игра, начатая с позиции BenchPositions с указанным именем
+    static Game game(GameSettings.Variant variant, String position) {
+        Game game = new Game(settings(variant));
+        int index = BenchPositions.indexOf(position);
+        game.setPosition(BenchPositions.position(index), BenchPositions.whiteToMove(index));
+        return game;
+    }
+
+    // Партия случайными ходами с фиксированным зерном: {ходы, маски побитых}.
+    // Последний ход перед окончанием партии не записывается, чтобы воспроизведение не печатало итог
+    static int[][] recordedGame(GameSettings.Variant variant, long seed) {
+        Game game = new Game(settings(variant));
+        Random random = new Random(seed);
+        MoveList moves = new MoveList();
+        int[] played = new int[RECORDED_PLIES];
+        int[] captured = new int[RECORDED_PLIES];
+        int plies = 0;
+        while (plies < RECORDED_PLIES) {
+            int count = game.generateMoves(moves);
+            int index = random.nextInt(count);
+            game.makeMove(moves.get(index), moves.getCaptured(index));
+            if (game.isGameOver()) {
+                break;
+            }
+            played[plies] = moves.get(index);
+            captured[plies] = moves.getCaptured(index);
+            plies++;
+        }
+        return new int[][] {Arrays.copyOf(played, plies), Arrays.copyOf(captured, plies)};
+    }
+
+    // Новая игра с воспроизведённой записанной партией
+    static Game replay(GameSettings.Variant variant, int[][] record) {
+        Game game = new Game(settings(variant));
+        for (int i = 0; i < record[0].length; i++) {
+            game.makeMove(record[0][i], record[1][i]);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,71 @@
+package checkers.bench;
+
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import checkers.json.JsonHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация JsonHelper (в строку и потоком в Writer) и разбор Game.parseJson на данных реального сохранения
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"RUSSIAN", "SPANISH"})
+    public GameSettings.Variant variant;
+
+    private String json;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() throws IOException {
+        Game game = Fixtures.replay(variant, Fixtures.recordedGame(variant, 1));
+        Path file = Files.createTempFile("checkers-bench", ".json");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            game.saveGame(file);
+        } finally {
+            System.setOut(out);
+        }
+        json = Files.readString(file);
+        Files.delete(file);
+        data = Game.parseJson(json);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonHelper.toJson(data);
+    }
+
+    @Benchmark
+    public void writeJson() throws IOException {
+        JsonHelper.write(data, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public Map<String, Object> parseJson() {
+        return Game.parseJson(json);
+    }
+}
@@ -0,0 +1,58 @@
+package checkers.bench;
+
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Воспроизведение записанных партий через Game.makeMove и откат через unmakeMove
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MakeMoveBenchmark {
+    @Param({"RUSSIAN", "SPANISH"})
+    public GameSettings.Variant variant;
+
+    @Param({"1", "2", "3"})
+    public long seed;
+
+    private int[][] record;
+    private Game replayed;
+
+    @Setup
+    public void setup() {
+        record = Fixtures.recordedGame(variant, seed);
+        replayed = Fixtures.replay(variant, record);
+    }
+
+    @Benchmark
+    public Game replay() {
+        return Fixtures.replay(variant, record);
+    }
+
+    // Откат всей партии и повторное воспроизведение на том же объекте Game
+    @Benchmark
+    public Game unmakeAndReplay() {
+        while (replayed.unmakeMove()) {
+            // откатываем до начала
+        }
+        for (int i = 0; i < record[0].length; i++) {
+            replayed.makeMove(record[0][i], record[1][i]);
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,71 @@
+package checkers.bench;
+
+import checkers.classes.Checker;
+import checkers.classes.Position;
+import checkers.engine.BenchPositions;
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Генерация ходов: getValidMoves для всех шашек стороны хода (как при выборе шашки в интерфейсе)
+// и генератор ходов напрямую
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    @Param({"RUSSIAN", "SPANISH"})
+    public GameSettings.Variant variant;
+
+    @Param({"opening", "middlegame", "kings"})
+    public String position;
+
+    private Game game;
+    private Position start;
+    private boolean whiteToMove;
+    private List<Checker> checkers;
+    private MoveGenerator generator;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setup() {
+        int index = BenchPositions.indexOf(position);
+        start = BenchPositions.position(index);
+        whiteToMove = BenchPositions.whiteToMove(index);
+        game = Fixtures.game(variant, position);
+        checkers = game.getBoard().getCheckersByColor(game.getCurrentPlayer().getColor());
+        generator = game.getMoveGenerator();
+    }
+
+    // setPosition сбрасывает кэш ходов, поэтому каждый вызов генерирует ходы заново
+    @Benchmark
+    public void getValidMoves(Blackhole blackhole) {
+        game.setPosition(start, whiteToMove);
+        for (Checker checker : checkers) {
+            blackhole.consume(game.getValidMoves(checker));
+        }
+    }
+
+    @Benchmark
+    public int generate() {
+        return generator.generate(start, whiteToMove, moves);
+    }
+}
@@ -0,0 +1,80 @@
+package checkers.bench;
+
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Сохранение и загрузка партии (saveGame/loadGame) во временный файл, в JSON и в двоичном формате.
+// Отладочный вывод Game на время замера отключается, иначе измерялась бы консоль
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveLoadBenchmark {
+    @Param({"RUSSIAN", "SPANISH"})
+    public GameSettings.Variant variant;
+
+    // Расширение файла, по нему saveGame выбирает формат
+    @Param({"json", "bin"})
+    public String format;
+
+    private Game game;
+    private Path dir;
+    private Path saveFile;
+    private Path loadFile;
+    private PrintStream out;
+    private PrintStream err;
+
+    @Setup
+    public void setup() throws IOException {
+        game = Fixtures.replay(variant, Fixtures.recordedGame(variant, 1));
+        dir = Files.createTempDirectory("checkers-bench");
+        saveFile = dir.resolve("save." + format);
+        loadFile = dir.resolve("load." + format);
+        out = System.out;
+        err = System.err;
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(sink);
+        System.setErr(sink);
+        game.saveGame(loadFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        System.setErr(err);
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(loadFile);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void saveGame() {
+        game.saveGame(saveFile);
+    }
+
+    @Benchmark
+    public Game loadGame() {
+        return Game.loadGame(loadFile);
+    }
+}
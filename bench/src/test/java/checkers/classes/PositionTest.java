@@ -0,0 +1,76 @@
+package checkers.classes;
+
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Выполнение и отмена хода над масками, ключ Zobrist и оценка по таблице на случайных партиях
+class PositionTest {
+    private static final int GAMES = 300;
+    private static final int MAX_PLIES = 150;
+
+    @Test
+    void russianWalk() {
+        walk(GameRules.RuleType.RUSSIAN, PieceSquareTable.RUSSIAN);
+    }
+
+    @Test
+    void spanishWalk() {
+        walk(GameRules.RuleType.SPANISH, PieceSquareTable.SPANISH);
+    }
+
+    private static void walk(GameRules.RuleType rules, PieceSquareTable table) {
+        MoveGenerator generator = new MoveGenerator(new GameRules(rules));
+        MoveList moves = new MoveList();
+        Random random = new Random(rules.ordinal());
+        for (int game = 0; game < GAMES; game++) {
+            Position position = Position.initial();
+            position.setTable(table);
+            boolean white = true;
+            for (int ply = 0; ply < MAX_PLIES; ply++) {
+                int count = generator.generate(position, white, moves);
+                if (count == 0) {
+                    break;
+                }
+                // каждый ход выполняется и отменяется, потом партия идёт случайным ходом
+                for (int i = 0; i < count; i++) {
+                    assertMakeUnmake(position, white, moves.get(i), moves.getCaptured(i));
+                }
+                int k = random.nextInt(count);
+                int move = moves.get(k);
+                position.applyMove(Move.from(move), Move.to(move), moves.getCaptured(k), Move.isPromotion(move));
+                assertConsistent(position);
+                white = !white;
+            }
+        }
+    }
+
+    private static void assertMakeUnmake(Position position, boolean white, int move, int captured) {
+        Position before = position.copy();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int capturedKings = position.applyMove(from, to, captured, Move.isPromotion(move));
+        assertEquals(Integer.bitCount(captured), Integer.bitCount(before.getPieces(!white))
+                - Integer.bitCount(position.getPieces(!white)), Move.toNotation(move));
+        assertConsistent(position);
+        position.undoMove(from, to, captured, capturedKings, Move.isPromotion(move), white);
+        assertEquals(before.getWhite(), position.getWhite(), Move.toNotation(move));
+        assertEquals(before.getBlack(), position.getBlack(), Move.toNotation(move));
+        assertEquals(before.getKings(), position.getKings(), Move.toNotation(move));
+        assertEquals(before.getKey(), position.getKey(), Move.toNotation(move));
+        assertEquals(before.getScore(), position.getScore(), Move.toNotation(move));
+    }
+
+    // Инкрементальные ключ и оценка равны посчитанным заново
+    private static void assertConsistent(Position position) {
+        assertEquals(Zobrist.compute(position.getWhite(), position.getBlack(), position.getKings()), position.getKey());
+        assertEquals(position.getTable().compute(position.getWhite(), position.getBlack(), position.getKings()),
+                position.getScore());
+    }
+}
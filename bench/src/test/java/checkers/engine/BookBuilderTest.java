@@ -0,0 +1,104 @@
+package checkers.engine;
+
+import checkers.classes.Bitboard;
+import checkers.classes.MoveRecord;
+import checkers.classes.Position;
+import checkers.enums.PieceColor;
+import checkers.game.GameRules;
+import checkers.game.HistoryFile;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import checkers.game.MovePath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Книга из файлов истории прежних версий, где взятие записано по строке на прыжок
+class BookBuilderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void multiJumpHistoryIsReadToTheEnd() throws IOException {
+        for (GameRules.RuleType rules : GameRules.RuleType.values()) {
+            MoveGenerator generator = new MoveGenerator(new GameRules(rules));
+            MoveList moves = new MoveList();
+            // Партия, где взятие нескольких шашек случается раньше первой дамки:
+            // позиции до него не повторяются, и каждый полуход даёт свою запись книги
+            for (long seed = 0; ; seed++) {
+                Random random = new Random(seed);
+                Position position = Position.initial();
+                boolean white = true;
+                int[] played = new int[200];
+                int[] captured = new int[200];
+                int multiJump = -1;
+                for (int ply = 0; ply < played.length && position.getKings() == 0; ply++) {
+                    int count = generator.generate(position, white, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    int k = random.nextInt(count);
+                    played[ply] = moves.get(k);
+                    captured[ply] = moves.getCaptured(k);
+                    position.applyMove(Move.from(played[ply]), Move.to(played[ply]), captured[ply],
+                            Move.isPromotion(played[ply]));
+                    white = !white;
+                    if (Move.captureCount(played[ply]) > 1) {
+                        multiJump = ply;
+                        break;
+                    }
+                }
+                if (multiJump < 0) {
+                    continue;
+                }
+                Path file = dir.resolve(rules + ".txt");
+                writeHops(file, rules, played, captured, multiJump + 1);
+
+                List<HistoryFile.Record> records = HistoryFile.read(file);
+                assertEquals(1, records.size());
+                assertEquals(multiJump + 1, records.get(0).getPaths().size());
+
+                BookBuilder builder = new BookBuilder(new GameRules(rules), multiJump + 1);
+                builder.add(file);
+                assertEquals(1, builder.getGames());
+                assertEquals(multiJump + 1, builder.getEntries(), rules + " seed " + seed);
+                break;
+            }
+        }
+    }
+
+    // Запись по прыжкам с полными путями взятий (как Game.writeHistory прежних версий)
+    static void writeHops(Path file, GameRules.RuleType rules, int[] played, int[] captured, int plies)
+            throws IOException {
+        Position position = Position.initial();
+        boolean white = true;
+        int[] path = new int[32];
+        int line = 0;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("История игры");
+            writer.println("Режим: " + (rules == GameRules.RuleType.RUSSIAN
+                    ? HistoryFile.RUSSIAN_MODE : HistoryFile.SPANISH_MODE));
+            writer.println("=".repeat(40));
+            for (int ply = 0; ply < plies; ply++) {
+                int length = MovePath.of(position, white, played[ply], captured[ply], path);
+                for (int hop = 1; hop < length; hop++) {
+                    writer.printf("%2d. %s%n", ++line, new MoveRecord(white ? PieceColor.WHITE : PieceColor.BLACK,
+                            Bitboard.x(path[hop - 1]), Bitboard.y(path[hop - 1]),
+                            Bitboard.x(path[hop]), Bitboard.y(path[hop]), Move.isCapture(played[ply])));
+                }
+                position.applyMove(Move.from(played[ply]), Move.to(played[ply]), captured[ply],
+                        Move.isPromotion(played[ply]));
+                white = !white;
+            }
+        }
+    }
+}
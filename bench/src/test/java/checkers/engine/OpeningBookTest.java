@@ -0,0 +1,54 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Открытие книги: повреждённый или обрезанный файл отвергается, а не читается за концом
+class OpeningBookTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void opensCompleteFile() throws IOException {
+        OpeningBook book = OpeningBook.open(write("book", 1, 1));
+        assertEquals(1, book.size());
+        assertEquals(0, book.find(42));
+        assertEquals(-1, book.find(41));
+    }
+
+    @Test
+    void rejectsFileShorterThanHeader() throws IOException {
+        Path file = dir.resolve("short");
+        Files.write(file, new byte[] {0x4B, 0x42, 0x4B});
+        assertNull(OpeningBook.open(file));
+        Files.write(file, new byte[0]);
+        assertNull(OpeningBook.open(file));
+    }
+
+    @Test
+    void rejectsCountBeyondFileSize() throws IOException {
+        assertNull(OpeningBook.open(write("truncated", 3, 2)));
+        assertNull(OpeningBook.open(write("negative", -1, 0)));
+        assertNull(OpeningBook.open(write("huge", Integer.MAX_VALUE, 1)));
+    }
+
+    // Книга с числом записей count в заголовке и entries записями с ключом 42
+    private Path write(String name, int count, int entries) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + entries * OpeningBook.ENTRY_BYTES);
+        data.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(count).putInt(0);
+        for (int i = 0; i < entries; i++) {
+            data.putLong(42).putInt(0).putInt(0).putInt(1).putShort((short) 0).putShort((short) 0);
+        }
+        Path file = dir.resolve(name);
+        Files.write(file, data.array());
+        return file;
+    }
+}
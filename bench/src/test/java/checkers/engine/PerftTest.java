@@ -0,0 +1,75 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.game.GameRules;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Число листьев из начальной позиции по опубликованным таблицам
+class PerftTest {
+    private static final long[] RUSSIAN = {7, 49, 302, 1469, 7482, 37986, 190146};
+    private static final long[] SPANISH = {7, 49, 302, 1469, 7361, 36473, 177532};
+
+    @Test
+    void russianCounts() {
+        assertCounts(GameRules.RuleType.RUSSIAN, RUSSIAN);
+    }
+
+    @Test
+    void spanishCounts() {
+        assertCounts(GameRules.RuleType.SPANISH, SPANISH);
+    }
+
+    // Таблица транспозиций и параллельный счёт дают те же числа
+    @Test
+    void hashAndParallelMatchPlainCount() {
+        Perft perft = new Perft(new GameRules(GameRules.RuleType.RUSSIAN), 16);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(RUSSIAN[6], perft.count(Position.initial(), true, 7));
+            assertEquals(RUSSIAN[6], perft.countParallel(Position.initial(), true, 7, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void divideSumsToTotal() {
+        Perft perft = new Perft(new GameRules(GameRules.RuleType.SPANISH), 0);
+        Map<String, Long> divide = perft.divide(Position.initial(), true, 6, null);
+        assertEquals(7, divide.size());
+        assertEquals(SPANISH[5], divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    // Взятия на одну клетку разными цепочками - разные строки divide, сумма равна count
+    @Test
+    void divideKeepsCaptureChainsToTheSameSquare() {
+        assertDivideSums(GameRules.RuleType.RUSSIAN, new Position(0x08000400, 0x000181c0, 0), true);
+        assertDivideSums(GameRules.RuleType.SPANISH, new Position(0x14000000, 0x08406069, 0x00400000), true);
+    }
+
+    private static void assertDivideSums(GameRules.RuleType rules, Position position, boolean white) {
+        Perft perft = new Perft(new GameRules(rules), 0);
+        MoveList moves = new MoveList();
+        int count = new MoveGenerator(new GameRules(rules)).generate(position, white, moves);
+        for (int depth = 1; depth <= 3; depth++) {
+            Map<String, Long> divide = perft.divide(position, white, depth, null);
+            assertEquals(count, divide.size(), rules + " " + divide.keySet());
+            assertEquals(perft.count(position, white, depth),
+                    divide.values().stream().mapToLong(Long::longValue).sum(), rules + " depth " + depth);
+        }
+    }
+
+    private static void assertCounts(GameRules.RuleType rules, long[] expected) {
+        Perft perft = new Perft(new GameRules(rules), 0);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft.count(Position.initial(), true, depth), rules + " depth " + depth);
+        }
+    }
+}
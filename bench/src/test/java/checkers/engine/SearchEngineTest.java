@@ -0,0 +1,59 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.game.GameRules;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Поиск: остановка, запрошенная до начала поиска, и независимость результата от упорядочивания ходов
+class SearchEngineTest {
+    private static final long LONG_SEARCH_MS = 60_000;
+    private static final int ORDERING_DEPTH = 8;
+
+    // Остановка между постановкой задачи и началом поиска не сбрасывается самим поиском
+    @Test
+    void stopBeforeStartIsKept() {
+        SearchEngine engine = new SearchEngine(new GameRules(GameRules.RuleType.RUSSIAN), new TranspositionTable(1));
+        long mark = engine.stopMark();
+        engine.stop();
+        long start = System.nanoTime();
+        SearchResult result = engine.search(Position.initial(), true, LONG_SEARCH_MS, SearchEngine.MAX_PLY, mark);
+        assertTrue((System.nanoTime() - start) / 1_000_000L < 1000, "поиск не остановлен");
+        assertTrue(result.hasMove());
+    }
+
+    // Без метки прежние остановки не мешают новому поиску
+    @Test
+    void earlierStopDoesNotAffectNextSearch() {
+        SearchEngine engine = new SearchEngine(new GameRules(GameRules.RuleType.RUSSIAN), new TranspositionTable(1));
+        engine.stop();
+        SearchResult result = engine.search(Position.initial(), true, LONG_SEARCH_MS, 4);
+        assertEquals(4, result.getDepth());
+    }
+
+    // Упорядочивание меняет только число узлов: счёт на фиксированной глубине тот же,
+    // что и без него (таблица у каждого поиска своя)
+    @Test
+    void orderingDoesNotChangeScore() {
+        for (GameRules.RuleType rules : GameRules.RuleType.values()) {
+            for (int i = 0; i < BenchPositions.count(); i++) {
+                SearchResult ordered = fixedDepth(rules, i, SearchEngine.ORDER_ALL);
+                SearchResult unordered = fixedDepth(rules, i, 0);
+                String name = rules + " " + BenchPositions.NAMES[i];
+                assertEquals(ORDERING_DEPTH, ordered.getDepth(), name);
+                assertEquals(ORDERING_DEPTH, unordered.getDepth(), name);
+                assertEquals(unordered.getScore(), ordered.getScore(), name);
+                assertTrue(ordered.getNodes() <= unordered.getNodes(), name);
+            }
+        }
+    }
+
+    private static SearchResult fixedDepth(GameRules.RuleType rules, int index, int ordering) {
+        SearchEngine engine = new SearchEngine(new GameRules(rules), new TranspositionTable(4));
+        engine.setOrdering(ordering);
+        return engine.search(BenchPositions.position(index), BenchPositions.whiteToMove(index), LONG_SEARCH_MS,
+                ORDERING_DEPTH);
+    }
+}
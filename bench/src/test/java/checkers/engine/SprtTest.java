@@ -0,0 +1,73 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// SPRT H0: 0 Эло, H1: 5 Эло, ошибки 5%. Ожидаемые значения посчитаны отдельно по тем же формулам:
+// LLR = n (s1 - s0) (2s - s0 - s1) / (2 var), Эло = -400 lg(1/s - 1)
+class SprtTest {
+    private static final double EPS = 1e-9;
+
+    @Test
+    void boundsFollowErrors() {
+        Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+        assertEquals(-2.9444389791664403, sprt.getLowerBound(), EPS);
+        assertEquals(2.9444389791664403, sprt.getUpperBound(), EPS);
+        assertEquals(0, sprt.llr(), EPS);
+        assertEquals(Sprt.CONTINUE, sprt.status());
+    }
+
+    @Test
+    void llrAndEloMatchReference() {
+        Sprt sprt = match(60, 20, 40);
+        assertEquals(120, sprt.games());
+        assertEquals(70.0 / 120, sprt.score(), EPS);
+        assertEquals(0.34184937124560744, sprt.llr(), EPS);
+        assertEquals(58.45121427129523, sprt.elo(), EPS);
+        assertEquals(57.96474251616073, sprt.eloError(), EPS);
+        assertEquals(Sprt.CONTINUE, sprt.status());
+
+        Sprt even = match(50, 100, 50);
+        assertEquals(-0.04141536063994041, even.llr(), EPS);
+        assertEquals(0, even.elo(), EPS);
+        assertEquals(34.158321028852555, even.eloError(), EPS);
+    }
+
+    @Test
+    void stopsOutsideBounds() {
+        Sprt stronger = match(600, 200, 400);
+        assertEquals(3.418493712456074, stronger.llr(), EPS);
+        assertEquals(18.165629379355632, stronger.eloError(), EPS);
+        assertEquals(Sprt.ACCEPT_H1, stronger.status());
+
+        Sprt weaker = match(400, 200, 600);
+        assertEquals(-3.726966743429421, weaker.llr(), EPS);
+        assertEquals(-58.45121427129521, weaker.elo(), EPS);
+        assertEquals(Sprt.ACCEPT_H0, weaker.status());
+    }
+
+    @Test
+    void eloScale() {
+        assertEquals(0.5, Sprt.expectedScore(0), EPS);
+        assertEquals(190.848501887865, Sprt.eloOf(0.75), EPS);
+        assertEquals(0.75, Sprt.expectedScore(Sprt.eloOf(0.75)), EPS);
+    }
+
+    private static Sprt match(int wins, int draws, int losses) {
+        Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+        for (int i = 0; i < wins; i++) {
+            sprt.add(1);
+        }
+        for (int i = 0; i < draws; i++) {
+            sprt.add(0);
+        }
+        for (int i = 0; i < losses; i++) {
+            sprt.add(-1);
+        }
+        assertEquals(wins, sprt.getWins());
+        assertEquals(draws, sprt.getDraws());
+        assertEquals(losses, sprt.getLosses());
+        return sprt;
+    }
+}
@@ -0,0 +1,185 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Базы до трёх шашек против перебора: выигрыш и проигрыш с тем же числом полуходов,
+// а для ничьей перебор не находит результата глубже самого длинного выигрыша базы
+class TablebaseTest {
+    private static final int PIECES = 3;
+    private static final int SAMPLES = 400;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void russianMatchesSearch() throws IOException {
+        check(GameRules.RuleType.RUSSIAN);
+    }
+
+    @Test
+    void spanishMatchesSearch() throws IOException {
+        check(GameRules.RuleType.SPANISH);
+    }
+
+    private void check(GameRules.RuleType type) throws IOException {
+        GameRules rules = new GameRules(type);
+        TablebaseGenerator generator = new TablebaseGenerator(rules, dir.resolve(type.name()), 2);
+        try {
+            generator.generate(PIECES);
+        } finally {
+            generator.close();
+        }
+        Tablebase tablebase = generator.getTablebase();
+        assertEquals(PIECES, tablebase.getMaxPieces());
+
+        Random random = new Random(7);
+        List<Position> positions = new ArrayList<>();
+        List<Boolean> sides = new ArrayList<>();
+        int maxDistance = 0;
+        while (positions.size() < SAMPLES) {
+            Position position = randomPosition(random);
+            boolean white = random.nextBoolean();
+            int result = tablebase.probe(position, white);
+            assertTrue(result != Tablebase.UNKNOWN, "нет в базе: " + position.getWhite() + " " + position.getBlack());
+            maxDistance = Math.max(maxDistance, tablebase.probeDistance(position, white));
+            positions.add(position);
+            sides.add(white);
+        }
+
+        Search search = new Search(new MoveGenerator(rules), maxDistance + 2);
+        int wins = 0;
+        int draws = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            Position position = positions.get(i);
+            boolean white = sides.get(i);
+            int expected = search.solve(position, white);
+            String name = type + " " + position.getWhite() + "/" + position.getBlack() + "/" + position.getKings()
+                    + (white ? " белые" : " чёрные");
+            if (expected == 0) {
+                assertEquals(Tablebase.DRAW, tablebase.probe(position, white), name);
+                draws++;
+            } else {
+                assertEquals(expected > 0 ? Tablebase.WIN : Tablebase.LOSS, tablebase.probe(position, white), name);
+                assertEquals(Math.abs(expected) - 1, tablebase.probeDistance(position, white), name);
+                wins += expected > 0 ? 1 : 0;
+            }
+        }
+        // Выборка должна содержать и выигрыши, и ничьи
+        assertTrue(wins > 0 && draws > 0, "выигрышей " + wins + ", ничьих " + draws);
+    }
+
+    // Случайная расстановка 2-3 шашек: простые не стоят на своём ряду превращения
+    private static Position randomPosition(Random random) {
+        while (true) {
+            int pieces = 2 + random.nextInt(PIECES - 1);
+            int white = 0;
+            int black = 0;
+            int kings = 0;
+            for (int i = 0; i < pieces; i++) {
+                boolean isWhite = i == 0 || (i > 1 && random.nextBoolean());
+                boolean isKing = random.nextBoolean();
+                int square = random.nextInt(32);
+                int bit = 1 << square;
+                if (((white | black) & bit) != 0 || (!isKing && (isWhite ? square < 4 : square >= 28))) {
+                    i--;
+                    continue;
+                }
+                if (isWhite) {
+                    white |= bit;
+                } else {
+                    black |= bit;
+                }
+                if (isKing) {
+                    kings |= bit;
+                }
+            }
+            return new Position(white, black, kings);
+        }
+    }
+
+    // Перебор с ограничением глубины: d + 1 - выигрыш стороны, которая ходит, за d полуходов,
+    // -(d + 1) - проигрыш за d полуходов, 0 - за depth полуходов результата нет.
+    // Найденный результат точен и верен для любой глубины не меньше его расстояния,
+    // для остальных позиций запоминается наибольшая глубина, на которой результата нет
+    private static final class Search {
+        private final MoveGenerator generator;
+        private final int maxDepth;
+        private final Map<Long, Integer> solved = new HashMap<>();
+        private final Map<Long, Integer> unsolvedDepth = new HashMap<>();
+
+        Search(MoveGenerator generator, int maxDepth) {
+            this.generator = generator;
+            this.maxDepth = maxDepth;
+        }
+
+        int solve(Position position, boolean white) {
+            return value(position, white, maxDepth);
+        }
+
+        private int value(Position position, boolean white, int depth) {
+            long key = position.getKey() ^ (white ? 0 : Zobrist.SIDE);
+            Integer known = solved.get(key);
+            if (known != null) {
+                return Math.abs(known) - 1 <= depth ? known : 0;
+            }
+            if (unsolvedDepth.getOrDefault(key, -1) >= depth) {
+                return 0;
+            }
+            MoveList moves = new MoveList();
+            int count = generator.generate(position, white, moves);
+            int result;
+            if (count == 0) {
+                result = -1;
+            } else if (depth == 0) {
+                result = 0;
+            } else {
+                int bestWin = Integer.MAX_VALUE;
+                int longestLoss = 0;
+                boolean allWin = true;
+                for (int i = 0; i < count; i++) {
+                    int move = moves.get(i);
+                    Position child = new Position(position.getWhite(), position.getBlack(), position.getKings());
+                    child.applyMove(Move.from(move), Move.to(move), moves.getCaptured(i), Move.isPromotion(move));
+                    int reply = value(child, !white, depth - 1);
+                    if (reply < 0) {
+                        bestWin = Math.min(bestWin, -reply);
+                    } else if (reply > 0) {
+                        longestLoss = Math.max(longestLoss, reply);
+                    }
+                    allWin &= reply > 0;
+                }
+                if (bestWin != Integer.MAX_VALUE) {
+                    result = bestWin + 1;
+                } else if (allWin) {
+                    result = -(longestLoss + 1);
+                } else {
+                    result = 0;
+                }
+            }
+            if (result != 0) {
+                solved.put(key, result);
+            } else {
+                unsolvedDepth.put(key, depth);
+            }
+            return result;
+        }
+    }
+}
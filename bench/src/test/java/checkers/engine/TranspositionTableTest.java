@@ -0,0 +1,94 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Корзина из двух записей: первая - по глубине (или устаревшая), вторая - всегда заменяемая
+class TranspositionTableTest {
+    // В таблице на 1 МБ 32768 корзин: ключи, отличающиеся на их число, попадают в одну корзину
+    private static final long BUCKETS = 32768;
+    private static final long A = 5;
+    private static final long B = A + BUCKETS;
+    private static final long C = A + 2 * BUCKETS;
+    private static final long D = A + 3 * BUCKETS;
+
+    @Test
+    void storedEntryIsUnpacked() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(2 * BUCKETS, table.capacity());
+        table.store(A, 7, TranspositionTable.BOUND_LOWER, -123, 0x1234);
+        long entry = table.probe(A);
+        assertEquals(-123, TranspositionTable.scoreOf(entry));
+        assertEquals(7, TranspositionTable.depthOf(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.boundOf(entry));
+        assertEquals(0x1234, TranspositionTable.moveOf(entry));
+        assertEquals(0, table.probe(A + 1));
+        assertEquals(0, table.probe(B));
+
+        // Та же позиция без хода сохраняет прежний лучший ход
+        table.store(A, 9, TranspositionTable.BOUND_EXACT, 50, 0);
+        entry = table.probe(A);
+        assertEquals(9, TranspositionTable.depthOf(entry));
+        assertEquals(0x1234, TranspositionTable.moveOf(entry));
+
+        table.clear();
+        assertEquals(0, table.probe(A));
+    }
+
+    @Test
+    void deeperEntryStaysInFirstSlot() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(A, 8, TranspositionTable.BOUND_EXACT, 1, 1);
+        // Мельче первой записи - во вторую
+        table.store(B, 3, TranspositionTable.BOUND_EXACT, 2, 2);
+        assertEquals(8, TranspositionTable.depthOf(table.probe(A)));
+        assertEquals(3, TranspositionTable.depthOf(table.probe(B)));
+
+        // Вторая заменяется всегда, даже более мелкой записью
+        table.store(C, 2, TranspositionTable.BOUND_EXACT, 3, 3);
+        assertEquals(0, table.probe(B));
+        assertEquals(2, TranspositionTable.depthOf(table.probe(C)));
+        assertEquals(8, TranspositionTable.depthOf(table.probe(A)));
+
+        // Не мельче первой - на её место, вторая не трогается
+        table.store(D, 8, TranspositionTable.BOUND_EXACT, 4, 4);
+        assertEquals(0, table.probe(A));
+        assertEquals(8, TranspositionTable.depthOf(table.probe(D)));
+        assertEquals(2, TranspositionTable.depthOf(table.probe(C)));
+    }
+
+    @Test
+    void entryOfPreviousSearchIsReplaced() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(A, 20, TranspositionTable.BOUND_EXACT, 1, 1);
+        table.store(B, 1, TranspositionTable.BOUND_EXACT, 2, 2);
+        assertNotEquals(0, table.probe(A));
+
+        table.newSearch();
+        // Глубокая запись прошлого поиска уступает первое место даже мелкой
+        table.store(C, 1, TranspositionTable.BOUND_EXACT, 3, 3);
+        assertEquals(0, table.probe(A));
+        assertNotEquals(0, table.probe(B));
+        assertEquals(1, TranspositionTable.depthOf(table.probe(C)));
+
+        // Записи текущего поиска снова сравниваются по глубине
+        table.store(D, 0, TranspositionTable.BOUND_EXACT, 4, 4);
+        assertEquals(0, table.probe(B));
+        assertNotEquals(0, table.probe(C));
+        assertNotEquals(0, table.probe(D));
+    }
+
+    @Test
+    void hashfullCountsCurrentSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        for (long key = 1; key <= 250; key++) {
+            table.store(key, 1, TranspositionTable.BOUND_EXACT, 0, 1);
+        }
+        // 250 записей в первых корзинах: четверть выборки из 1000 записей
+        assertEquals(250, table.hashfull());
+        table.newSearch();
+        assertEquals(0, table.hashfull());
+    }
+}
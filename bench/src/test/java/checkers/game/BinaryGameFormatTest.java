@@ -0,0 +1,130 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.datas.WindowBounds;
+import checkers.enums.PlayerType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Двоичное сохранение: кодирование и разбор без потерь, отказ на повреждённых данных
+class BinaryGameFormatTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripRestoresSettingsAndMoves() throws IOException {
+        Game game = sample();
+        Game loaded = BinaryGameFormat.decode(BinaryGameFormat.encode(game));
+        assertSameGame(game, loaded);
+
+        GameSettings settings = loaded.getSettings();
+        assertEquals(GameSettings.Variant.SPANISH, settings.getVariant());
+        assertEquals(PlayerType.COMPUTER, settings.getBlackPlayerType());
+        assertEquals(Locale.ENGLISH, settings.getLocale());
+        assertEquals(72, settings.getCellSize());
+        assertEquals(2500, settings.getEngineTimeMs());
+        assertEquals(3, settings.getEngineThreads());
+        assertTrue(settings.isPonder());
+        WindowBounds window = loaded.getWindowBounds();
+        assertEquals(10, window.getX());
+        assertEquals(-20, window.getY());
+        assertEquals(640, window.getWidth());
+        assertEquals(700, window.getHeight());
+    }
+
+    @Test
+    void writeAndLoadFile() throws IOException {
+        Game game = sample();
+        Path file = dir.resolve("save.bin");
+        int checksum = BinaryGameFormat.write(game, file);
+        ByteBuffer data = BinaryGameFormat.readFile(file);
+        assertEquals(checksum, BinaryGameFormat.checksum(data));
+        assertSameGame(game, Game.loadGame(file));
+        // временный файл не остаётся
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    // CRC32 замечает любую ошибку в одном бите
+    @Test
+    void everyFlippedByteIsRejected() {
+        ByteBuffer encoded = BinaryGameFormat.encode(sample());
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] damaged = bytes.clone();
+            damaged[i] ^= (byte) (1 << (i % 8));
+            assertThrows(IOException.class, () -> BinaryGameFormat.decode(ByteBuffer.wrap(damaged)), "byte " + i);
+        }
+    }
+
+    @Test
+    void truncatedSaveIsRejected() throws IOException {
+        ByteBuffer encoded = BinaryGameFormat.encode(sample());
+        for (int length = 0; length < encoded.limit(); length += 7) {
+            ByteBuffer part = ByteBuffer.wrap(encoded.array(), 0, length).slice();
+            assertThrows(IOException.class, () -> BinaryGameFormat.decode(part), "length " + length);
+        }
+        Path file = dir.resolve("torn.bin");
+        Files.write(file, Arrays.copyOf(encoded.array(), encoded.limit() - 1));
+        assertNull(Game.loadGame(file));
+    }
+
+    // Испанские шашки с начальной позицией из середины партии и ходами после неё
+    private static Game sample() {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(GameSettings.Variant.SPANISH);
+        settings.setBlackPlayerType(PlayerType.COMPUTER);
+        settings.setLocale(Locale.ENGLISH);
+        settings.setCellSize(72);
+        settings.setEngineTimeMs(2500);
+        settings.setEngineThreads(3);
+        settings.setPonder(true);
+        Game game = new Game(settings);
+        game.setWindowBounds(new WindowBounds(10, -20, 640, 700));
+
+        Random random = new Random(7);
+        play(game, random, 70);
+        Position start = game.getBoard().getPosition().copy();
+        boolean white = game.isWhiteToMove();
+        game.setPosition(start, white);
+        play(game, random, 30);
+        return game;
+    }
+
+    private static void play(Game game, Random random, int plies) {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < plies && !game.isGameOver(); i++) {
+            int count = game.generateMoves(moves);
+            int k = random.nextInt(count);
+            game.makeMove(moves.get(k), moves.getCaptured(k));
+        }
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.getStartPosition().getKey(), actual.getStartPosition().getKey());
+        assertEquals(expected.isStartWhiteToMove(), actual.isStartWhiteToMove());
+        assertEquals(expected.getPlayedMoves(), actual.getPlayedMoves());
+        for (int i = 0; i < expected.getPlayedMoves(); i++) {
+            assertEquals(expected.getPlayedMove(i), actual.getPlayedMove(i), "ply " + i);
+            assertEquals(expected.getPlayedCaptured(i), actual.getPlayedCaptured(i), "ply " + i);
+        }
+        assertEquals(expected.positionKey(), actual.positionKey());
+        assertEquals(expected.getGameState(), actual.getGameState());
+    }
+}
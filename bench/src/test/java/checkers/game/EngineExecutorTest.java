@@ -0,0 +1,43 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.engine.ComputerPlayer;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Отмена задачи движка сразу после постановки: поток поиска не должен остаться занятым
+class EngineExecutorTest {
+    @Test
+    void cancelRightAfterSubmit() throws Exception {
+        GameSettings settings = new GameSettings();
+        settings.setEngineThreads(2);
+        Game game = new Game(settings);
+        ComputerPlayer player = new ComputerPlayer(game, new TranspositionTable(1), 100);
+        EngineExecutor executor = new EngineExecutor();
+        AtomicInteger stale = new AtomicInteger();
+        try {
+            for (int i = 0; i < 50; i++) {
+                executor.submit(player, Position.initial(), true, ComputerPlayer.PONDER_TIME_MS,
+                        result -> stale.incrementAndGet());
+                executor.cancel();
+            }
+            CompletableFuture<SearchResult> answer = new CompletableFuture<>();
+            long start = System.nanoTime();
+            executor.submit(player, Position.initial(), true, 100, answer::complete);
+            assertTrue(answer.get(10, TimeUnit.SECONDS).hasMove());
+            assertTrue((System.nanoTime() - start) / 1_000_000L < 5000);
+            // результаты отменённых задач отброшены
+            assertEquals(0, stale.get());
+        } finally {
+            executor.release(player);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package checkers.game;
+
+import checkers.enums.GameState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Архив партий: дописывание, чтение по номеру и просмотром, восстановление после сбоя
+class GameArchiveTest {
+    private static final int GAMES = 40;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendGetAndScan() throws IOException {
+        List<Game> games = new ArrayList<>();
+        try (GameArchive archive = GameArchive.open(dir)) {
+            for (int i = 0; i < GAMES; i++) {
+                Game game = random(i);
+                games.add(game);
+                assertEquals(i, archive.append(game, game.getGameState(), 1000L + i));
+            }
+        }
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(GAMES, archive.size());
+            for (int i = 0; i < GAMES; i++) {
+                GameArchive.Entry entry = archive.get(i);
+                assertEquals(1000L + i, entry.getTime());
+                assertEquals(games.get(i).getSettings().getVariant(), entry.getVariant());
+                assertEquals(games.get(i).getPlayedMoves(), entry.getPlies());
+                assertSameGame(games.get(i), entry.toGame());
+            }
+            long[] scanned = archive.scan(() -> new long[2], (totals, entry) -> {
+                totals[0]++;
+                totals[1] += entry.getPlies();
+            }, (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]});
+            assertEquals(GAMES, scanned[0]);
+            assertEquals(games.stream().mapToLong(Game::getPlayedMoves).sum(), scanned[1]);
+
+            List<Long> times = new ArrayList<>();
+            archive.forEach(entry -> times.add(entry.getTime()));
+            assertEquals(GAMES, times.size());
+            assertEquals(1000L + GAMES - 1, times.get(GAMES - 1));
+        }
+    }
+
+    // Начальная позиция из середины партии и результат, заданный явно
+    @Test
+    void customStartAndResult() throws IOException {
+        Game game = random(1);
+        Game custom = new Game(game.getSettings());
+        custom.setPosition(game.getBoard().getPosition().copy(), !game.isWhiteToMove());
+        try (GameArchive archive = GameArchive.open(dir)) {
+            archive.append(custom, GameState.DRAW, 0);
+            GameArchive.Entry entry = archive.get(0);
+            assertEquals(GameState.DRAW, entry.getResult());
+            assertTrue(entry.isCustomStart());
+            assertEquals(custom.isStartWhiteToMove(), entry.isStartWhiteToMove());
+            assertSameGame(custom, entry.toGame());
+        }
+    }
+
+    // Мусор после последней записи сегмента и недописанные или указывающие мимо записи индекса
+    @Test
+    void recoveryCutsTornTail() throws IOException {
+        fill(GAMES);
+        Path segment = dir.resolve("segment_000000.dat");
+        Path index = dir.resolve(GameArchive.INDEX_FILE);
+        long segmentSize = Files.size(segment);
+        Files.write(segment, new byte[37], StandardOpenOption.APPEND);
+        ByteBuffer entry = ByteBuffer.allocate(GameArchive.INDEX_BYTES);
+        entry.putInt(0).putInt((int) segmentSize).putInt(30).putInt(0);
+        Files.write(index, entry.array(), StandardOpenOption.APPEND);
+        Files.write(index, new byte[7], StandardOpenOption.APPEND);
+
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(GAMES, archive.size());
+            assertEquals(segmentSize, Files.size(segment));
+            assertEquals(GAMES * (long) GameArchive.INDEX_BYTES, Files.size(index));
+            archive.append(random(GAMES));
+            assertEquals(GAMES + 1, archive.size());
+        }
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertSameGame(random(GAMES), archive.get(GAMES).toGame());
+        }
+    }
+
+    // Записи индекса целы, но последние записи партий повреждены - они отбрасываются
+    @Test
+    void recoveryDropsTrailingRecordsFailingCrc() throws IOException {
+        fill(GAMES);
+        ByteBuffer first = indexEntry(GAMES - 3);
+        for (int i = GAMES - 3; i < GAMES; i++) {
+            damageRecord(indexEntry(i));
+        }
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(GAMES - 3, archive.size());
+            assertEquals(first.getInt(4), Files.size(dir.resolve("segment_000000.dat")));
+            long[] count = archive.scan(() -> new long[1], (c, e) -> c[0]++, (a, b) -> new long[] {a[0] + b[0]});
+            assertEquals(GAMES - 3, count[0]);
+        }
+    }
+
+    // Повреждённая запись в середине не отрезается, но чтение и просмотр её не пропускают молча
+    @Test
+    void damagedRecordInTheMiddleIsReported() throws IOException {
+        fill(GAMES);
+        damageRecord(indexEntry(GAMES / 2));
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(GAMES, archive.size());
+            assertThrows(IOException.class, () -> archive.get(GAMES / 2));
+            archive.get(GAMES / 2 + 1);
+            assertThrows(UncheckedIOException.class,
+                    () -> archive.scan(() -> null, (r, e) -> { }, (a, b) -> a));
+        }
+    }
+
+    private ByteBuffer indexEntry(int number) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(GameArchive.INDEX_BYTES);
+        entry.put(Files.readAllBytes(dir.resolve(GameArchive.INDEX_FILE)),
+                number * GameArchive.INDEX_BYTES, GameArchive.INDEX_BYTES).flip();
+        return entry;
+    }
+
+    // Один бит в последнем байте записи, на которую указывает entry
+    private void damageRecord(ByteBuffer entry) throws IOException {
+        Path segment = dir.resolve(String.format("segment_%06d.dat", entry.getInt(0)));
+        byte[] data = Files.readAllBytes(segment);
+        data[entry.getInt(4) + entry.getInt(8) - 1] ^= 0x10;
+        Files.write(segment, data);
+    }
+
+    // Сегмент другой версии не отрезается как повреждённый
+    @Test
+    void foreignVersionIsNotTruncated() throws IOException {
+        fill(3);
+        Path segment = dir.resolve("segment_000000.dat");
+        byte[] data = Files.readAllBytes(segment);
+        data[7] = (byte) (GameArchive.VERSION + 1);
+        Files.write(segment, data);
+        assertThrows(IOException.class, () -> GameArchive.open(dir));
+        assertEquals(data.length, Files.size(segment));
+    }
+
+    // Пока архив открыт, второй писатель ждёт и получает отказ; отложенная партия переносится позже
+    @Test
+    void busyArchiveAndPendingGames() throws IOException {
+        Game game = random(5);
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertThrows(IOException.class, () -> GameArchive.open(dir, 100));
+            GameArchive.savePending(dir, game);
+            GameArchive.savePending(dir, random(6));
+            assertEquals(0, archive.size());
+        }
+        try (GameArchive archive = GameArchive.open(dir, 100)) {
+            assertEquals(2, archive.importPending());
+            assertEquals(2, archive.size());
+            assertSameGame(game, archive.get(0).toGame());
+            try (Stream<Path> files = Files.list(dir.resolve(GameArchive.PENDING_DIR))) {
+                assertFalse(files.findAny().isPresent());
+            }
+            assertEquals(0, archive.importPending());
+        }
+    }
+
+    // Перенос текстовой истории (Game.writeHistory) в архив
+    @Test
+    void importsTextHistory() throws IOException {
+        Path history = Files.createDirectory(dir.resolve("history"));
+        Game game = random(9);
+        game.writeHistory(history.resolve("game_1.txt"));
+        try (GameArchive archive = GameArchive.open(dir.resolve("archive"))) {
+            assertEquals(1, archive.importHistory(history));
+            assertEquals(game.positionKey(), archive.get(0).toGame().positionKey());
+        }
+    }
+
+    @Test
+    void importsMultiJumpHistoryLineByHop() throws IOException {
+        Path history = Files.createDirectory(dir.resolve("history"));
+        // Партии, где есть взятие нескольких шашек: в файле оно записано по строке на прыжок
+        int files = 0;
+        for (long seed = 0; files < 4; seed++) {
+            Game game = random(seed);
+            boolean multiJump = false;
+            for (int i = 0; i < game.getPlayedMoves(); i++) {
+                multiJump |= Move.captureCount(game.getPlayedMove(i)) > 1;
+            }
+            if (multiJump) {
+                game.writeHistory(history.resolve("game_" + seed + ".txt"));
+                files++;
+            }
+        }
+        try (GameArchive archive = GameArchive.open(dir.resolve("archive"))) {
+            assertEquals(files, archive.importHistory(history));
+            try (Stream<Path> list = Files.list(history)) {
+                Path[] sorted = list.sorted().toArray(Path[]::new);
+                for (int i = 0; i < sorted.length; i++) {
+                    String name = sorted[i].getFileName().toString();
+                    long seed = Long.parseLong(name.substring("game_".length(), name.length() - ".txt".length()));
+                    assertSameGame(random(seed), archive.get(i).toGame());
+                }
+            }
+        }
+    }
+
+    private void fill(int games) throws IOException {
+        try (GameArchive archive = GameArchive.open(dir)) {
+            for (int i = 0; i < games; i++) {
+                archive.append(random(i));
+            }
+        }
+    }
+
+    // Случайная партия до конца или 120 полуходов, варианты чередуются
+    private static Game random(long seed) {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(GameSettings.Variant.values()[(int) (seed % 2)]);
+        Game game = new Game(settings);
+        Random random = new Random(seed);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 120 && !game.isGameOver(); i++) {
+            int count = game.generateMoves(moves);
+            int k = random.nextInt(count);
+            game.makeMove(moves.get(k), moves.getCaptured(k));
+        }
+        return game;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.getStartPosition().getKey(), actual.getStartPosition().getKey());
+        assertEquals(expected.getPlayedMoves(), actual.getPlayedMoves());
+        for (int i = 0; i < expected.getPlayedMoves(); i++) {
+            assertEquals(expected.getPlayedMove(i), actual.getPlayedMove(i), "ply " + i);
+            assertEquals(expected.getPlayedCaptured(i), actual.getPlayedCaptured(i), "ply " + i);
+        }
+        assertEquals(expected.positionKey(), actual.positionKey());
+    }
+}
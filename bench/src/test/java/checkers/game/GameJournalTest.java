@@ -0,0 +1,120 @@
+package checkers.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Журнал ходов: восстановление партии из снимка и записей, в том числе после обрыва записи
+class GameJournalTest {
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private Path journalFile;
+
+    @BeforeEach
+    void files() {
+        snapshot = dir.resolve("autosave.bin");
+        journalFile = dir.resolve("autosave.journal");
+    }
+
+    @Test
+    void recoversMovesAndUndos() throws IOException {
+        Game game = journaled(30, 1);
+        assertSameGame(game, GameJournal.recover(snapshot, journalFile));
+    }
+
+    // Больше COMPACT_RECORDS записей: снимок переписан, журнал начат заново
+    @Test
+    void recoversAfterCompaction() throws IOException {
+        Game game = journaled(150, 2);
+        assertSameGame(game, GameJournal.recover(snapshot, journalFile));
+        long records = (Files.size(journalFile) - GameJournal.HEADER_BYTES) / GameJournal.RECORD_BYTES;
+        assertTrue(records < 100);
+        Files.delete(journalFile);
+        assertTrue(GameJournal.recover(snapshot, journalFile).getPlayedMoves() > 0);
+    }
+
+    // Оборванная или испорченная последняя запись отбрасывается, всё до неё восстанавливается
+    @Test
+    void tornRecordIsDropped() throws IOException {
+        Game game = journaled(20, 3);
+        byte[] full = Files.readAllBytes(journalFile);
+        // последняя запись - ход, без неё партия на полуход короче
+        game.unmakeMove();
+        for (int cut = 1; cut < GameJournal.RECORD_BYTES; cut++) {
+            Files.write(journalFile, Arrays.copyOf(full, full.length - cut));
+            assertSameGame(game, GameJournal.recover(snapshot, journalFile));
+        }
+        byte[] damaged = full.clone();
+        damaged[damaged.length - 6] ^= 1;
+        Files.write(journalFile, damaged);
+        assertSameGame(game, GameJournal.recover(snapshot, journalFile));
+    }
+
+    // Журнал от другого снимка (сбой между записью снимка и очисткой журнала) не применяется
+    @Test
+    void staleJournalIsIgnored() throws IOException {
+        journaled(30, 4);
+        byte[] journal = Files.readAllBytes(journalFile);
+        journal[GameJournal.HEADER_BYTES - 1] ^= 1;
+        Files.write(journalFile, journal);
+        assertEquals(0, GameJournal.recover(snapshot, journalFile).getPlayedMoves());
+
+        Files.delete(journalFile);
+        assertEquals(0, GameJournal.recover(snapshot, journalFile).getPlayedMoves());
+    }
+
+    @Test
+    void discardDeletesFiles() {
+        Game game = new Game(new GameSettings());
+        GameJournal journal = new GameJournal(snapshot, journalFile);
+        journal.attach(game);
+        MoveList moves = game.getLegalMoves();
+        game.makeMove(moves.get(0), moves.getCaptured(0));
+        journal.discard();
+        assertFalse(Files.exists(snapshot));
+        assertFalse(Files.exists(journalFile));
+    }
+
+    private Game journaled(int plies, long seed) {
+        Game game = new Game(new GameSettings());
+        GameJournal journal = new GameJournal(snapshot, journalFile);
+        journal.attach(game);
+        Random random = new Random(seed);
+        MoveList moves = new MoveList();
+        // каждая итерация заканчивается ходом; законченная партия отступает на два полухода
+        for (int i = 0; i < plies; i++) {
+            if (game.isGameOver()) {
+                game.unmakeMove();
+                game.unmakeMove();
+            } else if (i % 7 == 6) {
+                game.unmakeMove();
+            }
+            int count = game.generateMoves(moves);
+            int k = random.nextInt(count);
+            game.makeMove(moves.get(k), moves.getCaptured(k));
+        }
+        journal.close();
+        GameJournal.flush();
+        return game;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.getPlayedMoves(), actual.getPlayedMoves());
+        for (int i = 0; i < expected.getPlayedMoves(); i++) {
+            assertEquals(expected.getPlayedMove(i), actual.getPlayedMove(i), "ply " + i);
+            assertEquals(expected.getPlayedCaptured(i), actual.getPlayedCaptured(i), "ply " + i);
+        }
+        assertEquals(expected.positionKey(), actual.positionKey());
+    }
+}
@@ -0,0 +1,104 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.enums.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSlabTest {
+    // Неоднозначное взятие в русских шашках: белые бьют f6:h8 разными цепочками
+    private static final Position AMBIGUOUS = new Position(0x08000400, 0x000181c0, 0);
+
+    @Test
+    void freedEntriesAreReused() {
+        GameSlab slab = new GameSlab(1);
+        int first = slab.allocate(GameSettings.Variant.RUSSIAN);
+        int second = slab.allocate(GameSettings.Variant.SPANISH);
+        int third = slab.allocate(GameSettings.Variant.RUSSIAN);
+        assertEquals(3, slab.size());
+
+        slab.free(first);
+        slab.free(third);
+        assertFalse(slab.isUsed(first));
+        assertThrows(IllegalStateException.class, () -> slab.free(first));
+        assertEquals(1, slab.size());
+
+        // Список свободных - стек: сначала последняя освобождённая запись
+        assertEquals(third, slab.allocate(GameSettings.Variant.SPANISH));
+        assertEquals(first, slab.allocate(GameSettings.Variant.SPANISH));
+        assertEquals(3, slab.allocate(GameSettings.Variant.RUSSIAN));
+        assertEquals(4, slab.size());
+
+        GameSlab.Entry entry = slab.entry().moveTo(second);
+        assertEquals(GameSettings.Variant.SPANISH, entry.getVariant());
+        assertEquals(Position.initial().getKey(), entry.getKey());
+        assertThrows(IllegalArgumentException.class, () -> slab.entry().moveTo(5));
+    }
+
+    @Test
+    void movesMatchGame() {
+        GameSlab slab = new GameSlab(1);
+        GameSlab.Entry entry = slab.entry();
+        MoveList moves = new MoveList();
+        for (GameSettings.Variant variant : GameSettings.Variant.values()) {
+            for (long seed = 0; seed < 20; seed++) {
+                GameSettings settings = new GameSettings();
+                settings.setVariant(variant);
+                Game game = new Game(settings);
+                entry.moveTo(slab.allocate(variant));
+                Random random = new Random(seed);
+                while (!game.isGameOver() && game.getPlayedMoves() < 150) {
+                    int count = entry.generateMoves(moves);
+                    assertEquals(game.getLegalMoves().size(), count);
+                    int k = random.nextInt(count);
+                    entry.makeMove(moves.get(k), moves.getCaptured(k));
+                    game.makeMove(moves.get(k), moves.getCaptured(k));
+                    assertEquals(game.positionKey(), entry.getKey());
+                    assertEquals(game.isWhiteToMove(), entry.isWhiteToMove());
+                    assertEquals(game.getPlayedMoves(), entry.getPlies());
+                }
+                if (game.getGameState() == GameState.WHITE_WIN || game.getGameState() == GameState.BLACK_WIN) {
+                    assertEquals(game.getGameState(), entry.getGameState());
+                }
+                assertEquals(game.positionKey(), entry.toGame().positionKey());
+                slab.free(entry.getHandle());
+            }
+        }
+    }
+
+    @Test
+    void ambiguousCaptureNeedsPath() {
+        GameSlab slab = new GameSlab(1);
+        GameSlab.Entry entry = slab.entry().moveTo(slab.allocate(GameSettings.Variant.RUSSIAN,
+                AMBIGUOUS.getWhite(), AMBIGUOUS.getBlack(), AMBIGUOUS.getKings(), true));
+        GameSettings settings = new GameSettings();
+        settings.setVariant(GameSettings.Variant.RUSSIAN);
+        Game game = new Game(settings);
+        game.setPosition(AMBIGUOUS, true);
+
+        int from = Move.parseSquare("f6", 0);
+        int to = Move.parseSquare("h8", 0);
+        assertFalse(entry.play(from, to));
+        assertEquals(0, entry.getPlies());
+
+        MoveList legal = game.getLegalMoves();
+        int[] path = new int[32];
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.from(legal.get(i)) == from && Move.to(legal.get(i)) == to) {
+                int length = MovePath.of(AMBIGUOUS, true, legal.get(i), legal.getCaptured(i), path);
+                assertTrue(entry.play(path, length));
+                game.makeMove(legal.get(i), legal.getCaptured(i));
+                break;
+            }
+        }
+        assertEquals(1, entry.getPlies());
+        assertEquals(game.positionKey(), entry.getKey());
+        assertEquals(game.positionKey(), entry.toGame().positionKey());
+    }
+}
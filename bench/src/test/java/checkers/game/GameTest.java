@@ -0,0 +1,68 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ходы и отмена ходов партии, выбор цепочки взятия
+class GameTest {
+    // Русские шашки, ход белых: f6:h8 бьёт разные шашки в зависимости от пути
+    private static final Position AMBIGUOUS = new Position(0x08000400, 0x000181c0, 0);
+
+    @Test
+    void unmakeRestoresPositionKeyAndHistory() {
+        Game game = newGame(GameSettings.Variant.RUSSIAN);
+        Random random = new Random(1);
+        MoveList moves = new MoveList();
+        long[] keys = new long[200];
+        int plies = 0;
+        while (plies < keys.length && !game.isGameOver()) {
+            keys[plies++] = game.positionKey();
+            int count = game.generateMoves(moves);
+            int k = random.nextInt(count);
+            game.makeMove(moves.get(k), moves.getCaptured(k));
+        }
+        while (plies > 0) {
+            assertTrue(game.unmakeMove());
+            plies--;
+            assertEquals(keys[plies], game.positionKey(), "ply " + plies);
+            assertEquals(plies, game.getPlayedMoves());
+        }
+        assertEquals(Position.initial().getKey(), game.getBoard().getPosition().getKey());
+        assertTrue(game.isWhiteToMove());
+    }
+
+    @Test
+    void ambiguousCaptureNeedsChoice() {
+        Game game = newGame(GameSettings.Variant.RUSSIAN);
+        game.setPosition(AMBIGUOUS, true);
+        int from = Move.parseSquare("f6", 0);
+        int to = Move.parseSquare("h8", 0);
+        int[] choices = game.getCaptureChoices(game.getBoard().getChecker(from), game.getBoard().getCell(to));
+        assertTrue(choices.length > 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> game.makeMove(game.getBoard().getChecker(from), game.getBoard().getCell(to)));
+        assertEquals(0, game.getPlayedMoves());
+
+        int black = AMBIGUOUS.getBlack();
+        for (int captured : choices) {
+            game.makeMove(game.getBoard().getChecker(from), game.getBoard().getCell(to), captured);
+            assertEquals(1, game.getPlayedMoves());
+            assertEquals(black & ~captured, game.getBoard().getPosition().getBlack());
+            assertEquals(captured, game.getPlayedCaptured(0));
+            game.unmakeMove();
+            assertEquals(black, game.getBoard().getPosition().getBlack());
+        }
+    }
+
+    private static Game newGame(GameSettings.Variant variant) {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(variant);
+        return new Game(settings);
+    }
+}
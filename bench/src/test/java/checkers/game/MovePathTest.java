@@ -0,0 +1,78 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Поиск хода по пути: короткий путь к клетке, куда ведут разные цепочки, неоднозначен,
+// полный путь выбирает ровно одну цепочку
+class MovePathTest {
+    // Русские шашки, ход белых: к h8 ведут прыжок f6:h8 и цепочки через d8, бьющие больше
+    private static final Position RUSSIAN = new Position(0x08000400, 0x000181c0, 0);
+    // Испанские шашки, ход белых: f2:d8 через b6 или через f6
+    private static final Position SPANISH = new Position(0x14000000, 0x08406069, 0x00400000);
+
+    @Test
+    void shortPathToSeveralChainsIsAmbiguous() {
+        MoveList legal = legalMoves(GameSettings.Variant.SPANISH, SPANISH);
+        int[] path = new int[32];
+        assertEquals(MovePath.AMBIGUOUS, find(legal, SPANISH, "f2:d8", path));
+        assertEquals(-1, find(legal, SPANISH, "f2:h4", path));
+        assertEquals(-1, find(legal, SPANISH, "f2", path));
+        // Прыжок не по диагонали - не цепочка
+        assertEquals(-1, find(legal, SPANISH, "f2:d4:d8", path));
+        assertFullPathsFound(legal, SPANISH, path);
+    }
+
+    @Test
+    void shortPathThatIsOneJumpIsExact() {
+        MoveList legal = legalMoves(GameSettings.Variant.RUSSIAN, RUSSIAN);
+        int[] path = new int[32];
+        int h8 = Move.parseSquare("h8", 0);
+        int jump = find(legal, RUSSIAN, "f6:h8", path);
+        assertTrue(jump >= 0);
+        assertEquals(h8, Move.to(legal.get(jump)));
+        assertEquals(1 << Move.parseSquare("g7", 0), legal.getCaptured(jump));
+
+        int chains = 0;
+        for (int i = 0; i < legal.size(); i++) {
+            chains += Move.to(legal.get(i)) == h8 ? 1 : 0;
+        }
+        assertTrue(chains > 1);
+        assertEquals(-1, find(legal, RUSSIAN, "a1-b2", path));
+        assertFullPathsFound(legal, RUSSIAN, path);
+    }
+
+    // Каждый ход находится по своему полному пути, а единственный ход к клетке - и по короткому
+    private static void assertFullPathsFound(MoveList legal, Position position, int[] path) {
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int length = MovePath.of(position, true, move, legal.getCaptured(i), path);
+            String full = MovePath.toNotation(path, length, Move.isCapture(move));
+            assertEquals(i, find(legal, position, full, path), full);
+            assertEquals(legal.getCaptured(i), MovePath.capturedOnPath(position, true, path, length), full);
+
+            int sameEnds = 0;
+            for (int j = 0; j < legal.size(); j++) {
+                sameEnds += Move.from(legal.get(j)) == Move.from(move) && Move.to(legal.get(j)) == Move.to(move) ? 1 : 0;
+            }
+            if (sameEnds == 1) {
+                assertEquals(i, find(legal, position, Move.toNotation(move), path), Move.toNotation(move));
+            }
+        }
+    }
+
+    private static int find(MoveList legal, Position position, String text, int[] path) {
+        return MovePath.find(legal, position, true, path, MovePath.parse(text, path));
+    }
+
+    private static MoveList legalMoves(GameSettings.Variant variant, Position position) {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(variant);
+        Game game = new Game(settings);
+        game.setPosition(position, true);
+        return game.getLegalMoves();
+    }
+}
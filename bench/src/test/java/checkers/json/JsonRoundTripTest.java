@@ -0,0 +1,140 @@
+package checkers.json;
+
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import checkers.game.MoveList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// JsonWriter и JsonReader: запись и разбор без потерь, ошибки на неверных данных
+class JsonRoundTripTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void valuesSurviveRoundTrip() throws IOException {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("text", "кавычка \" слэш \\ / перевод\nтаб\t\u0001 \uD83D\uDE00");
+        value.put("", "пустое имя");
+        value.put("int", -42);
+        value.put("long", 1L << 40);
+        value.put("minLong", Long.MIN_VALUE);
+        value.put("big", new BigInteger("123456789012345678901234567890"));
+        value.put("double", -2.5e-10);
+        value.put("true", true);
+        value.put("false", false);
+        value.put("null", null);
+        value.put("emptyArray", new ArrayList<>());
+        value.put("emptyObject", new LinkedHashMap<>());
+        value.put("array", Arrays.asList(1, "два", 3.5, null, Arrays.asList(true, false)));
+
+        String json = JsonHelper.toJson(value);
+        assertEquals(value, JsonHelper.parse(json));
+        // повторная запись разобранного даёт тот же текст
+        assertEquals(json, JsonHelper.toJson(JsonHelper.parse(json)));
+    }
+
+    @Test
+    void numbersKeepTheirType() throws IOException {
+        List<Object> numbers = JsonHelper.asArray(JsonHelper.parse(
+                "[7, 2147483648, -9223372036854775808, 9223372036854775808, 1.0, 1e3]"));
+        assertEquals(7, numbers.get(0));
+        assertEquals(2147483648L, numbers.get(1));
+        assertEquals(Long.MIN_VALUE, numbers.get(2));
+        assertEquals(new BigInteger("9223372036854775808"), numbers.get(3));
+        assertInstanceOf(Double.class, numbers.get(4));
+        assertEquals(1000.0, numbers.get(5));
+    }
+
+    // Вложенность глубже начального стека читателя и писателя
+    @Test
+    void deepNesting() throws IOException {
+        Object value = "дно";
+        for (int i = 0; i < 100; i++) {
+            value = i % 2 == 0 ? List.of(value) : Map.of("k", value);
+        }
+        assertEquals(value, JsonHelper.parse(JsonHelper.toJson(value)));
+    }
+
+    @Test
+    void streamingReadAndWrite() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject().name("variant").value("RUSSIAN").name("moves").beginArray();
+        for (int i = 0; i < 1000; i++) {
+            writer.value(i);
+        }
+        writer.endArray().name("ponder").value(true).endObject().flush();
+
+        JsonReader reader = new JsonReader(new StringReader(out.toString()));
+        reader.beginObject();
+        assertEquals("variant", reader.nextName());
+        assertEquals("RUSSIAN", reader.nextString());
+        assertEquals("moves", reader.nextName());
+        reader.beginArray();
+        long sum = 0;
+        while (reader.hasNext()) {
+            sum += reader.nextInt();
+        }
+        reader.endArray();
+        assertEquals(999 * 1000 / 2, sum);
+        assertEquals("ponder", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        reader.endObject();
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        for (String json : new String[] {"", "{", "[1,]", "[1 2]", "{\"a\" 1}", "{\"a\":1,}", "\"без конца",
+                "\"\\x\"", "tru", "01x", "[1] 2", "{1:2}", "-"}) {
+            assertThrows(IOException.class, () -> JsonHelper.parse(json), json);
+        }
+    }
+
+    @Test
+    void writerRejectsNonFiniteNumbers() {
+        JsonWriter writer = new JsonWriter(new StringWriter());
+        assertThrows(IllegalArgumentException.class, () -> writer.value(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> writer.value((Number) Float.POSITIVE_INFINITY));
+    }
+
+    // Сохранение партии в JSON и загрузка обратно (JSON хранит позицию без истории ходов)
+    @Test
+    void gameSurvivesJsonSave() {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(GameSettings.Variant.RUSSIAN);
+        Game game = new Game(settings);
+        Random random = new Random(3);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 60 && !game.isGameOver(); i++) {
+            int count = game.generateMoves(moves);
+            int k = random.nextInt(count);
+            game.makeMove(moves.get(k), moves.getCaptured(k));
+        }
+        Path file = dir.resolve("save.json");
+        game.saveGame(file);
+        Game loaded = Game.loadGame(file);
+        assertEquals(game.positionKey(), loaded.positionKey());
+        assertEquals(game.getSettings().getVariant(), loaded.getSettings().getVariant());
+        assertEquals(game.getGameState(), loaded.getGameState());
+        assertEquals(game.getBoard().getPosition().getKings(), loaded.getBoard().getPosition().getKings());
+    }
+}
@@ -0,0 +1,71 @@
+package checkers.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Сервер в том же процессе на свободном порту: два клиента начинают партию и делают ход
+class GameServerTest {
+    @Test
+    void playersStartGameAndMove() throws Exception {
+        GameServer server = new GameServer(0);
+        Thread thread = new Thread(server, "game-server");
+        thread.start();
+        try (Client white = new Client(server.getPort()); Client black = new Client(server.getPort())) {
+            white.send("NEW RUSSIAN");
+            assertEquals("WAIT", white.receive());
+            black.send("NEW RUSSIAN");
+            String game = white.receive();
+            assertTrue(game.matches("GAME \\d+ WHITE"), game);
+            assertEquals(game.replace("WHITE", "BLACK"), black.receive());
+
+            black.send("MOVE f6-e5");
+            assertEquals("ERROR not your turn", black.receive());
+            white.send("MOVE c3-c4");
+            assertEquals("ERROR illegal move", white.receive());
+            white.send("MOVE c3-d4");
+            assertEquals("MOVED c3-d4", white.receive());
+            assertEquals("MOVED c3-d4", black.receive());
+            black.send("MOVE f6-e5");
+            assertEquals("MOVED f6-e5", white.receive());
+            assertEquals("MOVED f6-e5", black.receive());
+        } finally {
+            server.stop();
+            thread.join(5000);
+        }
+    }
+
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        Client(int port) throws IOException {
+            socket = new Socket("127.0.0.1", port);
+            socket.setSoTimeout(5000);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        void send(String line) {
+            writer.println(line);
+        }
+
+        String receive() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
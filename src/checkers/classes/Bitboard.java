@@ -0,0 +1,86 @@
+package checkers.classes;
+
+// Битовое представление доски: 32 игровые (тёмные) клетки.
+// Клетка (x, y) имеет индекс sq = y * 4 + x / 2 и соответствует биту (1 << sq).
+// Строка 0 - верх доски (сторона чёрных), строка 7 - низ (сторона белых).
+public final class Bitboard {
+    public static final int SQUARES = 32;
+
+    // Направления: белые шашки ходят вверх, чёрные - вниз
+    public static final int UP_LEFT = 0;
+    public static final int UP_RIGHT = 1;
+    public static final int DOWN_LEFT = 2;
+    public static final int DOWN_RIGHT = 3;
+
+    public static final int TOP_ROW = 0x0000000F;
+    public static final int BOTTOM_ROW = 0xF0000000;
+    public static final int ALL = 0xFFFFFFFF;
+
+    // Начальная расстановка: чёрные на строках 0-2, белые на строках 5-7
+    public static final int INITIAL_BLACK = 0x00000FFF;
+    public static final int INITIAL_WHITE = 0xFFF00000;
+
+    private static final int EVEN_ROWS = 0x0F0F0F0F; // строки 0, 2, 4, 6 (x = 2c + 1)
+    private static final int ODD_ROWS = 0xF0F0F0F0;  // строки 1, 3, 5, 7 (x = 2c)
+    private static final int FIRST_COLUMN = 0x11111111;
+    private static final int LAST_COLUMN = 0x88888888;
+
+    // Соседняя клетка в каждом направлении (-1, если выходит за доску)
+    public static final int[][] NEIGHBOR = new int[4][SQUARES];
+
+    static {
+        for (int dir = 0; dir < 4; dir++) {
+            for (int sq = 0; sq < SQUARES; sq++) {
+                int target = shift(1 << sq, dir);
+                NEIGHBOR[dir][sq] = target == 0 ? -1 : Integer.numberOfTrailingZeros(target);
+            }
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    // Индекс клетки по координатам (-1 для светлых клеток и координат вне доски)
+    public static int square(int x, int y) {
+        if (x < 0 || x >= 8 || y < 0 || y >= 8 || ((x + y) & 1) == 0) {
+            return -1;
+        }
+        return (y << 2) + (x >> 1);
+    }
+
+    public static int x(int sq) {
+        return ((sq & 3) << 1) + (1 - ((sq >>> 2) & 1));
+    }
+
+    public static int y(int sq) {
+        return sq >>> 2;
+    }
+
+    // Сдвиг всех битов маски на одну клетку в направлении dir
+    public static int shift(int mask, int dir) {
+        switch (dir) {
+            case UP_LEFT:
+                return ((mask & EVEN_ROWS & ~TOP_ROW) >>> 4) | ((mask & ODD_ROWS & ~FIRST_COLUMN) >>> 5);
+            case UP_RIGHT:
+                return ((mask & EVEN_ROWS & ~TOP_ROW & ~LAST_COLUMN) >>> 3) | ((mask & ODD_ROWS) >>> 4);
+            case DOWN_LEFT:
+                return ((mask & EVEN_ROWS) << 4) | ((mask & ODD_ROWS & ~BOTTOM_ROW & ~FIRST_COLUMN) << 3);
+            default:
+                return ((mask & EVEN_ROWS & ~LAST_COLUMN) << 5) | ((mask & ODD_ROWS & ~BOTTOM_ROW) << 4);
+        }
+    }
+
+    // Ряд превращения в дамку для стороны
+    public static int promotionRow(boolean white) {
+        return white ? TOP_ROW : BOTTOM_ROW;
+    }
+
+    // Направления хода простой шашки стороны
+    public static int forwardLeft(boolean white) {
+        return white ? UP_LEFT : DOWN_LEFT;
+    }
+
+    public static int forwardRight(boolean white) {
+        return white ? UP_RIGHT : DOWN_RIGHT;
+    }
+}
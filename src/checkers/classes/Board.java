@@ -1,20 +1,23 @@
 package checkers.classes;
 
-import java.awt.*;
+import checkers.enums.CheckerType;
+import checkers.enums.PieceColor;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Board {
-    private Cell[][] cells;
-    private List<Checker> checkers;
+    private final Position position;
+    private final Cell[][] cells;
+    private final Cell[] playableCells = new Cell[Bitboard.SQUARES];
+    // Объекты-представления шашек, по одному на клетку; занятость читается из Position
+    private final Checker[] checkers = new Checker[Bitboard.SQUARES];
 
     public Board(boolean empty) {
+        this.position = empty ? new Position() : Position.initial();
+        this.cells = new Cell[8][8];
         initializeBoard();
-        if (!empty) {
-            setupCheckers();
-        } else {
-            checkers = new ArrayList<>();
-        }
     }
 
     public Board() {
@@ -23,49 +26,27 @@ public class Board {
 
     // Метод для полной очистки доски
     public void clearBoard() {
-        // Удаляем все шашки с клеток
-        for (int x = 0; x < 8; x++) {
-            for (int y = 0; y < 8; y++) {
-                cells[x][y].removeChecker();
-            }
-        }
-        // Очищаем список шашек
-        checkers.clear();
+        position.clear();
     }
 
     private void initializeBoard() {
-        cells = new Cell[8][8];
         for (int x = 0; x < 8; x++) {
             for (int y = 0; y < 8; y++) {
-                Color cellColor = ((x + y) % 2 == 0) ? Color.LIGHT_GRAY : Color.DARK_GRAY;
-                cells[x][y] = new Cell(x, y, cellColor);
-            }
-        }
-    }
-
-    private void setupCheckers() {
-        checkers = new ArrayList<>();
-
-        // Белые шашки (нижняя часть - y = 5,6,7)
-        for (int y = 5; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                if (cells[x][y].getColor() == Color.DARK_GRAY) {
-                    checkers.add(new Checker(Color.WHITE, cells[x][y]));
-                }
-            }
-        }
-
-        // Черные шашки (верхняя часть - y = 0,1,2)
-        for (int y = 0; y < 3; y++) {
-            for (int x = 0; x < 8; x++) {
-                if (cells[x][y].getColor() == Color.DARK_GRAY) {
-                    checkers.add(new Checker(Color.BLACK, cells[x][y]));
+                cells[x][y] = new Cell(this, x, y, (x + y) % 2 != 0);
+                int sq = cells[x][y].getSquare();
+                if (sq >= 0) {
+                    playableCells[sq] = cells[x][y];
+                    checkers[sq] = new Checker(this, sq);
                 }
             }
         }
     }
 
     // Геттеры
+    public Position getPosition() {
+        return position;
+    }
+
     public Cell getCell(int x, int y) {
         if (x >= 0 && x < 8 && y >= 0 && y < 8) {
             return cells[x][y];
@@ -73,42 +54,74 @@ public class Board {
         return null;
     }
 
+    public Cell getCell(int square) {
+        return playableCells[square];
+    }
+
+    public Checker getChecker(int square) {
+        return position.isOccupied(square) ? checkers[square] : null;
+    }
+
     public List<Checker> getCheckers() {
-        return checkers;
+        return getCheckersByMask(position.getOccupied());
     }
 
-    public List<Checker> getCheckersByColor(Color color) {
-        List<Checker> result = new ArrayList<>();
-        for (Checker checker : checkers) {
-            if (checker.getColor() == color) {
-                result.add(checker);
-            }
+    public List<Checker> getCheckersByColor(PieceColor color) {
+        return getCheckersByMask(position.getPieces(color == PieceColor.WHITE));
+    }
+
+    private List<Checker> getCheckersByMask(int mask) {
+        List<Checker> result = new ArrayList<>(Integer.bitCount(mask));
+        while (mask != 0) {
+            result.add(checkers[Integer.numberOfTrailingZeros(mask)]);
+            mask &= mask - 1;
         }
-        return result;
+        return Collections.unmodifiableList(result);
     }
 
     // Перемещение шашки
     public void moveChecker(Checker checker, Cell targetCell) {
-        Cell fromCell = checker.getCell();
-        fromCell.removeChecker();
-        targetCell.setChecker(checker);
-        checker.setCell(targetCell);
+        moveChecker(checker.getSquare(), targetCell.getSquare());
+    }
+
+    public void moveChecker(int from, int to) {
+        position.move(from, to);
     }
 
     // Удаление шашки
     public void removeChecker(Checker checker) {
-        checker.getCell().removeChecker();
-        checkers.remove(checker);
+        removeChecker(checker.getSquare());
     }
 
-    public void addChecker(Checker checker) {
-        if (!checkers.contains(checker)) {
-            checkers.add(checker);
+    public void removeChecker(int square) {
+        position.remove(square);
+    }
+
+    // Постановка шашки на клетку (используется при загрузке)
+    public Checker placeChecker(PieceColor color, CheckerType type, int x, int y) {
+        int sq = Bitboard.square(x, y);
+        if (sq < 0) {
+            return null;
         }
+        placeChecker(sq, color == PieceColor.WHITE, type == CheckerType.KING);
+        return checkers[sq];
+    }
+
+    public void placeChecker(int square, boolean white, boolean king) {
+        position.put(square, white, king);
     }
 
     // Превращение в дамку
     public void promoteToKing(Checker checker) {
-        checker.promoteToKing();
+        promoteToKing(checker.getSquare());
+    }
+
+    public void promoteToKing(int square) {
+        position.promote(square);
+    }
+
+    // Обратное превращение (при отмене хода)
+    public void demoteKing(int square) {
+        position.demote(square);
     }
 }
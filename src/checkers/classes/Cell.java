@@ -1,36 +1,33 @@
 package checkers.classes;
 
-import java.awt.*;
-
 public class Cell {
+    private final Board board;
     private final int x;
     private final int y;
-    private final Color color;
-    private Checker checker;
+    private final int square;
+    private final boolean dark;
 
-    public Cell(int x, int y, Color color) {
+    public Cell(Board board, int x, int y, boolean dark) {
+        this.board = board;
         this.x = x;
         this.y = y;
-        this.color = color;
-        this.checker = null;
+        this.square = Bitboard.square(x, y);
+        this.dark = dark;
     }
 
     // Геттеры
     public int getX() { return x; }
     public int getY() { return y; }
-    public Color getColor() { return color; }
-    public Checker getChecker() { return checker; }
-
-    // Проверки
-    public boolean hasChecker() { return checker != null; }
-    public boolean isEmpty() { return checker == null; }
+    public int getSquare() { return square; }
+    public boolean isDark() { return dark; }
+    public Checker getChecker() { return square < 0 ? null : board.getChecker(square); }
 
-    // Установка/удаление шашки
-    public void setChecker(Checker checker) { this.checker = checker; }
-    public void removeChecker() { this.checker = null; }
+    // Проверки (читаются из битовых масок доски)
+    public boolean hasChecker() { return square >= 0 && board.getPosition().isOccupied(square); }
+    public boolean isEmpty() { return !hasChecker(); }
 
     @Override
     public String toString() {
         return "Cell{" + x + "," + y + "}";
     }
-}
\ No newline at end of file
+}
@@ -1,40 +1,39 @@
 package checkers.classes;
 
 import checkers.enums.CheckerType;
+import checkers.enums.PieceColor;
 
-import java.awt.*;
-
+// Представление шашки на клетке: цвет и тип читаются из битовых масок Position.
+// Объект привязан к клетке, а не к шашке, и создаётся один раз на доску
 public class Checker {
-    private final Color color;
-    private CheckerType type;
-    private Cell cell;
-
-    public Checker(Color color, Cell cell) {
-        this.color = color;
-        this.type = CheckerType.REGULAR;
-        this.cell = cell;
-        cell.setChecker(this);
+    private final Board board;
+    private final int square;
+
+    Checker(Board board, int square) {
+        this.board = board;
+        this.square = square;
     }
 
     // Геттеры
-    public Color getColor() { return color; }
-    public CheckerType getType() { return type; }
-    public Cell getCell() { return cell; }
+    public PieceColor getColor() {
+        return board.getPosition().isWhite(square) ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    public int getSquare() { return square; }
 
-    // Сеттеры
-    public void setCell(Cell cell) {
-        this.cell = cell;
+    public CheckerType getType() {
+        return board.getPosition().isKing(square) ? CheckerType.KING : CheckerType.REGULAR;
     }
 
-    public void promoteToKing() {
-        this.type = CheckerType.KING;
+    public Cell getCell() {
+        return board.getCell(square);
     }
 
     public boolean isWhite() {
-        return color == Color.WHITE;
+        return board.getPosition().isWhite(square);
     }
 
     public boolean isBlack() {
-        return color == Color.BLACK;
+        return board.getPosition().isBlack(square);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package checkers.classes;
 
+import checkers.datas.WindowBounds;
 import checkers.game.GamePanel;
 import checkers.game.GameSettings;
 import checkers.game.Game;
@@ -15,8 +16,11 @@ public class MainWindow extends JFrame {
     private GameSettings settings = new GameSettings();
 
     public MainWindow() {
-        // Загружаем сохраненную игру (если есть)
-        Game loadedGame = Game.loadGame();
+        // Партия, прерванная сбоем, восстанавливается по журналу; иначе загружаем сохраненную игру (если есть)
+        Game loadedGame = Game.recoverJournal();
+        if (loadedGame == null) {
+            loadedGame = Game.loadGame();
+        }
 
         if (loadedGame != null) {
             // Используем загруженную игру
@@ -26,7 +30,7 @@ public class MainWindow extends JFrame {
 
             // Восстанавливаем размер окна
             if (loadedGame.getWindowBounds() != null) {
-                setBounds(loadedGame.getWindowBounds());
+                setBounds(toRectangle(loadedGame.getWindowBounds()));
             } else {
                 setSize(600, 600);
                 setLocationRelativeTo(null);
@@ -54,8 +58,14 @@ public class MainWindow extends JFrame {
 
     private void saveState() {
         Game game = gamePanel.getGame();
-        game.setWindowBounds(getBounds());
+        Rectangle bounds = getBounds();
+        game.setWindowBounds(new WindowBounds(bounds.x, bounds.y, bounds.width, bounds.height));
         game.saveGame();
+        game.discardJournal();
+    }
+
+    private static Rectangle toRectangle(WindowBounds bounds) {
+        return new Rectangle(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
     }
 
     private void updateMenuTexts() {
@@ -72,6 +82,12 @@ public class MainWindow extends JFrame {
                 // Обновляем состояние кнопки загрузки
                 gameMenu.getItem(2).setEnabled(Game.saveExists());
             }
+            if (gameMenu.getItemCount() >= 4) {
+                gameMenu.getItem(3).setText(Messages.get("button.undo"));
+            }
+            if (gameMenu.getItemCount() >= 5) {
+                gameMenu.getItem(4).setText(Messages.get("button.hint"));
+            }
         }
     }
 
@@ -102,6 +118,16 @@ public class MainWindow extends JFrame {
         loadGameItem.setEnabled(Game.saveExists());
         gameMenu.add(loadGameItem);
 
+        // Отмена последнего хода
+        JMenuItem undoItem = new JMenuItem(Messages.get("button.undo"));
+        undoItem.addActionListener(e -> gamePanel.undoMove());
+        gameMenu.add(undoItem);
+
+        // Подсказка хода (поиск идёт в фоне)
+        JMenuItem hintItem = new JMenuItem(Messages.get("button.hint"));
+        hintItem.addActionListener(e -> gamePanel.showHint());
+        gameMenu.add(hintItem);
+
         menuBar.add(gameMenu);
         setJMenuBar(menuBar);
     }
@@ -125,7 +151,7 @@ public class MainWindow extends JFrame {
 
             // Восстанавливаем размер окна
             if (loadedGame.getWindowBounds() != null) {
-                setBounds(loadedGame.getWindowBounds());
+                setBounds(toRectangle(loadedGame.getWindowBounds()));
             } else {
                 pack();
             }
@@ -1,16 +1,17 @@
 package checkers.classes;
 
-import java.awt.*;
+import checkers.enums.PieceColor;
+
 import java.io.Serializable;
 
 public class MoveRecord implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final Color playerColor;
+    private final PieceColor playerColor;
     private final int fromX, fromY, toX, toY;
     private final boolean isCapture;
 
-    public MoveRecord(Color playerColor, int fromX, int fromY, int toX, int toY, boolean isCapture) {
+    public MoveRecord(PieceColor playerColor, int fromX, int fromY, int toX, int toY, boolean isCapture) {
         this.playerColor = playerColor;
         this.fromX = fromX;
         this.fromY = fromY;
@@ -21,7 +22,7 @@ public class MoveRecord implements Serializable {
 
     @Override
     public String toString() {
-        String player = (playerColor == Color.WHITE) ? "Белые" : "Чёрные";
+        String player = (playerColor == PieceColor.WHITE) ? "Белые" : "Чёрные";
         String capture = isCapture ? " (взятие)" : "";
         return String.format("%s: %c%d → %c%d%s",
                 player,
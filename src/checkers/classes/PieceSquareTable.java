@@ -0,0 +1,66 @@
+package checkers.classes;
+
+import checkers.game.GameSettings;
+
+// Оценка шашек по клеткам: материал (дамка дороже простой), продвижение простых,
+// удержание своего последнего ряда и центр. Значения - с точки зрения белых (у чёрных со знаком минус),
+// так что оценка позиции - сумма по шашкам и обновляется в Position при каждом изменении.
+// В старшей половине каждого значения - темп: на сколько рядов продвинута простая шашка.
+// Суммы обеих половин копятся в одном int; вес темпа зависит от стадии партии и
+// применяется в Evaluator (см. base и tempo)
+public final class PieceSquareTable {
+    // Центральные клетки c5, e5, d4, f4 и соседние
+    private static final int CENTER = 0x00666600;
+    private static final int TEMPO_SHIFT = 16;
+
+    public static final PieceSquareTable RUSSIAN = new PieceSquareTable(100, 300, 3, 8, 4);
+    public static final PieceSquareTable SPANISH = new PieceSquareTable(100, 250, 3, 8, 4);
+
+    // Индекс шашки как в Zobrist.piece
+    private final int[][] values = new int[4][Bitboard.SQUARES];
+
+    private PieceSquareTable(int manValue, int kingValue, int advanceBonus, int backRankBonus, int centerBonus) {
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int row = Bitboard.y(sq);
+            int center = (CENTER & (1 << sq)) != 0 ? centerBonus : 0;
+            int whiteMan = manValue + (7 - row) * advanceBonus + (row == 7 ? backRankBonus : 0) + center;
+            int blackMan = manValue + row * advanceBonus + (row == 0 ? backRankBonus : 0) + center;
+            values[Zobrist.piece(true, false)][sq] = whiteMan + ((7 - row) << TEMPO_SHIFT);
+            values[Zobrist.piece(true, true)][sq] = kingValue + center;
+            values[Zobrist.piece(false, false)][sq] = -blackMan - (row << TEMPO_SHIFT);
+            values[Zobrist.piece(false, true)][sq] = -(kingValue + center);
+        }
+    }
+
+    // Летающая дамка русских шашек ценнее
+    public static PieceSquareTable forVariant(GameSettings.Variant variant) {
+        return variant == GameSettings.Variant.RUSSIAN ? RUSSIAN : SPANISH;
+    }
+
+    public int value(int piece, int sq) {
+        return values[piece][sq];
+    }
+
+    // Оценка по клеткам из суммы значений (младшая половина со знаком)
+    public static int base(int score) {
+        return (short) score;
+    }
+
+    // Темп из суммы значений: продвижение простых белых минус продвижение простых чёрных
+    public static int tempo(int score) {
+        return (score - (short) score) >> TEMPO_SHIFT;
+    }
+
+    // Оценка расстановки целиком (для проверки и начального значения)
+    public int compute(int white, int black, int kings) {
+        int score = 0;
+        int pieces = white | black;
+        while (pieces != 0) {
+            int sq = Integer.numberOfTrailingZeros(pieces);
+            int bit = 1 << sq;
+            score += values[Zobrist.piece((white & bit) != 0, (kings & bit) != 0)][sq];
+            pieces &= pieces - 1;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,229 @@
+package checkers.classes;
+
+// Авторитетное состояние доски: три 32-битные маски (белые, чёрные, дамки).
+// Board, Cell и Checker - лишь представления над этими масками для интерфейса.
+// Ключ Zobrist расположения шашек обновляется при каждом изменении (без стороны хода),
+// как и оценка по таблице PieceSquareTable, если она задана
+public class Position {
+    private int white;
+    private int black;
+    private int kings;
+    private long key;
+    private PieceSquareTable table;
+    // Сумма значений таблицы по всем шашкам (с точки зрения белых)
+    private int score;
+
+    public Position() {
+    }
+
+    public Position(int white, int black, int kings) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings & (white | black);
+        this.key = Zobrist.compute(this.white, this.black, this.kings);
+    }
+
+    public static Position initial() {
+        return new Position(Bitboard.INITIAL_WHITE, Bitboard.INITIAL_BLACK, 0);
+    }
+
+    public Position copy() {
+        Position copy = new Position();
+        copy.set(this);
+        copy.table = table;
+        copy.score = score;
+        return copy;
+    }
+
+    // Копирование расстановки; своя таблица оценки сохраняется
+    public void set(Position other) {
+        this.white = other.white;
+        this.black = other.black;
+        this.kings = other.kings;
+        this.key = other.key;
+        if (table != null) {
+            this.score = other.table == table ? other.score : table.compute(white, black, kings);
+        }
+    }
+
+    public void set(int white, int black, int kings) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings & (white | black);
+        this.key = Zobrist.compute(this.white, this.black, this.kings);
+        if (table != null) {
+            this.score = table.compute(this.white, this.black, this.kings);
+        }
+    }
+
+    // Расстановка с уже известным ключом (например, из компактной записи GameSlab)
+    public void set(int white, int black, int kings, long key) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings;
+        this.key = key;
+        if (table != null) {
+            this.score = table.compute(white, black, kings);
+        }
+    }
+
+    // Подключение таблицы оценки: дальше оценка обновляется вместе с расстановкой
+    public void setTable(PieceSquareTable table) {
+        this.table = table;
+        this.score = table != null ? table.compute(white, black, kings) : 0;
+    }
+
+    public PieceSquareTable getTable() {
+        return table;
+    }
+
+    // Геттеры
+    public int getWhite() { return white; }
+    public int getBlack() { return black; }
+    public int getKings() { return kings; }
+    public int getPieces(boolean whiteSide) { return whiteSide ? white : black; }
+    public int getOccupied() { return white | black; }
+    public int getEmpty() { return ~(white | black); }
+    public long getKey() { return key; }
+    public int getScore() { return score; }
+
+    // Проверки
+    public boolean isOccupied(int sq) { return ((white | black) & (1 << sq)) != 0; }
+    public boolean isWhite(int sq) { return (white & (1 << sq)) != 0; }
+    public boolean isBlack(int sq) { return (black & (1 << sq)) != 0; }
+    public boolean isKing(int sq) { return (kings & (1 << sq)) != 0; }
+
+    public int count(boolean whiteSide) {
+        return Integer.bitCount(whiteSide ? white : black);
+    }
+
+    // Изменение состояния
+    public void put(int sq, boolean whitePiece, boolean king) {
+        int bit = 1 << sq;
+        remove(sq);
+        if (whitePiece) {
+            white |= bit;
+        } else {
+            black |= bit;
+        }
+        if (king) {
+            kings |= bit;
+        }
+        int piece = Zobrist.piece(whitePiece, king);
+        key ^= Zobrist.PIECES[piece][sq];
+        if (table != null) {
+            score += table.value(piece, sq);
+        }
+    }
+
+    public void remove(int sq) {
+        int bit = 1 << sq;
+        if (((white | black) & bit) == 0) {
+            return;
+        }
+        int piece = pieceAt(sq);
+        key ^= Zobrist.PIECES[piece][sq];
+        if (table != null) {
+            score -= table.value(piece, sq);
+        }
+        white &= ~bit;
+        black &= ~bit;
+        kings &= ~bit;
+    }
+
+    public void move(int from, int to) {
+        if (from == to) {
+            // Взятие по кругу может закончиться на исходной клетке
+            return;
+        }
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        int both = fromBit | toBit;
+        int piece = pieceAt(from);
+        long[] pieceKeys = Zobrist.PIECES[piece];
+        key ^= pieceKeys[from] ^ pieceKeys[to];
+        if (table != null) {
+            score += table.value(piece, to) - table.value(piece, from);
+        }
+        if ((white & fromBit) != 0) {
+            white ^= both;
+        } else {
+            black ^= both;
+        }
+        if ((kings & fromBit) != 0) {
+            kings ^= both;
+        }
+    }
+
+    public void promote(int sq) {
+        int bit = 1 << sq;
+        if (((white | black) & bit) == 0 || (kings & bit) != 0) {
+            return;
+        }
+        boolean whitePiece = (white & bit) != 0;
+        int man = Zobrist.piece(whitePiece, false);
+        int king = Zobrist.piece(whitePiece, true);
+        key ^= Zobrist.PIECES[man][sq] ^ Zobrist.PIECES[king][sq];
+        if (table != null) {
+            score += table.value(king, sq) - table.value(man, sq);
+        }
+        kings |= bit;
+    }
+
+    public void demote(int sq) {
+        int bit = 1 << sq;
+        if ((kings & bit) == 0) {
+            return;
+        }
+        boolean whitePiece = (white & bit) != 0;
+        int man = Zobrist.piece(whitePiece, false);
+        int king = Zobrist.piece(whitePiece, true);
+        key ^= Zobrist.PIECES[king][sq] ^ Zobrist.PIECES[man][sq];
+        if (table != null) {
+            score += table.value(man, sq) - table.value(king, sq);
+        }
+        kings &= ~bit;
+    }
+
+    // Выполнение хода целиком: перемещение, снятие побитых, превращение.
+    // Возвращает маску побитых дамок - она нужна для undoMove
+    public int applyMove(int from, int to, int captured, boolean promotion) {
+        int capturedKings = captured & kings;
+        move(from, to);
+        while (captured != 0) {
+            remove(Integer.numberOfTrailingZeros(captured));
+            captured &= captured - 1;
+        }
+        if (promotion) {
+            promote(to);
+        }
+        return capturedKings;
+    }
+
+    // Отмена хода, выполненного applyMove стороной moverWhite
+    public void undoMove(int from, int to, int captured, int capturedKings, boolean promotion, boolean moverWhite) {
+        if (promotion) {
+            demote(to);
+        }
+        move(to, from);
+        while (captured != 0) {
+            int sq = Integer.numberOfTrailingZeros(captured);
+            put(sq, !moverWhite, (capturedKings & (1 << sq)) != 0);
+            captured &= captured - 1;
+        }
+    }
+
+    public void clear() {
+        white = 0;
+        black = 0;
+        kings = 0;
+        key = 0;
+        score = 0;
+    }
+
+    // Индекс шашки на занятой клетке для таблиц Zobrist
+    private int pieceAt(int sq) {
+        int bit = 1 << sq;
+        return Zobrist.piece((white & bit) != 0, (kings & bit) != 0);
+    }
+}
@@ -1,10 +1,13 @@
 package checkers.classes;
 
+import checkers.enums.PlayerType;
 import checkers.game.Game;
 import checkers.game.GameSettings;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Locale;
 
 public class SettingsDialog extends JDialog {
@@ -67,10 +70,43 @@ public class SettingsDialog extends JDialog {
         gbc.gridx = 1;
         add(cellSizeSpinner, gbc);
 
+        // === Соперник ===
+        gbc.gridx = 0; gbc.gridy = 3;
+        add(new JLabel(Messages.get("settings.opponent")), gbc);
+        String[] opponentLabels = {
+                Messages.get("opponent.human"),
+                Messages.get("opponent.computer")
+        };
+        JComboBox<String> opponentCombo = new JComboBox<>(opponentLabels);
+        opponentCombo.setSelectedIndex(settings.getBlackPlayerType() == PlayerType.COMPUTER ? 1 : 0);
+        gbc.gridx = 1;
+        add(opponentCombo, gbc);
+
+        // === Время компьютера на ход ===
+        gbc.gridx = 0; gbc.gridy = 4;
+        add(new JLabel(Messages.get("settings.engine_time")), gbc);
+        JSpinner engineTimeSpinner = new JSpinner(new SpinnerNumberModel(settings.getEngineTimeMs(), 100, 30000, 100));
+        gbc.gridx = 1;
+        add(engineTimeSpinner, gbc);
+
+        // === Потоки поиска компьютера ===
+        gbc.gridx = 0; gbc.gridy = 5;
+        add(new JLabel(Messages.get("settings.engine_threads")), gbc);
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        JSpinner engineThreadsSpinner = new JSpinner(new SpinnerNumberModel(
+                Math.min(settings.getEngineThreads(), maxThreads), 1, maxThreads, 1));
+        gbc.gridx = 1;
+        add(engineThreadsSpinner, gbc);
+
+        // === Обдумывание на время соперника ===
+        JCheckBox ponderCheckBox = new JCheckBox(Messages.get("settings.ponder"), settings.isPonder());
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
+        add(ponderCheckBox, gbc);
+
         // === Кнопка сохранения истории ===
         JButton saveHistoryButton = new JButton(Messages.get("button.save_history"));
-        saveHistoryButton.addActionListener(e -> game.saveHistoryToFile());
-        gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 2;
+        saveHistoryButton.addActionListener(e -> saveHistory());
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2;
         add(saveHistoryButton, gbc);
 
         // === Кнопки OK/Отмена ===
@@ -95,6 +131,14 @@ public class SettingsDialog extends JDialog {
             // Размер клетки
             settings.setCellSize((Integer) cellSizeSpinner.getValue());
 
+            // Соперник и время на ход
+            settings.setBlackPlayerType(opponentCombo.getSelectedIndex() == 1
+                    ? PlayerType.COMPUTER
+                    : PlayerType.HUMAN);
+            settings.setEngineTimeMs((Integer) engineTimeSpinner.getValue());
+            settings.setEngineThreads((Integer) engineThreadsSpinner.getValue());
+            settings.setPonder(ponderCheckBox.isSelected());
+
             dispose();
         });
 
@@ -103,11 +147,21 @@ public class SettingsDialog extends JDialog {
 
         buttonPanel.add(okButton);
         buttonPanel.add(cancelButton);
-        gbc.gridy = 4; gbc.gridwidth = 1;
+        gbc.gridy = 8; gbc.gridwidth = 1;
         gbc.gridx = 0; gbc.anchor = GridBagConstraints.EAST;
         add(buttonPanel, gbc);
 
         pack();
         setLocationRelativeTo(getParent());
     }
+
+    // Сообщения о сохранении истории показывает интерфейс, а не Game
+    private void saveHistory() {
+        try {
+            Path dir = game.saveHistoryToFile();
+            JOptionPane.showMessageDialog(this, "История сохранена в:\n" + dir.toAbsolutePath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка сохранения: " + e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package checkers.classes;
+
+// Случайные 64-битные ключи Zobrist для хеширования позиций.
+// Генератор с фиксированным зерном - ключи одинаковы при каждом запуске (нужно для файлов на диске)
+public final class Zobrist {
+    public static final int WHITE_MAN = 0;
+    public static final int BLACK_MAN = 1;
+    public static final int WHITE_KING = 2;
+    public static final int BLACK_KING = 3;
+
+    public static final long[][] PIECES = new long[4][Bitboard.SQUARES];
+    // Ключ хода чёрных
+    public static final long SIDE;
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int piece = 0; piece < 4; piece++) {
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                seed += 0x9E3779B97F4A7C15L;
+                PIECES[piece][sq] = mix(seed);
+            }
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        SIDE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    // splitmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static int piece(boolean white, boolean king) {
+        return (king ? 2 : 0) + (white ? 0 : 1);
+    }
+
+    // Полный пересчёт ключа по маскам (инкрементальное обновление - в Position)
+    public static long compute(int white, int black, int kings) {
+        long key = 0;
+        int occupied = white | black;
+        while (occupied != 0) {
+            int sq = Integer.numberOfTrailingZeros(occupied);
+            int bit = 1 << sq;
+            key ^= PIECES[piece((white & bit) != 0, (kings & bit) != 0)][sq];
+            occupied &= occupied - 1;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,26 @@
+package checkers.datas;
+
+import java.io.Serializable;
+
+// Положение и размер окна для сохранения (без java.awt.Rectangle)
+public class WindowBounds implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    public WindowBounds(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Геттеры
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -0,0 +1,46 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+
+// Фиксированные позиции для замеров: дебют, миттельшпиль и эндшпиль с дамками.
+// Маски получены партиями со случайными ходами с фиксированным зерном (позиция kings - случайной
+// расстановкой 2+2 против 2+2 без взятий) и подходят для обоих вариантов
+public final class BenchPositions {
+    public static final String[] NAMES = {
+            "opening", "opening-8", "middlegame", "middlegame-2", "kings", "kings-2"
+    };
+
+    // {белые, чёрные, дамки, ход белых (1/0)}
+    private static final int[][] MASKS = {
+            {0xFFF00000, 0x00000FFF, 0x00000000, 1},
+            {0xF97A0000, 0x00002DDF, 0x00000000, 1},
+            {0xD4910000, 0x00020A3D, 0x00000000, 1},
+            {0xAF200000, 0x00000CB5, 0x00000000, 1},
+            {0x10204800, 0x00100046, 0x00104840, 1},
+            {0x10920004, 0x800008B1, 0x80000004, 1}
+    };
+
+    private BenchPositions() {
+    }
+
+    public static int count() {
+        return MASKS.length;
+    }
+
+    public static Position position(int index) {
+        return new Position(MASKS[index][0], MASKS[index][1], MASKS[index][2]);
+    }
+
+    public static boolean whiteToMove(int index) {
+        return MASKS[index][3] != 0;
+    }
+
+    public static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная позиция: " + name);
+    }
+}
@@ -0,0 +1,364 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.game.GameArchive;
+import checkers.game.GameSettings;
+import checkers.game.HistoryFile;
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import checkers.game.MovePath;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Построение дебютной книги (см. OpeningBook) из сыгранных партий.
+// Читает архив партий (GameArchive), куда пишут Game.saveHistoryToFile и Tournament, старые файлы
+// history/game_*.txt и сборники партий .pdn с ходами в нотации c3-d4 / c3:e5. Файлы читаются
+// построчно, архив - по записям, партии воспроизводятся
+// генератором ходов, статистика ходов копится по ключу позиции в первых maxPly полуходах.
+// Запуск: java -cp <classes> checkers.engine.BookBuilder [RUSSIAN|SPANISH] [полуходов] [файл книги] [файлы и каталоги...]
+public class BookBuilder {
+
+    private final GameRules rules;
+    private final int maxPly;
+    private final MoveGenerator generator;
+    private final MoveList moves = new MoveList();
+    private final Position position = new Position();
+    private final Statistics statistics = new Statistics();
+
+    // Ходы текущей партии: ключ позиции до хода, ход и маска побитых
+    private long[] gameKeys = new long[256];
+    private int[] gameMoves = new int[256];
+    private int[] gameCaptured = new int[256];
+    private int gamePlies;
+    private boolean white;
+    private boolean gameBroken;
+    private int games;
+
+    public BookBuilder(GameRules rules, int maxPly) {
+        this.rules = rules;
+        this.maxPly = maxPly;
+        this.generator = new MoveGenerator(rules);
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getEntries() {
+        return statistics.size;
+    }
+
+    // Файл или каталог (рекурсивно): .txt - формат истории, .pdn - сборник партий,
+    // индекс архива - все партии архива в его каталоге
+    public void add(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    add(file);
+                }
+            }
+            return;
+        }
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".txt")) {
+            addHistory(path);
+        } else if (name.endsWith(".pdn")) {
+            addPdn(path);
+        } else if (name.equals(GameArchive.INDEX_FILE)) {
+            addArchive(path.getParent());
+        }
+    }
+
+    // Архив партий: партии других правил и с произвольной начальной позиции пропускаются
+    private void addArchive(Path dir) throws IOException {
+        GameSettings.Variant variant = rules.isRussian() ? GameSettings.Variant.RUSSIAN : GameSettings.Variant.SPANISH;
+        int[][] buffers = {new int[256], new int[256]};
+        try (GameArchive archive = GameArchive.open(dir)) {
+            archive.forEach(entry -> {
+                if (entry.getVariant() != variant || entry.isCustomStart() || !entry.isStartWhiteToMove()) {
+                    return;
+                }
+                if (entry.getPlies() > buffers[0].length) {
+                    buffers[0] = new int[entry.getPlies()];
+                    buffers[1] = new int[entry.getPlies()];
+                }
+                int plies = entry.readMoves(buffers[0], buffers[1]);
+                startGame();
+                for (int i = 0; i < plies; i++) {
+                    playMove(Move.from(buffers[0][i]), Move.to(buffers[0][i]), buffers[1][i]);
+                }
+                finishGame();
+            });
+        }
+    }
+
+    // Файл истории (см. HistoryFile): прыжки одного взятия собраны в путь, партии других правил пропускаются
+    private void addHistory(Path file) throws IOException {
+        GameSettings.Variant variant = rules.isRussian() ? GameSettings.Variant.RUSSIAN : GameSettings.Variant.SPANISH;
+        for (HistoryFile.Record record : HistoryFile.read(file)) {
+            if (record.getVariant() != variant) {
+                continue;
+            }
+            startGame();
+            for (int[] path : record.getPaths()) {
+                playPath(path);
+            }
+            finishGame();
+        }
+    }
+
+    // Сборник партий: теги в квадратных скобках пропускаются, партия заканчивается результатом
+    private void addPdn(Path file) throws IOException {
+        int[] path = new int[32];
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            boolean started = false;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("[")) {
+                    continue;
+                }
+                for (String token : line.split("\\s+")) {
+                    if (token.isEmpty() || token.endsWith(".")) {
+                        continue;
+                    }
+                    if (token.equals("1-0") || token.equals("0-1") || token.equals("2-0") || token.equals("0-2")
+                            || token.equals("1/2-1/2") || token.equals("1-1") || token.equals("*")) {
+                        if (started) {
+                            finishGame();
+                            started = false;
+                        }
+                        continue;
+                    }
+                    if (!started) {
+                        startGame();
+                        started = true;
+                    }
+                    // c3-d4 или c3:e5:g3 - по полному пути взятие определяется однозначно
+                    playPath(Arrays.copyOf(path, MovePath.parse(token, path)));
+                }
+            }
+            if (started) {
+                finishGame();
+            }
+        }
+    }
+
+    private void startGame() {
+        position.set(Position.initial());
+        white = true;
+        gamePlies = 0;
+        gameBroken = false;
+    }
+
+    // Ход партии по начальной и конечной клеткам и маске побитых (из архива)
+    private void playMove(int from, int to, int capturedMask) {
+        if (gameBroken) {
+            return;
+        }
+        int count = generator.generate(position, white, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == from && Move.to(move) == to && moves.getCaptured(i) == capturedMask) {
+                play(i);
+                return;
+            }
+        }
+        // Недопустимый ход (другие правила или повреждённая запись) - остаток партии не учитывается
+        gameBroken = true;
+    }
+
+    // Ход партии по пути из файла; неоднозначное взятие, как и недопустимый ход, обрывает партию
+    private void playPath(int[] path) {
+        if (gameBroken) {
+            return;
+        }
+        generator.generate(position, white, moves);
+        int index = MovePath.find(moves, position, white, path, path.length);
+        if (index < 0) {
+            gameBroken = true;
+            return;
+        }
+        play(index);
+    }
+
+    private void play(int index) {
+        int move = moves.get(index);
+        int captured = moves.getCaptured(index);
+        if (gamePlies == gameKeys.length) {
+            gameKeys = Arrays.copyOf(gameKeys, gamePlies * 2);
+            gameMoves = Arrays.copyOf(gameMoves, gamePlies * 2);
+            gameCaptured = Arrays.copyOf(gameCaptured, gamePlies * 2);
+        }
+        gameKeys[gamePlies] = position.getKey() ^ (white ? 0 : Zobrist.SIDE);
+        gameMoves[gamePlies] = move;
+        gameCaptured[gamePlies] = captured;
+        gamePlies++;
+        position.applyMove(Move.from(move), Move.to(move), captured, Move.isPromotion(move));
+        white = !white;
+    }
+
+    // Результат известен, только если партия доиграна: у стороны, которая ходит, нет ходов
+    private void finishGame() {
+        if (gamePlies == 0) {
+            return;
+        }
+        boolean finished = !gameBroken && !generator.hasMoves(position, white);
+        boolean whiteWon = finished && !white;
+        for (int ply = 0; ply < Math.min(gamePlies, maxPly); ply++) {
+            boolean moverWhite = (ply & 1) == 0;
+            int result = !finished ? 0 : moverWhite == whiteWon ? 1 : -1;
+            statistics.add(gameKeys[ply], gameMoves[ply], gameCaptured[ply], result);
+        }
+        games++;
+    }
+
+    // Запись книги, отсортированной по ключу позиции и убыванию числа партий
+    public void write(Path file, int minGames) throws IOException {
+        Integer[] order = new Integer[statistics.size];
+        int count = 0;
+        for (int i = 0; i < statistics.capacity(); i++) {
+            if (statistics.used[i] && statistics.games[i] >= minGames) {
+                order[count++] = i;
+            }
+        }
+        Integer[] sorted = Arrays.copyOf(order, count);
+        Arrays.sort(sorted, (a, b) -> statistics.keys[a] != statistics.keys[b]
+                ? Long.compare(statistics.keys[a], statistics.keys[b])
+                : Integer.compare(statistics.games[b], statistics.games[a]));
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(count);
+            out.writeInt(0);
+            for (int i : sorted) {
+                out.writeLong(statistics.keys[i]);
+                out.writeInt(statistics.moves[i]);
+                out.writeInt(statistics.captured[i]);
+                out.writeInt(statistics.games[i]);
+                out.writeShort(Math.min(statistics.wins[i], 0xFFFF));
+                out.writeShort(Math.min(statistics.losses[i], 0xFFFF));
+            }
+        }
+    }
+
+    // Статистика (позиция, ход) в открытой адресации на примитивных массивах
+    private static final class Statistics {
+        private long[] keys;
+        private int[] moves;
+        private int[] captured;
+        private int[] games;
+        private int[] wins;
+        private int[] losses;
+        private boolean[] used;
+        private int size;
+
+        Statistics() {
+            allocate(1024);
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        void add(long key, int move, int capturedMask, int result) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int index = slot(key, move, capturedMask);
+            if (!used[index]) {
+                used[index] = true;
+                keys[index] = key;
+                moves[index] = move;
+                captured[index] = capturedMask;
+                size++;
+            }
+            games[index]++;
+            if (result > 0) {
+                wins[index]++;
+            } else if (result < 0) {
+                losses[index]++;
+            }
+        }
+
+        private int slot(long key, int move, int capturedMask) {
+            int mask = keys.length - 1;
+            long hash = key ^ (move * 0x9E3779B97F4A7C15L) ^ ((long) capturedMask << 17);
+            int index = (int) (hash ^ (hash >>> 32)) & mask;
+            while (used[index] && (keys[index] != key || moves[index] != move || captured[index] != capturedMask)) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            moves = new int[capacity];
+            captured = new int[capacity];
+            games = new int[capacity];
+            wins = new int[capacity];
+            losses = new int[capacity];
+            used = new boolean[capacity];
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldMoves = moves;
+            int[] oldCaptured = captured;
+            int[] oldGames = games;
+            int[] oldWins = wins;
+            int[] oldLosses = losses;
+            boolean[] oldUsed = used;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int index = slot(oldKeys[i], oldMoves[i], oldCaptured[i]);
+                    used[index] = true;
+                    keys[index] = oldKeys[i];
+                    moves[index] = oldMoves[i];
+                    captured[index] = oldCaptured[i];
+                    games[index] = oldGames[i];
+                    wins[index] = oldWins[i];
+                    losses[index] = oldLosses[i];
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        GameRules rules = new GameRules(args.length > 0 ? GameRules.RuleType.valueOf(args[0].toUpperCase()) : GameRules.RuleType.RUSSIAN);
+        int maxPly = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Path output = args.length > 2 ? Paths.get(args[2]) : OpeningBook.defaultFile(rules);
+
+        long start = System.nanoTime();
+        BookBuilder builder = new BookBuilder(rules, maxPly);
+        if (args.length > 3) {
+            for (int i = 3; i < args.length; i++) {
+                builder.add(Paths.get(args[i]));
+            }
+        } else {
+            builder.add(Paths.get("history"));
+        }
+        builder.write(output, 1);
+        System.out.println("Партий: " + builder.getGames() + ", записей: " + builder.getEntries()
+                + ", книга: " + output.toAbsolutePath() + ", " + (System.nanoTime() - start) / 1_000_000L + " мс");
+    }
+}
@@ -0,0 +1,107 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.game.Game;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+
+import java.util.Random;
+
+// Компьютерный игрок: ищет ход для текущей позиции игры и выполняет его
+public class ComputerPlayer {
+    public static final int DEFAULT_HASH_MB = 64;
+    // Обдумывание на время соперника обычно останавливает ход игрока, но у него и свой срок:
+    // дольше таблица транспозиций почти не пополняется, а поток поиска нужен для ответа
+    public static final long PONDER_TIME_MS = 60_000;
+
+    private final ParallelSearch search;
+    private final TranspositionTable table;
+    private final long timeMs;
+    // Дебютная книга (может отсутствовать)
+    private final OpeningBook book;
+    private final Random random = new Random();
+    private final MoveGenerator generator;
+    private final MoveList bookMoves = new MoveList();
+
+    public ComputerPlayer(Game game, TranspositionTable table, long timeMs) {
+        this.search = new ParallelSearch(game.getRules(), table, game.getSettings().getEngineThreads());
+        // Эндшпильные базы подключаются, если построены в каталоге tablebases
+        this.search.setTablebase(Tablebase.forRules(game.getRules()));
+        this.table = table;
+        this.timeMs = timeMs;
+        this.book = OpeningBook.forRules(game.getRules());
+        this.generator = new MoveGenerator(game.getRules());
+    }
+
+    public SearchResult findMove(Game game) {
+        return findMove(game.getBoard().getPosition(), game.isWhiteToMove(), timeMs);
+    }
+
+    public SearchResult findMove(Position position, boolean white, long timeMs) {
+        return findMove(position, white, timeMs, stopMark());
+    }
+
+    // Поиск не обращается к Game, поэтому может идти в фоновом потоке над копией позиции.
+    // stopMark берётся при постановке задачи: stop() после неё прервёт и ещё не начатый поиск
+    public SearchResult findMove(Position position, boolean white, long timeMs, long stopMark) {
+        // Ход из книги делается сразу, без поиска
+        if (book != null) {
+            generator.generate(position, white, bookMoves);
+            long key = position.getKey() ^ (white ? 0 : Zobrist.SIDE);
+            int index = book.choose(key, bookMoves, random);
+            if (index >= 0) {
+                return new SearchResult(bookMoves.get(index), bookMoves.getCaptured(index), 0, 0, 0, 0);
+            }
+        }
+        return search.search(position, white, timeMs, SearchEngine.MAX_PLY, stopMark);
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    // Ожидаемый ответ соперника - лучший ход позиции key из таблицы транспозиций.
+    // Возвращает номер ответа в списке допустимых ходов moves или -1
+    public int predictReply(long key, MoveList moves) {
+        long entry = table.probe(key);
+        if (entry == 0) {
+            return -1;
+        }
+        int best = TranspositionTable.moveOf(entry);
+        for (int i = 0; i < moves.size(); i++) {
+            if ((moves.get(i) & 0xFFFF) == best) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Соперник сделал ожидаемый ход: обдумывание становится обычным поиском
+    // с временем на ход, отсчитанным от начала обдумывания
+    public void ponderHit() {
+        search.setTimeLimit(timeMs);
+    }
+
+    public SearchResult playMove(Game game) {
+        SearchResult result = findMove(game);
+        if (result.hasMove()) {
+            game.makeMove(result.getMove(), result.getCaptured());
+        }
+        System.out.println("Ход компьютера (потоков: " + search.getThreads() + "): " + result);
+        return result;
+    }
+
+    public void stop() {
+        search.stop();
+    }
+
+    public long stopMark() {
+        return search.stopMark();
+    }
+
+    // Освобождение потоков-помощников
+    public void close() {
+        search.close();
+    }
+}
@@ -0,0 +1,57 @@
+package checkers.engine;
+
+import checkers.game.GameRules;
+
+// Замер параллельного поиска: время до фиксированной глубины на позициях BenchPositions
+// для 1, 2, 4, ... потоков и ускорение относительно одного потока.
+// Запуск: java -cp <classes> checkers.engine.EngineBench [RUSSIAN|SPANISH] [глубина] [макс. потоков] [хеш МБ]
+public class EngineBench {
+    public static void main(String[] args) {
+        GameRules.RuleType ruleType = args.length > 0 ? GameRules.RuleType.valueOf(args[0].toUpperCase()) : GameRules.RuleType.RUSSIAN;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int hashMb = args.length > 3 ? Integer.parseInt(args[3]) : 128;
+        GameRules rules = new GameRules(ruleType);
+
+        System.out.println("Правила: " + ruleType + ", глубина: " + depth + ", хеш: " + hashMb + " МБ");
+        // Прогревочный проход не учитывается: иначе первый замер (один поток) идёт на холодном JIT
+        // и ускорение получается завышенным
+        run(rules, 1, hashMb, depth);
+        System.out.println("потоков    время, мс    ускорение    узлов/с");
+        long baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            long[] measured = run(rules, threads, hashMb, depth);
+            long elapsed = measured[0];
+            long nodes = measured[1];
+            if (threads == 1) {
+                baseline = elapsed;
+            }
+            System.out.printf("%7d %12d %12.2f %10d%n", threads, elapsed,
+                    (double) baseline / Math.max(1, elapsed), nodes * 1000 / Math.max(1, elapsed));
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+    // Все позиции BenchPositions с заданным числом потоков: время (мс) и число узлов
+    private static long[] run(GameRules rules, int threads, int hashMb, int depth) {
+        TranspositionTable table = new TranspositionTable(hashMb);
+        ParallelSearch search = new ParallelSearch(rules, table, threads);
+        long elapsed = 0;
+        long nodes = 0;
+        for (int i = 0; i < BenchPositions.count(); i++) {
+            table.clear();
+            SearchResult result = search.search(BenchPositions.position(i), BenchPositions.whiteToMove(i),
+                    Long.MAX_VALUE / 2_000_000L, depth);
+            elapsed += result.getElapsedMs();
+            nodes += result.getNodes();
+        }
+        search.close();
+        return new long[] {elapsed, nodes};
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return Math.min(threads * 2, maxThreads);
+    }
+}
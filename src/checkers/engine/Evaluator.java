@@ -0,0 +1,38 @@
+package checkers.engine;
+
+import checkers.classes.PieceSquareTable;
+import checkers.classes.Position;
+import checkers.game.GameRules;
+import checkers.game.GameSettings;
+
+// Статическая оценка позиции с точки зрения стороны хода (в сотых долях шашки).
+// Материал, продвижение, последний ряд и центр берутся из PieceSquareTable варианта: Position
+// обновляет их сумму при каждом ходе, поэтому оценка листа не зависит от числа шашек.
+// Темп (суммарное продвижение простых) взвешивается по стадии партии: в дебюте рывок вперёд
+// оголяет тыл и слегка штрафуется, к эндшпилю всё решает гонка в дамки и вес растёт
+public class Evaluator {
+    // Вес одного ряда темпа при полной доске и без шашек; между ними - по числу шашек
+    private static final int OPENING_TEMPO = -1;
+    private static final int ENDGAME_TEMPO = 4;
+    private static final int FULL_BOARD = 24;
+
+    private final PieceSquareTable table;
+
+    public Evaluator(GameRules rules) {
+        this.table = PieceSquareTable.forVariant(rules.isRussian() ? GameSettings.Variant.RUSSIAN : GameSettings.Variant.SPANISH);
+    }
+
+    public PieceSquareTable getTable() {
+        return table;
+    }
+
+    public int evaluate(Position position, boolean white) {
+        int score = position.getTable() == table
+                ? position.getScore()
+                : table.compute(position.getWhite(), position.getBlack(), position.getKings());
+        int pieces = Math.min(FULL_BOARD, Integer.bitCount(position.getOccupied()));
+        int tempoWeight = OPENING_TEMPO * pieces + ENDGAME_TEMPO * (FULL_BOARD - pieces);
+        score = PieceSquareTable.base(score) + PieceSquareTable.tempo(score) * tempoWeight / FULL_BOARD;
+        return white ? score : -score;
+    }
+}
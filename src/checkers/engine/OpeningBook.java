@@ -0,0 +1,158 @@
+package checkers.engine;
+
+import checkers.game.GameRules;
+import checkers.game.MoveList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Дебютная книга: отсортированный по ключу позиции файл, который строит BookBuilder.
+// Файл отображается в память, поиск - двоичный прямо по отображению, без копирования в кучу.
+// Формат: заголовок (сигнатура, версия, число записей, резерв - по 4 байта), затем записи
+// по 24 байта: ключ позиции (long), ход (int), маска побитых (int), число партий (int),
+// выигрыши и проигрыши сделавшей ход стороны (по short). Записи одной позиции идут подряд,
+// самые частые ходы - первыми
+public class OpeningBook {
+    public static final String DEFAULT_DIR = "book";
+
+    static final int MAGIC = 0x434B424B; // "CKBK"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 24;
+
+    private static OpeningBook russian;
+    private static OpeningBook spanish;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+    }
+
+    // Книга из каталога book для правил игры или null, если файла нет
+    public static synchronized OpeningBook forRules(GameRules rules) {
+        if (rules.isRussian()) {
+            if (russian == null) {
+                russian = open(defaultFile(rules));
+            }
+            return russian;
+        }
+        if (spanish == null) {
+            spanish = open(defaultFile(rules));
+        }
+        return spanish;
+    }
+
+    public static Path defaultFile(GameRules rules) {
+        return Paths.get(DEFAULT_DIR, (rules.isRussian() ? "russian" : "spanish") + ".book");
+    }
+
+    public static OpeningBook open(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                System.err.println("Неверный формат дебютной книги: " + file);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            // Число записей из заголовка должно помещаться в файл: иначе поиск читал бы за его концом
+            int count = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES > length) {
+                System.err.println("Неверный формат дебютной книги: " + file);
+                return null;
+            }
+            return new OpeningBook(buffer);
+        } catch (IOException e) {
+            System.err.println("Ошибка чтения дебютной книги: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Номер первой записи позиции или -1
+    public int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = getKey(middle);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else {
+                if (middleKey == key) {
+                    found = middle;
+                }
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    // Случайный ход книги для позиции с вероятностью, пропорциональной числу партий,
+    // из числа допустимых ходов legalMoves. Возвращает номер хода в legalMoves или -1
+    public int choose(long key, MoveList legalMoves, Random random) {
+        int first = find(key);
+        if (first < 0) {
+            return -1;
+        }
+        int total = 0;
+        for (int i = first; i < size && getKey(i) == key; i++) {
+            if (indexOf(legalMoves, i) >= 0) {
+                total += getGames(i);
+            }
+        }
+        if (total == 0) {
+            return -1;
+        }
+        int pick = random.nextInt(total);
+        for (int i = first; i < size && getKey(i) == key; i++) {
+            int index = indexOf(legalMoves, i);
+            if (index >= 0) {
+                pick -= getGames(i);
+                if (pick < 0) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(MoveList legalMoves, int entry) {
+        int move = getMove(entry);
+        int captured = getCaptured(entry);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (legalMoves.get(i) == move && legalMoves.getCaptured(i) == captured) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Поля записи
+    public long getKey(int entry) { return buffer.getLong(offset(entry)); }
+    public int getMove(int entry) { return buffer.getInt(offset(entry) + 8); }
+    public int getCaptured(int entry) { return buffer.getInt(offset(entry) + 12); }
+    public int getGames(int entry) { return buffer.getInt(offset(entry) + 16); }
+    public int getWins(int entry) { return buffer.getShort(offset(entry) + 20) & 0xFFFF; }
+    public int getLosses(int entry) { return buffer.getShort(offset(entry) + 22) & 0xFFFF; }
+
+    private static int offset(int entry) {
+        return HEADER_BYTES + entry * ENTRY_BYTES;
+    }
+}
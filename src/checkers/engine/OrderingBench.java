@@ -0,0 +1,55 @@
+package checkers.engine;
+
+import checkers.game.GameRules;
+
+// Замер упорядочивания ходов: число узлов до фиксированной глубины на позициях BenchPositions
+// при разных наборах эвристик (один поток, чистая таблица транспозиций перед каждой позицией).
+// Запуск: java -cp <classes> checkers.engine.OrderingBench [RUSSIAN|SPANISH] [глубина] [хеш МБ]
+public class OrderingBench {
+    private static final String[] NAMES = {
+            "без упорядочивания", "ход из таблицы", "+ взятия", "+ убийцы", "+ история"
+    };
+    private static final int[] ORDERINGS = {
+            0,
+            SearchEngine.ORDER_HASH_MOVE,
+            SearchEngine.ORDER_HASH_MOVE | SearchEngine.ORDER_CAPTURES,
+            SearchEngine.ORDER_HASH_MOVE | SearchEngine.ORDER_CAPTURES | SearchEngine.ORDER_KILLERS,
+            SearchEngine.ORDER_ALL
+    };
+
+    public static void main(String[] args) {
+        GameRules.RuleType ruleType = args.length > 0 ? GameRules.RuleType.valueOf(args[0].toUpperCase()) : GameRules.RuleType.RUSSIAN;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int hashMb = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        GameRules rules = new GameRules(ruleType);
+        TranspositionTable table = new TranspositionTable(hashMb);
+
+        System.out.println("Правила: " + ruleType + ", глубина: " + depth);
+        System.out.printf("%-20s", "");
+        for (String name : BenchPositions.NAMES) {
+            System.out.printf("%14s", name);
+        }
+        System.out.printf("%14s%10s%n", "всего", "мс");
+        long baseline = 0;
+        for (int i = 0; i < ORDERINGS.length; i++) {
+            // Новый движок на каждый набор, чтобы история прошлых замеров не влияла
+            SearchEngine engine = new SearchEngine(rules, table);
+            engine.setOrdering(ORDERINGS[i]);
+            System.out.printf("%-20s", NAMES[i]);
+            long total = 0;
+            long elapsed = 0;
+            for (int p = 0; p < BenchPositions.count(); p++) {
+                table.clear();
+                SearchResult result = engine.search(BenchPositions.position(p), BenchPositions.whiteToMove(p),
+                        Long.MAX_VALUE / 2_000_000L, depth);
+                System.out.printf("%14d", result.getNodes());
+                total += result.getNodes();
+                elapsed += result.getElapsedMs();
+            }
+            if (i == 0) {
+                baseline = total;
+            }
+            System.out.printf("%14d%10d  (%.0f%%)%n", total, elapsed, 100.0 * total / Math.max(1, baseline));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.game.GameRules;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Параллельный поиск Lazy SMP: помощники ищут ту же позицию в своих потоках
+// и заполняют общую таблицу транспозиций, ход выбирает основной поток
+public class ParallelSearch {
+    private final SearchEngine[] engines;
+    private final ExecutorService helpers;
+
+    public ParallelSearch(GameRules rules, TranspositionTable table, int threads) {
+        int count = Math.max(1, threads);
+        this.engines = new SearchEngine[count];
+        for (int i = 0; i < count; i++) {
+            engines[i] = new SearchEngine(rules, table);
+            engines[i].setHelperIndex(i);
+        }
+        this.helpers = count > 1 ? Executors.newFixedThreadPool(count - 1, runnable -> {
+            Thread thread = new Thread(runnable, "checkers-search-helper");
+            thread.setDaemon(true);
+            // Поиск не должен отнимать время у потока событий Swing
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }) : null;
+    }
+
+    public void setOrdering(int ordering) {
+        for (SearchEngine engine : engines) {
+            engine.setOrdering(ordering);
+        }
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        for (SearchEngine engine : engines) {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    public int getThreads() {
+        return engines.length;
+    }
+
+    public SearchResult search(Position position, boolean white, long timeMs, int maxDepth) {
+        return search(position, white, timeMs, maxDepth, stopMark());
+    }
+
+    // Поиск, который останавливает любой stop() после stopMark (см. SearchEngine.stopMark)
+    public SearchResult search(Position position, boolean white, long timeMs, int maxDepth, long stopMark) {
+        long start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[engines.length];
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine helper = engines[i];
+            long helperMark = helper.stopMark();
+            futures[i] = helpers.submit(() -> helper.search(position, white, timeMs, SearchEngine.MAX_PLY, helperMark));
+        }
+
+        SearchResult main = engines[0].search(position, white, timeMs, maxDepth, stopMark);
+
+        long nodes = main.getNodes();
+        for (int i = 1; i < engines.length; i++) {
+            nodes += stopHelper(i, futures[i]);
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(main.getMove(), main.getCaptured(), main.getScore(),
+                main.getDepth(), nodes, elapsed);
+    }
+
+    // Помощник остановится, даже если ещё не начал поиск: его метка взята до запуска
+    private long stopHelper(int index, Future<?> future) {
+        engines[index].stop();
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка в потоке поиска", e.getCause());
+        }
+        return engines[index].getNodes();
+    }
+
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    // Метка основного потока: останавливаются все потоки сразу
+    public long stopMark() {
+        return engines[0].stopMark();
+    }
+
+    public void setTimeLimit(long timeMs) {
+        for (SearchEngine engine : engines) {
+            engine.setTimeLimit(timeMs);
+        }
+    }
+
+    public SearchEngine getMainEngine() {
+        return engines[0];
+    }
+
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
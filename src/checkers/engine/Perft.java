@@ -0,0 +1,278 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.game.Game;
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import checkers.game.MovePath;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Подсчёт листьев дерева ходов (perft) для проверки и замера генератора ходов.
+// Взятия с разными путями, но одинаковыми конечной клеткой и набором побитых шашек
+// генератор считает одним ходом, поэтому числа для русских шашек совпадают с опубликованными
+// таблицами по глубину 7, а с глубины 8 чуть меньше (929 899 против 929 905): там такие пути
+// считаются отдельно.
+// Запуск: java -cp <classes> checkers.engine.Perft [RUSSIAN|SPANISH|SAVE] глубина [--divide] [--parallel[=N]] [--hash=МБ]
+public class Perft {
+    // Параллельный режим делит работу на задачи по ходам первых двух полуходов
+    private static final int SPLIT_PLY = 2;
+    private static final int MAX_DEPTH = 64;
+
+    private final GameRules rules;
+    private final PerftTable table;
+    // Генератор ходов не потокобезопасен - у каждого потока свой
+    private final ThreadLocal<Worker> workers;
+
+    public Perft(GameRules rules, int hashMb) {
+        this.rules = rules;
+        this.table = hashMb > 0 ? new PerftTable(hashMb) : null;
+        this.workers = ThreadLocal.withInitial(() -> new Worker(rules, table));
+    }
+
+    // Число листьев на глубине depth в текущем потоке
+    public long count(Position position, boolean white, int depth) {
+        return workers.get().perft(position, white, depth);
+    }
+
+    // То же с разбиением на задачи fork-join
+    public long countParallel(Position position, boolean white, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(position.copy(), white, depth, 0));
+    }
+
+    // Число листьев отдельно для каждого хода из корня (divide). Ключ - полный путь хода:
+    // взятия на одну клетку с разными побитыми шашками - разные ходы
+    public Map<String, Long> divide(Position position, boolean white, int depth, ForkJoinPool pool) {
+        MoveList moves = new MoveList();
+        new MoveGenerator(rules).generate(position, white, moves);
+        Map<String, Long> result = new LinkedHashMap<>();
+        Position child = new Position();
+        int[] path = new int[32];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            child.set(position);
+            child.applyMove(Move.from(move), Move.to(move), moves.getCaptured(i), Move.isPromotion(move));
+            long nodes = pool != null
+                    ? countParallel(child, !white, depth - 1, pool)
+                    : count(child, !white, depth - 1);
+            int length = MovePath.of(position, white, move, moves.getCaptured(i), path);
+            result.put(MovePath.toNotation(path, length, Move.isCapture(move)), nodes);
+        }
+        return result;
+    }
+
+    // Последовательный обход над собственной копией позиции
+    private static final class Worker {
+        private final MoveGenerator generator;
+        private final PerftTable table;
+        private final Position position = new Position();
+        private final MoveList[] moveLists = new MoveList[MAX_DEPTH + 1];
+
+        Worker(GameRules rules, PerftTable table) {
+            this.generator = new MoveGenerator(rules);
+            this.table = table;
+            for (int i = 0; i <= MAX_DEPTH; i++) {
+                moveLists[i] = new MoveList();
+            }
+        }
+
+        long perft(Position start, boolean white, int depth) {
+            position.set(start);
+            return perft(white, depth);
+        }
+
+        private long perft(boolean white, int depth) {
+            if (depth <= 0) {
+                return 1;
+            }
+            MoveList moves = moveLists[depth];
+            int count = generator.generate(position, white, moves);
+            // На последнем уровне достаточно числа ходов
+            if (depth == 1) {
+                return count;
+            }
+
+            long key = 0;
+            if (table != null) {
+                key = PerftTable.key(position, white, depth);
+                long cached = table.probe(key);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+
+            long nodes = 0;
+            for (int i = 0; i < count; i++) {
+                int move = moves.get(i);
+                int captured = moves.getCaptured(i);
+                int from = Move.from(move);
+                int capturedKings = position.applyMove(from, Move.to(move), captured, Move.isPromotion(move));
+                nodes += perft(!white, depth - 1);
+                position.undoMove(from, Move.to(move), captured, capturedKings, Move.isPromotion(move), white);
+            }
+
+            if (table != null) {
+                table.store(key, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        private final boolean white;
+        private final int depth;
+        private final int ply;
+
+        PerftTask(Position position, boolean white, int depth, int ply) {
+            this.position = position;
+            this.white = white;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply >= SPLIT_PLY || depth <= 2) {
+                return count(position, white, depth);
+            }
+            MoveList moves = new MoveList();
+            int count = workers.get().generator.generate(position, white, moves);
+            List<PerftTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int move = moves.get(i);
+                Position child = position.copy();
+                child.applyMove(Move.from(move), Move.to(move), moves.getCaptured(i), Move.isPromotion(move));
+                tasks.add(new PerftTask(child, !white, depth - 1, ply + 1));
+            }
+            long nodes = 0;
+            for (PerftTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    // Кэш числа листьев по (позиция, сторона хода, глубина).
+    // Запись хранится как (ключ ^ число, число), как в TranspositionTable, поэтому
+    // таблица общая для всех потоков без блокировок
+    private static final class PerftTable {
+        private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+        private final long[] keys;
+        private final long[] counts;
+        private final int mask;
+
+        PerftTable(int megabytes) {
+            long entries = Math.max(1, (long) megabytes * 1024 * 1024 / 16);
+            int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+            this.keys = new long[size];
+            this.counts = new long[size];
+            this.mask = size - 1;
+        }
+
+        static long key(Position position, boolean white, int depth) {
+            return position.getKey() ^ (white ? 0 : Zobrist.SIDE) ^ (DEPTH_KEY * depth);
+        }
+
+        // Число листьев или -1, если записи нет
+        long probe(long key) {
+            int index = (int) (key ^ (key >>> 32)) & mask;
+            long count = counts[index];
+            return count != 0 && (keys[index] ^ count) == key ? count : -1;
+        }
+
+        void store(long key, long count) {
+            int index = (int) (key ^ (key >>> 32)) & mask;
+            keys[index] = key ^ count;
+            counts[index] = count;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Использование: Perft [RUSSIAN|SPANISH|SAVE] глубина [--divide] [--parallel[=N]] [--hash=МБ]");
+            return;
+        }
+        int depth = Math.min(Integer.parseInt(args[1]), MAX_DEPTH);
+        boolean divide = false;
+        int threads = 0;
+        int hashMb = 0;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.equals("--parallel")) {
+                threads = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                threads = Integer.parseInt(arg.substring("--parallel=".length()));
+            } else if (arg.startsWith("--hash=")) {
+                hashMb = Integer.parseInt(arg.substring("--hash=".length()));
+            } else {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            }
+        }
+
+        GameRules rules;
+        Position position;
+        boolean white;
+        if (args[0].equalsIgnoreCase("SAVE")) {
+            Game game = Game.loadGame();
+            if (game == null) {
+                return;
+            }
+            rules = game.getRules();
+            position = game.getBoard().getPosition().copy();
+            white = game.isWhiteToMove();
+        } else {
+            rules = new GameRules(GameRules.RuleType.valueOf(args[0].toUpperCase()));
+            position = Position.initial();
+            white = true;
+        }
+
+        Perft perft = new Perft(rules, hashMb);
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        System.out.println("Правила: " + (rules.isRussian() ? "RUSSIAN" : "SPANISH")
+                + ", потоков: " + (pool != null ? threads : 1)
+                + ", хеш: " + (hashMb > 0 ? hashMb + " МБ" : "нет"));
+        try {
+            if (divide) {
+                long start = System.nanoTime();
+                long total = 0;
+                for (Map.Entry<String, Long> entry : perft.divide(position, white, depth, pool).entrySet()) {
+                    System.out.println(entry.getKey() + " " + entry.getValue());
+                    total += entry.getValue();
+                }
+                printTotal(depth, total, System.nanoTime() - start);
+                return;
+            }
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                long nodes = pool != null
+                        ? perft.countParallel(position, white, d, pool)
+                        : perft.count(position, white, d);
+                printTotal(d, nodes, System.nanoTime() - start);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void printTotal(int depth, long nodes, long elapsedNanos) {
+        long elapsedMs = elapsedNanos / 1_000_000L;
+        System.out.printf("глубина %2d: %,15d узлов, %7d мс, %,12d узлов/с%n",
+                depth, nodes, elapsedMs, (long) (nodes * 1e9 / Math.max(1, elapsedNanos)));
+    }
+}
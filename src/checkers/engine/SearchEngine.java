@@ -0,0 +1,446 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Поиск хода: negamax с альфа-бета отсечением, итеративным углублением,
+// форсированным продолжением взятий (quiescence) и упорядочиванием по главному варианту.
+// Работает над своей копией позиции, один экземпляр - один поток
+public class SearchEngine {
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    public static final int WIN = 30000;
+    // Оценки ближе к WIN означают форсированный выигрыш
+    public static final int WIN_THRESHOLD = WIN - MAX_PLY;
+
+    // Составляющие упорядочивания ходов, включаются по отдельности для замеров
+    public static final int ORDER_HASH_MOVE = 1;
+    public static final int ORDER_KILLERS = 2;
+    public static final int ORDER_HISTORY = 4;
+    public static final int ORDER_CAPTURES = 8;
+    public static final int ORDER_ALL = ORDER_HASH_MOVE | ORDER_KILLERS | ORDER_HISTORY | ORDER_CAPTURES;
+
+    private static final int TIME_CHECK_MASK = 1023;
+    // Приоритеты: ход из таблицы, взятия (по числу побитых дамок), ходы-убийцы, остальные по истории
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 26;
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final MoveGenerator generator;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    // Эндшпильные базы (может отсутствовать)
+    private Tablebase tablebase;
+    private final Position position = new Position();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final long[] keyStack = new long[MAX_PLY + 1];
+    // Треугольная таблица главного варианта
+    private final int[][] pvMoves = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[][] pvCaptured = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    // Два хода-убийцы на уровень и история тихих ходов [сторона][откуда][куда]
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[2 * 32 * 32];
+    private final int[][] moveScores = new int[MAX_PLY + 1][];
+    private int ordering = ORDER_ALL;
+
+    private long nodes;
+    // Номер потока параллельного поиска (Lazy SMP), у основного потока - 0
+    private int helperIndex;
+    private int depthOffset;
+    private long startTime;
+    // Срок может сдвинуть другой поток (попадание при обдумывании на время соперника)
+    private volatile long deadline;
+    private volatile boolean stopped;
+    // Число запросов остановки: поиск с меткой stopMark останавливается любым запросом после неё,
+    // даже сделанным до начала поиска, когда флаг stopped ещё сбрасывается
+    private final AtomicLong stopRequests = new AtomicLong();
+    private long stopMark;
+    private int rootMove;
+    private int rootCaptured;
+    private int rootScore;
+
+    public SearchEngine(GameRules rules, TranspositionTable table) {
+        this.generator = new MoveGenerator(rules);
+        this.evaluator = new Evaluator(rules);
+        position.setTable(evaluator.getTable());
+        this.table = table;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+            moveScores[i] = new int[MoveList.DEFAULT_CAPACITY];
+        }
+    }
+
+    // Поиск лучшего хода стороны white в пределах timeMs миллисекунд (и не глубже maxDepth)
+    public SearchResult search(Position start, boolean white, long timeMs, int maxDepth) {
+        return search(start, white, timeMs, maxDepth, stopMark());
+    }
+
+    // То же, но остановки после stopMark (см. stopMark()) прерывают и ещё не начавшийся поиск
+    public SearchResult search(Position start, boolean white, long timeMs, int maxDepth, long stopMark) {
+        startTime = System.nanoTime();
+        position.set(start);
+        deadline = startTime + timeMs * 1_000_000L;
+        this.stopMark = stopMark;
+        stopped = stopRequests.get() != stopMark;
+        nodes = 0;
+        if (helperIndex == 0) {
+            table.newSearch();
+        }
+        // Убийцы прошлого поиска относятся к другим уровням; история постепенно забывается
+        for (int[] slots : killers) {
+            slots[0] = 0;
+            slots[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+
+        MoveList rootMoves = moveLists[0];
+        generator.generate(position, white, rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(Move.NONE, 0, -WIN, 0, 0, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestCaptured = rootMoves.getCaptured(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        // Единственный ход делается сразу
+        int depthLimit = rootMoves.size() == 1 ? 1 : Math.min(maxDepth, MAX_PLY - 1);
+
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            rootMove = Move.NONE;
+            int score = search(white, Math.min(depth + depthOffset, MAX_PLY - 1), -INFINITY, INFINITY, 0, 0);
+            if (rootMove != Move.NONE && (!stopped || completedDepth == 0 || rootScore > bestScore)) {
+                bestMove = rootMove;
+                bestCaptured = rootCaptured;
+                bestScore = stopped ? rootScore : score;
+            }
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            if (Math.abs(score) >= WIN_THRESHOLD) {
+                break;
+            }
+        }
+        long elapsed = (System.nanoTime() - startTime) / 1_000_000L;
+        return new SearchResult(bestMove, bestCaptured, bestScore, completedDepth, nodes, elapsed);
+    }
+
+    // Остановка поиска из другого потока
+    public void stop() {
+        stopRequests.incrementAndGet();
+        stopped = true;
+    }
+
+    // Метка для поиска, который запускается позже в другом потоке: остановка после неё не потеряется
+    public long stopMark() {
+        return stopRequests.get();
+    }
+
+    // Новый срок поиска, отсчитанный от его начала: если время уже вышло, поиск закончится сразу
+    public void setTimeLimit(long timeMs) {
+        deadline = startTime + timeMs * 1_000_000L;
+    }
+
+    // Половина помощников сразу ищет на ход глубже - потоки меньше повторяют друг друга
+    public void setHelperIndex(int helperIndex) {
+        this.helperIndex = helperIndex;
+        this.depthOffset = helperIndex & 1;
+    }
+
+    // Набор флагов ORDER_*
+    public void setOrdering(int ordering) {
+        this.ordering = ordering;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int search(boolean white, int depth, int alpha, int beta, int ply, int reversible) {
+        pvLength[ply] = ply;
+        if (ply > 0 && tablebase != null && Integer.bitCount(position.getOccupied()) <= tablebase.getMaxPieces()) {
+            int score = probeTablebase(white, ply);
+            if (score != -INFINITY) {
+                nodes++;
+                return score;
+            }
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(white, alpha, beta, ply);
+        }
+        if ((++nodes & TIME_CHECK_MASK) == 0
+                && (System.nanoTime() > deadline || stopRequests.get() != stopMark)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        long key = position.getKey() ^ (white ? 0 : Zobrist.SIDE);
+        keyStack[ply] = key;
+        if (ply > 0 && isRepetition(ply, key, reversible)) {
+            return 0;
+        }
+
+        int ttMove = 0;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+                int ttScore = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)) {
+                    return ttScore;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        int count = generator.generate(position, white, moves);
+        if (count == 0) {
+            return -WIN + ply;
+        }
+        orderMoves(moves, white, ply, ttMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            int captured = moves.getCaptured(i);
+            int from = Move.from(move);
+            boolean kingMove = position.isKing(from) && captured == 0;
+            int capturedKings = position.applyMove(from, Move.to(move), captured, Move.isPromotion(move));
+            int nextReversible = kingMove ? reversible + 1 : 0;
+            // Единственный ответ не сокращает глубину
+            int nextDepth = count == 1 ? depth : depth - 1;
+
+            int score;
+            if (i == 0) {
+                score = -search(!white, nextDepth, -beta, -alpha, ply + 1, nextReversible);
+            } else {
+                score = -search(!white, nextDepth, -alpha - 1, -alpha, ply + 1, nextReversible);
+                if (score > alpha && score < beta) {
+                    score = -search(!white, nextDepth, -beta, -alpha, ply + 1, nextReversible);
+                }
+            }
+            position.undoMove(from, Move.to(move), captured, capturedKings, Move.isPromotion(move), white);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move, captured);
+                    if (ply == 0) {
+                        rootMove = move;
+                        rootCaptured = captured;
+                        rootScore = score;
+                    }
+                    if (alpha >= beta) {
+                        if (captured == 0) {
+                            rememberQuietCutoff(move, white, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        table.store(key, depth, bound, toTable(bestScore, ply), bestMove);
+        return bestScore;
+    }
+
+    // Продолжение только форсированных взятий: пока есть обязательное взятие, оценка не берётся
+    private int quiesce(boolean white, int alpha, int beta, int ply) {
+        nodes++;
+        int own = position.getPieces(white);
+        if (ply >= MAX_PLY || !generator.canCapture(position, white, own)) {
+            if (!generator.hasMoves(position, white)) {
+                return -WIN + ply;
+            }
+            return evaluator.evaluate(position, white);
+        }
+
+        MoveList moves = moveLists[ply];
+        int count = generator.generate(position, white, moves);
+        if ((ordering & ORDER_CAPTURES) != 0) {
+            orderMoves(moves, white, ply, 0);
+        }
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            int captured = moves.getCaptured(i);
+            int from = Move.from(move);
+            int capturedKings = position.applyMove(from, Move.to(move), captured, Move.isPromotion(move));
+            int score = -quiesce(!white, -beta, -alpha, ply + 1);
+            position.undoMove(from, Move.to(move), captured, capturedKings, Move.isPromotion(move), white);
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Оценка по эндшпильной базе: выигрыш через d полуходов оценивается как мат на ply + d
+    private int probeTablebase(boolean white, int ply) {
+        int packed = tablebase.probePacked(position, white);
+        switch (Tablebase.resultOf(packed)) {
+            case Tablebase.WIN:
+                return WIN - ply - Tablebase.distanceOf(packed);
+            case Tablebase.LOSS:
+                return -WIN + ply + Tablebase.distanceOf(packed);
+            case Tablebase.DRAW:
+                return 0;
+            default:
+                return -INFINITY;
+        }
+    }
+
+    // Упорядочивание: ход из таблицы транспозиций (или главного варианта), затем взятия -
+    // больше побитых дамок, потом больше шашек, затем ходы-убийцы и тихие ходы по истории
+    private void orderMoves(MoveList moves, boolean white, int ply, int ttMove) {
+        int count = moves.size();
+        if (count < 2) {
+            return;
+        }
+        int first = 0;
+        if ((ordering & ORDER_HASH_MOVE) != 0) {
+            first = ttMove != 0 ? ttMove : (pvLength[0] > ply ? pvMoves[0][ply] & 0xFFFF : 0);
+        }
+        if (moveScores[ply].length < count) {
+            moveScores[ply] = new int[Math.max(count, moveScores[ply].length * 2)];
+        }
+        int[] scores = moveScores[ply];
+        int kings = position.getKings();
+        int side = white ? 0 : 1024;
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if ((move & 0xFFFF) == first) {
+                score = HASH_MOVE_SCORE;
+            } else if (Move.isCapture(move)) {
+                if ((ordering & ORDER_CAPTURES) != 0) {
+                    int kingsTaken = Integer.bitCount(moves.getCaptured(i) & kings);
+                    score = CAPTURE_SCORE + (kingsTaken << 8) + (Move.captureCount(move) << 1)
+                            + (Move.isPromotion(move) ? 1 : 0);
+                }
+            } else if ((ordering & ORDER_KILLERS) != 0 && move == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if ((ordering & ORDER_KILLERS) != 0 && move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            } else if ((ordering & ORDER_HISTORY) != 0) {
+                score = history[side + (Move.from(move) << 5) + Move.to(move)];
+            }
+            scores[i] = score;
+        }
+        // Вставками: ходов мало, порядок равных сохраняется
+        for (int i = 1; i < count; i++) {
+            for (int j = i; j > 0 && scores[j] > scores[j - 1]; j--) {
+                int score = scores[j];
+                scores[j] = scores[j - 1];
+                scores[j - 1] = score;
+                moves.swap(j, j - 1);
+            }
+        }
+    }
+
+    // Тихий ход, вызвавший отсечение, становится убийцей уровня и набирает историю
+    private void rememberQuietCutoff(int move, boolean white, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = (white ? 0 : 1024) + (Move.from(move) << 5) + Move.to(move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move, int captured) {
+        pvMoves[ply][ply] = move;
+        pvCaptured[ply][ply] = captured;
+        int length = pvLength[ply + 1];
+        for (int i = ply + 1; i < length; i++) {
+            pvMoves[ply][i] = pvMoves[ply + 1][i];
+            pvCaptured[ply][i] = pvCaptured[ply + 1][i];
+        }
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    // Повторение позиции на пути поиска (проверяются только позиции после обратимых ходов)
+    private boolean isRepetition(int ply, long key, int reversible) {
+        for (int i = ply - 4; i >= 0 && ply - i <= reversible; i -= 2) {
+            if (keyStack[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Главный вариант последнего поиска
+    public int getPvLength() {
+        return pvLength[0];
+    }
+
+    public int getPvMove(int index) {
+        return pvMoves[0][index];
+    }
+
+    public int getPvCaptured(int index) {
+        return pvCaptured[0][index];
+    }
+
+    // Оценки выигрыша в таблице хранятся относительно текущего узла
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score - ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,44 @@
+package checkers.engine;
+
+import checkers.game.Move;
+
+// Итог поиска: лучший ход, оценка и статистика
+public class SearchResult {
+    private final int move;
+    private final int captured;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMs;
+
+    public SearchResult(int move, int captured, int score, int depth, long nodes, long elapsedMs) {
+        this.move = move;
+        this.captured = captured;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMs = elapsedMs;
+    }
+
+    // Геттеры
+    public int getMove() { return move; }
+    public int getCaptured() { return captured; }
+    public int getScore() { return score; }
+    public int getDepth() { return depth; }
+    public long getNodes() { return nodes; }
+    public long getElapsedMs() { return elapsedMs; }
+
+    public boolean hasMove() {
+        return move != Move.NONE;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, elapsedMs);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("глубина %d, оценка %d, узлов %d, %d мс, %d узлов/с",
+                depth, score, nodes, elapsedMs, getNodesPerSecond());
+    }
+}
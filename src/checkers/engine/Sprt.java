@@ -0,0 +1,111 @@
+package checkers.engine;
+
+// Последовательный критерий отношения правдоподобия (SPRT) для матча двух игроков.
+// Гипотезы: H0 - разница в силе elo0, H1 - elo1 пунктов Эло. Логарифм отношения правдоподобия
+// считается в нормальном приближении по счёту партий (выигрыш 1, ничья 1/2, проигрыш 0),
+// матч останавливается, когда он выходит за границы, заданные ошибками alpha и beta
+public class Sprt {
+    public static final int CONTINUE = 0;
+    public static final int ACCEPT_H0 = 1;
+    public static final int ACCEPT_H1 = 2;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    // Результат партии с точки зрения первого игрока: 1, 0 (ничья) или -1
+    public void add(int result) {
+        if (result > 0) {
+            wins++;
+        } else if (result < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public int getWins() { return wins; }
+    public int getDraws() { return draws; }
+    public int getLosses() { return losses; }
+    public double getLowerBound() { return lowerBound; }
+    public double getUpperBound() { return upperBound; }
+
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    public double score() {
+        int games = games();
+        return games == 0 ? 0.5 : (wins + draws * 0.5) / games;
+    }
+
+    // Дисперсия результата одной партии
+    private double variance() {
+        double score = score();
+        int games = games();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    public double llr() {
+        int games = games();
+        if (games == 0 || wins + losses == 0) {
+            return 0;
+        }
+        double variance = variance();
+        if (variance <= 0) {
+            return 0;
+        }
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * score() - score0 - score1) / (2 * variance);
+    }
+
+    public int status() {
+        double llr = llr();
+        if (llr >= upperBound) {
+            return ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return ACCEPT_H0;
+        }
+        return CONTINUE;
+    }
+
+    // Разница в силе по счёту матча
+    public double elo() {
+        return eloOf(score());
+    }
+
+    // Половина 95-процентного доверительного интервала разницы в силе
+    public double eloError() {
+        int games = games();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double deviation = Math.sqrt(variance() / games);
+        double score = score();
+        return (eloOf(Math.min(score + 1.96 * deviation, 0.999)) - eloOf(Math.max(score - 1.96 * deviation, 0.001))) / 2;
+    }
+
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    public static double eloOf(double score) {
+        double clamped = Math.min(Math.max(score, 0.001), 0.999);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+}
@@ -0,0 +1,264 @@
+package checkers.engine;
+
+import checkers.classes.Bitboard;
+import checkers.classes.Position;
+import checkers.game.GameRules;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Эндшпильные базы: результат (выигрыш/проигрыш/ничья) и число полуходов до выигрыша
+// для всех позиций с небольшим числом шашек. Строятся TablebaseGenerator.
+// Позиции хранятся только с ходом белых: позиция с ходом чёрных поворачивается на 180°
+// (Integer.reverse масок) с заменой цветов. Для каждого набора шашек (дамки и простые
+// шашки каждой стороны) два файла: .wdl - 2 бита на позицию, .dtw - 1 байт на позицию.
+// Файлы отображаются в память, запрос не выделяет память
+public class Tablebase {
+    public static final String DEFAULT_DIR = "tablebases";
+
+    // Результаты для стороны, которая ходит
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    // Позиция отсутствует в базе (слишком много шашек, нет файла или невозможная расстановка)
+    public static final int UNKNOWN = 3;
+
+    // Не больше 8 шашек одного вида: номер набора - число в системе по основанию 9
+    static final int MAX_KIND = 8;
+    private static final int SIGNATURES = 9 * 9 * 9 * 9;
+    // Простые шашки не могут стоять на своём ряду превращения - для них 28 клеток
+    static final int MAN_SQUARES = 28;
+
+    static final int[][] BINOMIAL = new int[Bitboard.SQUARES + 1][MAX_KIND + 1];
+
+    static {
+        for (int n = 0; n <= Bitboard.SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_KIND); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private static Tablebase russian;
+    private static Tablebase spanish;
+
+    private final String prefix;
+    private final MappedByteBuffer[] wdl = new MappedByteBuffer[SIGNATURES];
+    private final MappedByteBuffer[] dtw = new MappedByteBuffer[SIGNATURES];
+    private int maxPieces;
+
+    Tablebase(GameRules rules) {
+        this.prefix = rules.isRussian() ? "russian" : "spanish";
+    }
+
+    // Базы из каталога tablebases для правил игры (открываются один раз на вариант)
+    public static synchronized Tablebase forRules(GameRules rules) {
+        if (rules.isRussian()) {
+            if (russian == null) {
+                russian = open(Paths.get(DEFAULT_DIR), rules);
+            }
+            return russian;
+        }
+        if (spanish == null) {
+            spanish = open(Paths.get(DEFAULT_DIR), rules);
+        }
+        return spanish;
+    }
+
+    // Отображение в память всех готовых файлов каталога. Без файлов база пуста и всегда отвечает UNKNOWN
+    public static Tablebase open(Path dir, GameRules rules) {
+        Tablebase tablebase = new Tablebase(rules);
+        for (int total = 2; total <= 2 * MAX_KIND; total++) {
+            boolean found = false;
+            for (int signature = 0; signature < SIGNATURES; signature++) {
+                if (piecesOf(signature) != total) {
+                    continue;
+                }
+                Path wdlFile = tablebase.wdlFile(dir, signature);
+                Path dtwFile = tablebase.dtwFile(dir, signature);
+                if (Files.exists(wdlFile) && Files.exists(dtwFile)) {
+                    try {
+                        tablebase.register(signature, map(wdlFile), map(dtwFile));
+                        found = true;
+                    } catch (IOException e) {
+                        System.err.println("Ошибка чтения эндшпильной базы " + wdlFile + ": " + e.getMessage());
+                    }
+                }
+            }
+            if (!found) {
+                break;
+            }
+            tablebase.maxPieces = total;
+        }
+        return tablebase;
+    }
+
+    // Наибольшее число шашек, для которого построены все базы
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    // Результат позиции для стороны white, которая ходит
+    public int probe(Position position, boolean white) {
+        return resultOf(probePacked(position, white));
+    }
+
+    // Число полуходов до выигрыша (или до проигрыша при лучшей защите), -1 для ничьей и неизвестных позиций
+    public int probeDistance(Position position, boolean white) {
+        int packed = probePacked(position, white);
+        int result = resultOf(packed);
+        return result == WIN || result == LOSS ? distanceOf(packed) : -1;
+    }
+
+    // Результат и расстояние одним числом: (результат << 8) | полуходы
+    int probePacked(Position position, boolean white) {
+        if (white) {
+            return probeWhiteToMove(position.getWhite(), position.getBlack(), position.getKings());
+        }
+        return probeWhiteToMove(Integer.reverse(position.getBlack()), Integer.reverse(position.getWhite()),
+                Integer.reverse(position.getKings()));
+    }
+
+    int probeWhiteToMove(int white, int black, int kings) {
+        if (Integer.bitCount(white) + Integer.bitCount(black) > maxPieces) {
+            return UNKNOWN << 8;
+        }
+        return lookup(white, black, kings);
+    }
+
+    // Запрос без проверки числа шашек: генератор обращается к уже построенным наборам,
+    // пока база текущего числа шашек не готова целиком
+    int lookup(int white, int black, int kings) {
+        if (white == 0) {
+            return LOSS << 8;
+        }
+        if (black == 0) {
+            return UNKNOWN << 8;
+        }
+        int signature = signatureOf(white, black, kings);
+        MappedByteBuffer wdlBuffer = wdl[signature];
+        if (wdlBuffer == null || ((white & ~kings) & Bitboard.TOP_ROW) != 0 || ((black & ~kings) & Bitboard.BOTTOM_ROW) != 0) {
+            return UNKNOWN << 8;
+        }
+        int index = index(white, black, kings);
+        int result = (wdlBuffer.get(index >>> 2) >>> ((index & 3) << 1)) & 3;
+        return (result << 8) | (dtw[signature].get(index) & 0xFF);
+    }
+
+    void register(int signature, MappedByteBuffer wdlBuffer, MappedByteBuffer dtwBuffer) {
+        wdl[signature] = wdlBuffer;
+        dtw[signature] = dtwBuffer;
+    }
+
+    // Базы с числом шашек total построены полностью
+    void setMaxPieces(int maxPieces) {
+        this.maxPieces = maxPieces;
+    }
+
+    boolean hasSignature(int signature) {
+        return wdl[signature] != null;
+    }
+
+    Path wdlFile(Path dir, int signature) {
+        return dir.resolve(prefix + "_" + signatureName(signature) + ".wdl");
+    }
+
+    Path dtwFile(Path dir, int signature) {
+        return dir.resolve(prefix + "_" + signatureName(signature) + ".dtw");
+    }
+
+    static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static int resultOf(int packed) {
+        return packed >>> 8;
+    }
+
+    static int distanceOf(int packed) {
+        return packed & 0xFF;
+    }
+
+    // Набор шашек: белые дамки, белые простые, чёрные дамки, чёрные простые
+    static int signature(int whiteKings, int whiteMen, int blackKings, int blackMen) {
+        return ((whiteKings * 9 + whiteMen) * 9 + blackKings) * 9 + blackMen;
+    }
+
+    static int signatureOf(int white, int black, int kings) {
+        return signature(Integer.bitCount(white & kings), Integer.bitCount(white & ~kings),
+                Integer.bitCount(black & kings), Integer.bitCount(black & ~kings));
+    }
+
+    static int whiteKingsOf(int signature) { return signature / 729; }
+    static int whiteMenOf(int signature) { return signature / 81 % 9; }
+    static int blackKingsOf(int signature) { return signature / 9 % 9; }
+    static int blackMenOf(int signature) { return signature % 9; }
+
+    static int piecesOf(int signature) {
+        return whiteKingsOf(signature) + whiteMenOf(signature) + blackKingsOf(signature) + blackMenOf(signature);
+    }
+
+    // Тот же набор после поворота доски с заменой цветов
+    static int flipped(int signature) {
+        return signature(blackKingsOf(signature), blackMenOf(signature), whiteKingsOf(signature), whiteMenOf(signature));
+    }
+
+    static String signatureName(int signature) {
+        return "" + whiteKingsOf(signature) + whiteMenOf(signature) + blackKingsOf(signature) + blackMenOf(signature);
+    }
+
+    // Число позиций набора, включая индексы с пересекающимися шашками
+    static long size(int signature) {
+        return (long) BINOMIAL[Bitboard.SQUARES][whiteKingsOf(signature)]
+                * BINOMIAL[Bitboard.SQUARES][blackKingsOf(signature)]
+                * BINOMIAL[MAN_SQUARES][whiteMenOf(signature)]
+                * BINOMIAL[MAN_SQUARES][blackMenOf(signature)];
+    }
+
+    // Комбинаторный индекс: номер сочетания клеток каждого вида шашек.
+    // Белые простые стоят на клетках 4-31, чёрные - на клетках 0-27
+    static int index(int white, int black, int kings) {
+        int whiteKings = white & kings;
+        int blackKings = black & kings;
+        int whiteMen = (white & ~kings) >>> 4;
+        int blackMen = black & ~kings;
+        int index = rank(whiteKings);
+        index = index * BINOMIAL[Bitboard.SQUARES][Integer.bitCount(blackKings)] + rank(blackKings);
+        index = index * BINOMIAL[MAN_SQUARES][Integer.bitCount(whiteMen)] + rank(whiteMen);
+        return index * BINOMIAL[MAN_SQUARES][Integer.bitCount(blackMen)] + rank(blackMen);
+    }
+
+    // Номер сочетания в колексикографическом порядке
+    static int rank(int mask) {
+        int rank = 0;
+        for (int i = 1; mask != 0; i++) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][i];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    // Сочетание из count клеток по номеру (обратное к rank)
+    static int unrank(int rank, int count) {
+        int mask = 0;
+        int limit = Bitboard.SQUARES;
+        for (int i = count; i > 0; i--) {
+            int sq = i - 1;
+            while (sq + 1 < limit && BINOMIAL[sq + 1][i] <= rank) {
+                sq++;
+            }
+            mask |= 1 << sq;
+            rank -= BINOMIAL[sq][i];
+            limit = sq;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,297 @@
+package checkers.engine;
+
+import checkers.classes.Bitboard;
+import checkers.classes.Position;
+import checkers.game.GameRules;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Построение эндшпильных баз (см. Tablebase) ретроградным анализом по проходам.
+// На проходе k позиция выигрывает, если есть ход в проигрыш соперника за < k полуходов,
+// и проигрывает, если все ходы ведут в выигрыш соперника за < k полуходов; так число k
+// получается точным расстоянием до выигрыша. Позиции без ходов проигрывают сразу.
+// Наборы строятся в порядке зависимостей: сначала меньше шашек (взятия), затем меньше простых
+// (превращения). Набор и его зеркальный (цвета поменяны) строятся вместе, так как тихий ход
+// переводит один в другой. Проход делится на блоки индексов, блоки считаются параллельно.
+// Запуск: java -cp <classes> checkers.engine.TablebaseGenerator [RUSSIAN|SPANISH] [шашек] [потоков] [каталог]
+public class TablebaseGenerator {
+    private static final int CHUNK = 4096;
+    // Состояние ещё не решённой позиции (решённые хранятся как в Tablebase: (результат << 8) | полуходы)
+    private static final int UNRESOLVED = -1;
+    private static final int INVALID = Tablebase.UNKNOWN << 8;
+    private static final int MAX_DISTANCE = 255;
+
+    private final GameRules rules;
+    private final Path dir;
+    private final Tablebase tablebase;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers;
+    private final List<Worker> allWorkers = new CopyOnWriteArrayList<>();
+
+    public TablebaseGenerator(GameRules rules, Path dir, int threads) {
+        this.rules = rules;
+        this.dir = dir;
+        // Готовые файлы не пересчитываются - построение можно продолжить после остановки
+        this.tablebase = Tablebase.open(dir, rules);
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.workers = ThreadLocal.withInitial(() -> {
+            Worker worker = new Worker();
+            allWorkers.add(worker);
+            return worker;
+        });
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    public void generate(int maxPieces) throws IOException {
+        Files.createDirectories(dir);
+        for (int total = 2; total <= maxPieces; total++) {
+            for (int men = 0; men <= total; men++) {
+                for (int whiteKings = 0; whiteKings <= total; whiteKings++) {
+                    for (int whiteMen = 0; whiteMen <= men; whiteMen++) {
+                        int blackMen = men - whiteMen;
+                        int blackKings = total - men - whiteKings;
+                        if (blackKings < 0 || whiteKings + whiteMen == 0 || blackKings + blackMen == 0) {
+                            continue;
+                        }
+                        int signature = Tablebase.signature(whiteKings, whiteMen, blackKings, blackMen);
+                        if (!tablebase.hasSignature(signature)) {
+                            generatePair(signature, Tablebase.flipped(signature));
+                        }
+                    }
+                }
+            }
+            tablebase.setMaxPieces(total);
+        }
+    }
+
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void generatePair(int signature, int flipped) throws IOException {
+        long start = System.nanoTime();
+        boolean symmetric = signature == flipped;
+        int[] states = newStates(signature);
+        int[] flippedStates = symmetric ? states : newStates(flipped);
+
+        forEachIndex(states.length, index -> markInvalid(signature, states, index));
+        if (!symmetric) {
+            forEachIndex(flippedStates.length, index -> markInvalid(flipped, flippedStates, index));
+        }
+
+        for (Worker worker : allWorkers) {
+            worker.dependencyDistance = 0;
+        }
+        // Наибольшее расстояние в уже построенных наборах, куда ведут взятия и превращения:
+        // пока k не превысит его, проход без изменений ещё не означает конец
+        int dependencyDistance = 0;
+        int passes = 0;
+        for (int k = 0; ; k++) {
+            int distance = k;
+            LongAdder changes = new LongAdder();
+            forEachIndex(states.length, index -> resolve(signature, states, flippedStates, index, distance, changes));
+            if (!symmetric) {
+                forEachIndex(flippedStates.length, index -> resolve(flipped, flippedStates, states, index, distance, changes));
+            }
+            passes = k + 1;
+            if (k == 0) {
+                // На нулевом проходе нерешённые позиции просматривают все свои ходы
+                for (Worker worker : allWorkers) {
+                    dependencyDistance = Math.max(dependencyDistance, worker.dependencyDistance);
+                }
+            }
+            if (changes.sum() == 0 && k > dependencyDistance) {
+                break;
+            }
+        }
+
+        write(signature, states);
+        if (!symmetric) {
+            write(flipped, flippedStates);
+        }
+        System.out.printf("%s%s: %,d позиций, проходов %d, %d мс%n",
+                Tablebase.signatureName(signature), symmetric ? "" : " + " + Tablebase.signatureName(flipped),
+                states.length + (symmetric ? 0 : flippedStates.length), passes,
+                (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    private static int[] newStates(int signature) {
+        long size = Tablebase.size(signature);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большой набор шашек: " + Tablebase.signatureName(signature));
+        }
+        int[] states = new int[(int) size];
+        Arrays.fill(states, UNRESOLVED);
+        return states;
+    }
+
+    private void forEachIndex(int size, IntConsumer action) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(size, (chunk + 1) * CHUNK);
+            for (int index = chunk * CHUNK; index < end; index++) {
+                action.accept(index);
+            }
+        })).join();
+    }
+
+    // Индексы, в которых шашки разных видов попадают на одну клетку, позициями не являются
+    private void markInvalid(int signature, int[] states, int index) {
+        Worker worker = workers.get();
+        if (!worker.decode(signature, index)) {
+            states[index] = INVALID;
+        }
+    }
+
+    private void resolve(int signature, int[] states, int[] flippedStates, int index, int k, LongAdder changes) {
+        if (states[index] != UNRESOLVED) {
+            return;
+        }
+        Worker worker = workers.get();
+        worker.decode(signature, index);
+        int state = worker.evaluate(flippedStates, k);
+        if (state != UNRESOLVED) {
+            states[index] = state;
+            changes.increment();
+        }
+    }
+
+    // Запись файлов набора и подключение их к базе
+    private void write(int signature, int[] states) throws IOException {
+        byte[] wdl = new byte[(states.length + 3) >>> 2];
+        byte[] dtw = new byte[states.length];
+        for (int index = 0; index < states.length; index++) {
+            // Нерешённые к концу позиции - ничьи
+            int state = states[index] == UNRESOLVED ? Tablebase.DRAW << 8 : states[index];
+            wdl[index >>> 2] |= (byte) (Tablebase.resultOf(state) << ((index & 3) << 1));
+            dtw[index] = (byte) Tablebase.distanceOf(state);
+        }
+        Path wdlFile = tablebase.wdlFile(dir, signature);
+        Path dtwFile = tablebase.dtwFile(dir, signature);
+        writeFile(dtwFile, dtw);
+        writeFile(wdlFile, wdl);
+        tablebase.register(signature, Tablebase.map(wdlFile), Tablebase.map(dtwFile));
+    }
+
+    private static void writeFile(Path file, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Рабочие данные потока: генератор ходов не потокобезопасен
+    private final class Worker {
+        private final MoveGenerator generator = new MoveGenerator(rules);
+        private final MoveList moves = new MoveList();
+        private final Position position = new Position();
+        private int white;
+        private int black;
+        private int kings;
+        private int dependencyDistance;
+
+        // Расстановка по индексу; false, если шашки пересекаются
+        boolean decode(int signature, int index) {
+            int whiteKingCount = Tablebase.whiteKingsOf(signature);
+            int whiteManCount = Tablebase.whiteMenOf(signature);
+            int blackKingCount = Tablebase.blackKingsOf(signature);
+            int blackManCount = Tablebase.blackMenOf(signature);
+
+            int blackManCombinations = Tablebase.BINOMIAL[Tablebase.MAN_SQUARES][blackManCount];
+            int whiteManCombinations = Tablebase.BINOMIAL[Tablebase.MAN_SQUARES][whiteManCount];
+            int blackKingCombinations = Tablebase.BINOMIAL[Bitboard.SQUARES][blackKingCount];
+            int blackMen = Tablebase.unrank(index % blackManCombinations, blackManCount);
+            index /= blackManCombinations;
+            int whiteMen = Tablebase.unrank(index % whiteManCombinations, whiteManCount) << 4;
+            index /= whiteManCombinations;
+            int blackKings = Tablebase.unrank(index % blackKingCombinations, blackKingCount);
+            int whiteKings = Tablebase.unrank(index / blackKingCombinations, whiteKingCount);
+
+            white = whiteKings | whiteMen;
+            black = blackKings | blackMen;
+            kings = whiteKings | blackKings;
+            return Integer.bitCount(white | black)
+                    == whiteKingCount + whiteManCount + blackKingCount + blackManCount;
+        }
+
+        // Значение позиции с ходом белых на проходе k или UNRESOLVED
+        int evaluate(int[] flippedStates, int k) {
+            position.set(white, black, kings);
+            int count = generator.generate(position, true, moves);
+            boolean allWin = true;
+            for (int i = 0; i < count; i++) {
+                int move = moves.get(i);
+                int captured = moves.getCaptured(i);
+                int from = Move.from(move);
+                int capturedKings = position.applyMove(from, Move.to(move), captured, Move.isPromotion(move));
+                // Позиция соперника, повёрнутая к ходу белых
+                int childWhite = Integer.reverse(position.getBlack());
+                int childBlack = Integer.reverse(position.getWhite());
+                int childKings = Integer.reverse(position.getKings());
+                position.undoMove(from, Move.to(move), captured, capturedKings, Move.isPromotion(move), true);
+
+                int child;
+                if (captured == 0 && !Move.isPromotion(move)) {
+                    child = flippedStates[Tablebase.index(childWhite, childBlack, childKings)];
+                } else {
+                    child = tablebase.lookup(childWhite, childBlack, childKings);
+                    dependencyDistance = Math.max(dependencyDistance, Tablebase.distanceOf(child));
+                }
+                if (child == UNRESOLVED || Tablebase.distanceOf(child) >= k) {
+                    allWin = false;
+                    continue;
+                }
+                int result = Tablebase.resultOf(child);
+                if (result == Tablebase.LOSS) {
+                    return (Tablebase.WIN << 8) | Math.min(k, MAX_DISTANCE);
+                }
+                if (result != Tablebase.WIN) {
+                    allWin = false;
+                }
+            }
+            return allWin ? (Tablebase.LOSS << 8) | Math.min(k, MAX_DISTANCE) : UNRESOLVED;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        GameRules.RuleType ruleType = args.length > 0 ? GameRules.RuleType.valueOf(args[0].toUpperCase()) : GameRules.RuleType.RUSSIAN;
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path dir = Paths.get(args.length > 3 ? args[3] : Tablebase.DEFAULT_DIR);
+        if (maxPieces > Tablebase.MAX_KIND) {
+            throw new IllegalArgumentException("Не больше " + Tablebase.MAX_KIND + " шашек");
+        }
+
+        long start = System.nanoTime();
+        TablebaseGenerator generator = new TablebaseGenerator(new GameRules(ruleType), dir, threads);
+        try {
+            generator.generate(maxPieces);
+        } finally {
+            generator.close();
+        }
+        System.out.println("Базы " + ruleType + " до " + maxPieces + " шашек построены за "
+                + (System.nanoTime() - start) / 1_000_000L + " мс в " + dir.toAbsolutePath());
+    }
+}
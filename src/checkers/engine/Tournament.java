@@ -0,0 +1,355 @@
+package checkers.engine;
+
+import checkers.classes.Position;
+import checkers.enums.GameState;
+import checkers.game.Game;
+import checkers.game.GameArchive;
+import checkers.game.GameRules;
+import checkers.game.GameSettings;
+import checkers.game.Move;
+import checkers.game.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Матч двух настроек компьютерного игрока без интерфейса: партии играются параллельно
+// на всех ядрах, каждая в одном потоке поиска. Дебюты - случайные несколько полуходов,
+// каждый дебют играется дважды со сменой цветов, варианты правил чередуются.
+// Контроль времени на партию: основное время и добавка за ход. Партии без результата
+// присуждаются: ничья при троекратном повторении, долгой игре без взятий и ходов простыми
+// или слишком длинной партии; по эндшпильным базам - выигрыш, проигрыш или ничья.
+// Матч останавливается по SPRT (см. Sprt) или после заданного числа партий,
+// записи партий с результатами сохраняются в архив (см. GameArchive).
+// Запуск: java -cp <classes> checkers.engine.Tournament [параметры] настройкиA настройкиB
+// Настройки: ключ=значение через запятую - time (мс на ход вместо контроля времени),
+// depth, ordering (флаги SearchEngine.ORDER_*), hash (МБ), tb (0/1); пустая строка - по умолчанию
+public class Tournament {
+    private static final int MAX_PLIES = 400;
+    private static final int QUIET_PLIES = 60;
+    private static final int REPETITIONS = 3;
+    // Доля оставшегося времени на ход
+    private static final int MOVES_TO_GO = 25;
+
+    private final Config[] configs;
+    private final GameSettings.Variant[] variants;
+    private final long baseMs;
+    private final long incrementMs;
+    private final int ballotPlies;
+    private final long seed;
+    private final Sprt sprt;
+    private final Path recordDir;
+    private GameArchive archive;
+    private final int maxGames;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private volatile boolean finished;
+    private final ThreadLocal<Worker> workers;
+
+    public Tournament(Config first, Config second, GameSettings.Variant[] variants, long baseMs, long incrementMs,
+                      int ballotPlies, long seed, Sprt sprt, Path recordDir, int maxGames) {
+        this.configs = new Config[]{first, second};
+        this.variants = variants;
+        this.baseMs = baseMs;
+        this.incrementMs = incrementMs;
+        this.ballotPlies = ballotPlies;
+        this.seed = seed;
+        this.sprt = sprt;
+        this.recordDir = recordDir;
+        this.maxGames = maxGames;
+        this.workers = ThreadLocal.withInitial(Worker::new);
+    }
+
+    // Настройки одного участника
+    public static class Config {
+        private final String name;
+        private long timeMs;
+        private int maxDepth = SearchEngine.MAX_PLY;
+        private int ordering = SearchEngine.ORDER_ALL;
+        private int hashMb = 16;
+        private boolean tablebase = true;
+
+        public Config(String name) {
+            this.name = name;
+        }
+
+        public static Config parse(String text) {
+            Config config = new Config(text.isEmpty() ? "default" : text);
+            for (String pair : text.split(",")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Ожидается ключ=значение: " + pair);
+                }
+                String key = pair.substring(0, eq).trim();
+                int value = Integer.parseInt(pair.substring(eq + 1).trim());
+                switch (key) {
+                    case "time": config.timeMs = value; break;
+                    case "depth": config.maxDepth = value > 0 ? Math.min(value, SearchEngine.MAX_PLY) : SearchEngine.MAX_PLY; break;
+                    case "ordering": config.ordering = value; break;
+                    case "hash": config.hashMb = value; break;
+                    case "tb": config.tablebase = value != 0; break;
+                    default: throw new IllegalArgumentException("Неизвестный ключ настроек: " + key);
+                }
+            }
+            return config;
+        }
+
+        public String getName() { return name; }
+    }
+
+    // Поисковые движки потока: по одному на участника и вариант правил
+    private final class Worker {
+        private final SearchEngine[][] engines = new SearchEngine[2][2];
+        private final TranspositionTable[][] tables = new TranspositionTable[2][2];
+
+        SearchEngine engine(int player, GameSettings.Variant variant, GameRules rules) {
+            int v = variant.ordinal();
+            if (engines[player][v] == null) {
+                Config config = configs[player];
+                tables[player][v] = new TranspositionTable(config.hashMb);
+                SearchEngine engine = new SearchEngine(rules, tables[player][v]);
+                engine.setOrdering(config.ordering);
+                if (config.tablebase) {
+                    engine.setTablebase(Tablebase.forRules(rules));
+                }
+                engines[player][v] = engine;
+            }
+            return engines[player][v];
+        }
+
+        void newGame(GameSettings.Variant variant) {
+            for (int player = 0; player < 2; player++) {
+                if (tables[player][variant.ordinal()] != null) {
+                    tables[player][variant.ordinal()].clear();
+                }
+            }
+        }
+    }
+
+    public void run(int threads) throws InterruptedException {
+        if (recordDir != null) {
+            try {
+                archive = GameArchive.open(recordDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Не удалось открыть архив записей: " + recordDir, e);
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(this::playGames);
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия архива записей: " + e.getMessage());
+            }
+        }
+    }
+
+    private void playGames() {
+        while (!finished) {
+            int index = nextGame.getAndIncrement();
+            if (index >= maxGames) {
+                return;
+            }
+            int result = playGame(index);
+            record(index, result);
+        }
+    }
+
+    // Партии 2k и 2k+1 играются с одним дебютом; в нечётной первый участник играет чёрными
+    private int playGame(int index) {
+        int pair = index / 2;
+        boolean firstIsWhite = (index & 1) == 0;
+        GameSettings.Variant variant = variants[pair % variants.length];
+        GameSettings settings = new GameSettings();
+        settings.setVariant(variant);
+        Game game = new Game(settings);
+        GameRules rules = game.getRules();
+        Worker worker = workers.get();
+        worker.newGame(variant);
+
+        playBallot(game, new Random(seed + pair * 0x9E3779B97F4A7C15L));
+
+        long[] clocks = {baseMs, baseMs};
+        Map<Long, Integer> repetitions = new HashMap<>();
+        int quietPlies = 0;
+        Tablebase tablebase = Tablebase.forRules(rules);
+        GameState state = game.getGameState();
+        while (!game.isGameOver()) {
+            boolean white = game.isWhiteToMove();
+            Position position = game.getBoard().getPosition();
+            int side = white ? 0 : 1;
+            int player = white == firstIsWhite ? 0 : 1;
+
+            if (repetitions.merge(game.positionKey(), 1, Integer::sum) >= REPETITIONS
+                    || quietPlies >= QUIET_PLIES || game.getMoveHistory().size() >= MAX_PLIES) {
+                state = GameState.DRAW;
+                break;
+            }
+            if (Integer.bitCount(position.getOccupied()) <= tablebase.getMaxPieces()) {
+                int probe = tablebase.probe(position, white);
+                if (probe != Tablebase.UNKNOWN) {
+                    state = probe == Tablebase.DRAW ? GameState.DRAW
+                            : (probe == Tablebase.WIN) == white ? GameState.WHITE_WIN : GameState.BLACK_WIN;
+                    break;
+                }
+            }
+
+            Config config = configs[player];
+            long timeMs = config.timeMs > 0 ? config.timeMs
+                    : Math.max(1, Math.min(clocks[side] / 2, clocks[side] / MOVES_TO_GO + incrementMs));
+            SearchResult result = worker.engine(player, variant, rules).search(position, white, timeMs, config.maxDepth);
+            if (config.timeMs == 0) {
+                clocks[side] += incrementMs - result.getElapsedMs();
+                if (clocks[side] < 0) {
+                    state = white ? GameState.BLACK_WIN : GameState.WHITE_WIN;
+                    break;
+                }
+            }
+            int move = result.getMove();
+            boolean quiet = !Move.isCapture(move) && (position.getKings() & (1 << Move.from(move))) != 0;
+            quietPlies = quiet ? quietPlies + 1 : 0;
+            game.makeMove(move, result.getCaptured());
+            state = game.getGameState();
+        }
+
+        if (archive != null) {
+            try {
+                archive.append(game, state, System.currentTimeMillis());
+            } catch (IOException e) {
+                System.err.println("Ошибка записи партии " + index + ": " + e.getMessage());
+            }
+        }
+        if (state == GameState.DRAW) {
+            return 0;
+        }
+        return (state == GameState.WHITE_WIN) == firstIsWhite ? 1 : -1;
+    }
+
+    // Случайный дебют; если партия закончилась в дебюте, он выбирается заново
+    private void playBallot(Game game, Random random) {
+        while (true) {
+            for (int ply = 0; ply < ballotPlies && !game.isGameOver(); ply++) {
+                MoveList moves = game.getLegalMoves();
+                int i = random.nextInt(moves.size());
+                game.makeMove(moves.get(i), moves.getCaptured(i));
+            }
+            if (!game.isGameOver()) {
+                return;
+            }
+            while (game.unmakeMove()) {
+                // назад к началу
+            }
+        }
+    }
+
+    private synchronized void record(int index, int result) {
+        if (finished) {
+            return;
+        }
+        sprt.add(result);
+        System.out.printf("Партия %d: %s  +%d =%d -%d  Эло: %.1f ± %.1f  LLR: %.2f [%.2f, %.2f]%n",
+                index + 1, result > 0 ? "1-0" : result < 0 ? "0-1" : "½-½",
+                sprt.getWins(), sprt.getDraws(), sprt.getLosses(), sprt.elo(), sprt.eloError(),
+                sprt.llr(), sprt.getLowerBound(), sprt.getUpperBound());
+        if (sprt.status() != Sprt.CONTINUE || sprt.games() >= maxGames) {
+            finished = true;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxGames = 1000;
+        long baseMs = 10_000;
+        long incrementMs = 100;
+        int ballotPlies = 6;
+        long seed = System.nanoTime();
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+        GameSettings.Variant[] variants = GameSettings.Variant.values();
+        Path recordDir = Paths.get("history", "tournament_" + System.currentTimeMillis());
+        String[] configs = new String[2];
+        int configCount = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--games=")) {
+                maxGames = Integer.parseInt(arg.substring("--games=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--tc=")) {
+                // основное время + добавка, мс
+                String[] parts = arg.substring("--tc=".length()).split("\\+");
+                baseMs = Long.parseLong(parts[0]);
+                incrementMs = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+            } else if (arg.startsWith("--variant=")) {
+                String value = arg.substring("--variant=".length()).toUpperCase();
+                variants = value.equals("BOTH") ? GameSettings.Variant.values()
+                        : new GameSettings.Variant[]{GameSettings.Variant.valueOf(value)};
+            } else if (arg.startsWith("--ballot=")) {
+                ballotPlies = Integer.parseInt(arg.substring("--ballot=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--elo0=")) {
+                elo0 = Double.parseDouble(arg.substring("--elo0=".length()));
+            } else if (arg.startsWith("--elo1=")) {
+                elo1 = Double.parseDouble(arg.substring("--elo1=".length()));
+            } else if (arg.startsWith("--alpha=")) {
+                alpha = Double.parseDouble(arg.substring("--alpha=".length()));
+            } else if (arg.startsWith("--beta=")) {
+                beta = Double.parseDouble(arg.substring("--beta=".length()));
+            } else if (arg.startsWith("--records=")) {
+                String value = arg.substring("--records=".length());
+                recordDir = value.equals("none") ? null : Paths.get(value);
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            } else if (configCount < 2) {
+                configs[configCount++] = arg;
+            } else {
+                throw new IllegalArgumentException("Лишний участник: " + arg);
+            }
+        }
+        if (configCount < 2) {
+            System.out.println("Использование: Tournament [--games=N] [--threads=N] [--tc=мс+мс] [--variant=RUSSIAN|SPANISH|BOTH]"
+                    + " [--ballot=полуходов] [--seed=N] [--elo0=0] [--elo1=10] [--alpha=0.05] [--beta=0.05]"
+                    + " [--records=каталог|none] настройкиA настройкиB");
+            return;
+        }
+
+        Config first = Config.parse(configs[0]);
+        Config second = Config.parse(configs[1]);
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        Tournament tournament = new Tournament(first, second, variants, baseMs, incrementMs,
+                ballotPlies, seed, sprt, recordDir, maxGames);
+        System.out.println("A: " + first.getName() + ", B: " + second.getName() + ", потоков: " + threads
+                + ", контроль: " + baseMs + "+" + incrementMs + " мс, SPRT: [" + elo0 + ", " + elo1 + "]"
+                + ", начальное число: " + seed);
+        long start = System.nanoTime();
+        tournament.run(threads);
+
+        int status = sprt.status();
+        System.out.printf("Итог A против B: +%d =%d -%d, очков %.1f%%, Эло: %.1f ± %.1f, %d с%n",
+                sprt.getWins(), sprt.getDraws(), sprt.getLosses(), sprt.score() * 100,
+                sprt.elo(), sprt.eloError(), (System.nanoTime() - start) / 1_000_000_000L);
+        System.out.println(status == Sprt.ACCEPT_H1 ? "SPRT: принята H1 (A сильнее на " + elo1 + " Эло)"
+                : status == Sprt.ACCEPT_H0 ? "SPRT: принята H0 (A не сильнее на " + elo1 + " Эло)"
+                : "SPRT: без решения");
+        if (recordDir != null) {
+            System.out.println("Записи партий: " + recordDir.toAbsolutePath());
+        }
+    }
+}
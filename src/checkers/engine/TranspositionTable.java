@@ -0,0 +1,125 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+// Таблица транспозиций фиксированного размера на примитивных массивах long.
+// Корзина из двух записей: первая заменяется только более глубокой (или устаревшей) записью,
+// вторая - всегда. Запись хранится как (ключ ^ данные, данные): при одновременной записи
+// из нескольких потоков повреждённая запись просто не пройдёт проверку ключа, блокировки не нужны
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    // Упаковка данных: счёт (16 бит), глубина (8), граница (2), ход (16), поколение (6)
+    private static final int DEPTH_SHIFT = 16;
+    private static final int BOUND_SHIFT = 24;
+    private static final int MOVE_SHIFT = 26;
+    private static final int AGE_SHIFT = 42;
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int buckets = Integer.highestOneBit((int) Math.min(entries / 2, 1 << 29));
+        this.keys = new long[buckets * 2];
+        this.data = new long[buckets * 2];
+        this.bucketMask = buckets - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        age = 0;
+    }
+
+    // Новый поиск: записи прошлых поисков становятся кандидатами на замену
+    public void newSearch() {
+        age = (age + 1) & 0x3F;
+    }
+
+    // Данные записи для ключа или 0, если записи нет
+    public long probe(long key) {
+        int index = bucket(key);
+        long entry = data[index];
+        if ((keys[index] ^ entry) == key && entry != 0) {
+            return entry;
+        }
+        entry = data[index + 1];
+        if ((keys[index + 1] ^ entry) == key && entry != 0) {
+            return entry;
+        }
+        return 0;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = bucket(key);
+        long entry = pack(depth, bound, score, move);
+        long oldData = data[index];
+        boolean sameKey = (keys[index] ^ oldData) == key;
+        if (sameKey || oldData == 0 || depth >= depthOf(oldData) || ageOf(oldData) != age) {
+            // Сохраняем лучший ход прежней записи той же позиции, если новый неизвестен
+            if (sameKey && move == 0) {
+                entry |= (long) moveOf(oldData) << MOVE_SHIFT;
+            }
+            keys[index] = key ^ entry;
+            data[index] = entry;
+        } else {
+            keys[index + 1] = key ^ entry;
+            data[index + 1] = entry;
+        }
+    }
+
+    // Заполненность в промилле по первым корзинам (как в протоколах движков)
+    public int hashfull() {
+        int sample = Math.min(1000, data.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (data[i] != 0 && ageOf(data[i]) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public int capacity() {
+        return data.length;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+
+    private long pack(int depth, int bound, int score, int move) {
+        return (score & 0xFFFFL)
+                | ((long) Math.min(Math.max(depth, 0), 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) (move & 0xFFFF) << MOVE_SHIFT)
+                | ((long) age << AGE_SHIFT);
+    }
+
+    // Разбор данных записи
+    public static int scoreOf(long entry) {
+        return (short) entry;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    public static int moveOf(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0xFFFF;
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0x3F;
+    }
+}
@@ -0,0 +1,7 @@
+package checkers.enums;
+
+// Цвет шашек и игрока (ядро игры не зависит от java.awt.Color)
+public enum PieceColor {
+    WHITE,   // Белые
+    BLACK    // Чёрные
+}
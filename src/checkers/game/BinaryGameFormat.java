@@ -0,0 +1,251 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.datas.WindowBounds;
+import checkers.enums.GameState;
+import checkers.enums.PlayerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+// Двоичный формат сохранения (версия 1), все числа - big-endian:
+//   int    MAGIC "CHKS"
+//   byte   версия формата
+//   byte   вариант правил, byte тип чёрного игрока, byte состояние игры (порядковые номера enum)
+//   byte   флаги: START_WHITE, WHITE_TO_MOVE, PONDER, WINDOW
+//   byte   длина и ASCII-код языка интерфейса
+//   varint размер клетки, время хода движка (мс), потоки движка
+//   4 int  границы окна (только с флагом WINDOW)
+//   3 int  маски начальной позиции (белые, чёрные, дамки)
+//   3 int  маски текущей позиции - для проверки после воспроизведения
+//   varint число ходов, затем ходы: varint упакованного хода (Move), для взятий - varint маски побитых
+//   int    CRC32 всех предыдущих байт
+// Партия восстанавливается воспроизведением ходов с начальной позиции, поэтому после загрузки
+// доступны история и отмена ходов
+final class BinaryGameFormat {
+    static final int MAGIC = 0x43484B53;
+    static final int VERSION = 1;
+
+    private static final int START_WHITE = 1;
+    private static final int WHITE_TO_MOVE = 2;
+    private static final int PONDER = 4;
+    private static final int WINDOW = 8;
+
+    // Заголовок с запасом; на ход - не больше 3 байт хода и 5 байт маски
+    private static final int HEADER_BYTES = 128;
+    private static final int MAX_MOVE_BYTES = 8;
+
+    private BinaryGameFormat() {
+    }
+
+    // Начинается ли содержимое файла с сигнатуры двоичного формата
+    static boolean isBinary(ByteBuffer data) {
+        return data.remaining() >= 4 && data.getInt(data.position()) == MAGIC;
+    }
+
+    // Запись через временный файл и атомарное переименование: при сбое остаётся прежнее сохранение.
+    // Возвращает контрольную сумму записанного файла (по ней журнал ходов ссылается на снимок)
+    static int write(Game game, Path file) throws IOException {
+        return write(encode(game), file);
+    }
+
+    // Запись уже закодированного сохранения (см. encode)
+    static int write(ByteBuffer buffer, Path file) throws IOException {
+        int checksum = checksum(buffer);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return checksum;
+    }
+
+    // Контрольная сумма сохранения (последние 4 байта)
+    static int checksum(ByteBuffer data) {
+        return data.getInt(data.limit() - 4);
+    }
+
+    // Весь файл целиком в буфер (сохранения небольшие)
+    static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Слишком большой файл сохранения: " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // читаем до конца
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    static ByteBuffer encode(Game game) {
+        GameSettings settings = game.getSettings();
+        int plies = game.getPlayedMoves();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + plies * MAX_MOVE_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) settings.getVariant().ordinal());
+        buffer.put((byte) settings.getBlackPlayerType().ordinal());
+        buffer.put((byte) game.getGameState().ordinal());
+
+        WindowBounds window = game.getWindowBounds();
+        int flags = (game.isStartWhiteToMove() ? START_WHITE : 0)
+                | (game.isWhiteToMove() ? WHITE_TO_MOVE : 0)
+                | (settings.isPonder() ? PONDER : 0)
+                | (window != null ? WINDOW : 0);
+        buffer.put((byte) flags);
+
+        String language = settings.getLocale().getLanguage();
+        buffer.put((byte) language.length());
+        for (int i = 0; i < language.length(); i++) {
+            buffer.put((byte) language.charAt(i));
+        }
+        putVarint(buffer, settings.getCellSize());
+        putVarint(buffer, settings.getEngineTimeMs());
+        putVarint(buffer, settings.getEngineThreads());
+        if (window != null) {
+            buffer.putInt(window.getX());
+            buffer.putInt(window.getY());
+            buffer.putInt(window.getWidth());
+            buffer.putInt(window.getHeight());
+        }
+
+        putPosition(buffer, game.getStartPosition());
+        putPosition(buffer, game.getBoard().getPosition());
+
+        putVarint(buffer, plies);
+        for (int i = 0; i < plies; i++) {
+            int move = game.getPlayedMove(i);
+            putVarint(buffer, move);
+            if (Move.isCapture(move)) {
+                putVarint(buffer, game.getPlayedCaptured(i));
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    static Game decode(ByteBuffer data) throws IOException {
+        try {
+            int end = data.limit() - 4;
+            CRC32 crc = new CRC32();
+            crc.update(data.array(), data.arrayOffset() + data.position(), end - data.position());
+            if ((int) crc.getValue() != data.getInt(end)) {
+                throw new IOException("Повреждённое сохранение: не совпадает контрольная сумма");
+            }
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Не двоичное сохранение");
+            }
+            int version = data.get();
+            if (version != VERSION) {
+                throw new IOException("Неизвестная версия сохранения: " + version);
+            }
+
+            GameSettings settings = new GameSettings();
+            settings.setVariant(GameSettings.Variant.values()[data.get()]);
+            settings.setBlackPlayerType(PlayerType.values()[data.get()]);
+            GameState state = GameState.values()[data.get()];
+            int flags = data.get();
+            settings.setPonder((flags & PONDER) != 0);
+
+            char[] language = new char[data.get()];
+            for (int i = 0; i < language.length; i++) {
+                language[i] = (char) data.get();
+            }
+            settings.setLocale(toLocale(new String(language)));
+            settings.setCellSize(getVarint(data));
+            settings.setEngineTimeMs(getVarint(data));
+            settings.setEngineThreads(getVarint(data));
+            WindowBounds window = null;
+            if ((flags & WINDOW) != 0) {
+                window = new WindowBounds(data.getInt(), data.getInt(), data.getInt(), data.getInt());
+            }
+
+            Position start = new Position(data.getInt(), data.getInt(), data.getInt());
+            int white = data.getInt();
+            int black = data.getInt();
+            int kings = data.getInt();
+
+            Game game = new Game(settings);
+            game.setPosition(start, (flags & START_WHITE) != 0);
+            int plies = getVarint(data);
+            for (int i = 0; i < plies; i++) {
+                int move = getVarint(data);
+                game.makeMove(move, Move.isCapture(move) ? getVarint(data) : 0);
+            }
+            if (data.position() != end) {
+                throw new IOException("Лишние данные в сохранении");
+            }
+            Position position = game.getBoard().getPosition();
+            if (position.getWhite() != white || position.getBlack() != black || position.getKings() != kings
+                    || game.isWhiteToMove() != ((flags & WHITE_TO_MOVE) != 0)) {
+                throw new IOException("Ходы сохранения не приводят к сохранённой позиции");
+            }
+            game.setGameState(state);
+            game.setWindowBounds(window);
+            return game;
+        } catch (RuntimeException e) {
+            // выход за границы буфера, неизвестный номер enum и т.п.
+            throw new IOException("Неверный формат сохранения: " + e, e);
+        }
+    }
+
+    private static Locale toLocale(String language) {
+        if ("en".equals(language)) {
+            return Locale.ENGLISH;
+        } else if ("fr".equals(language)) {
+            return Locale.FRENCH;
+        }
+        return new Locale("ru", "RU");
+    }
+
+    private static void putPosition(ByteBuffer buffer, Position position) {
+        buffer.putInt(position.getWhite());
+        buffer.putInt(position.getBlack());
+        buffer.putInt(position.getKings());
+    }
+
+    // Беззнаковое число по 7 бит в байте, старший бит - признак продолжения
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Слишком длинное число varint");
+    }
+}
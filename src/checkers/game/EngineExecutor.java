@@ -0,0 +1,66 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.engine.ComputerPlayer;
+import checkers.engine.SearchResult;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Поиск ходов компьютера и подсказок вне потока событий Swing.
+// Задачи выполняются по одной в отдельном потоке (сам поиск параллелится внутри ParallelSearch),
+// результат передаётся в поток событий через SwingUtilities.invokeLater.
+// Отмена кооперативная: номер поколения увеличивается, поиск останавливается,
+// а результат устаревшей задачи отбрасывается. Метка остановки берётся при постановке задачи,
+// поэтому отмена не теряется, даже если поиск ещё не начался
+public class EngineExecutor {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkers-engine");
+        thread.setDaemon(true);
+        // Перерисовка доски важнее поиска
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    // Игрок, который ищет ход сейчас (доступ только из потока событий)
+    private ComputerPlayer running;
+
+    // Поиск хода для копии позиции; onResult вызывается в потоке событий, если задачу не отменили.
+    // Новая задача отменяет предыдущую
+    public void submit(ComputerPlayer player, Position position, boolean white, long timeMs,
+                       Consumer<SearchResult> onResult) {
+        cancel();
+        long id = generation.get();
+        long stopMark = player.stopMark();
+        Position snapshot = position.copy();
+        running = player;
+        executor.execute(() -> {
+            if (generation.get() != id) {
+                return;
+            }
+            SearchResult result = player.findMove(snapshot, white, timeMs, stopMark);
+            SwingUtilities.invokeLater(() -> {
+                if (generation.get() == id) {
+                    running = null;
+                    onResult.accept(result);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        if (running != null) {
+            running.stop();
+            running = null;
+        }
+    }
+
+    // Игрок закрывается в потоке поиска после завершения его текущей задачи
+    public void release(ComputerPlayer player) {
+        executor.execute(player::close);
+    }
+}
@@ -1,17 +1,20 @@
 package checkers.game;
 
 import checkers.classes.*;
+import checkers.datas.WindowBounds;
 import checkers.enums.CheckerType;
 import checkers.enums.GameState;
+import checkers.enums.PieceColor;
 import checkers.enums.PlayerType;
 import checkers.json.JsonHelper;
+import checkers.json.JsonWriter;
 
-import java.awt.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 import java.util.List;
-import javax.swing.*;
 
 public class Game {
     private Board board;
@@ -21,10 +24,30 @@ public class Game {
     private GameSettings settings;
     private List<MoveRecord> moveHistory = new ArrayList<>();
     private GameRules rules;
-    private Rectangle windowBounds;
+    private final MoveGenerator generator;
+    // Кэш допустимых ходов текущей позиции
+    private final MoveList legalMoves = new MoveList();
+    private boolean legalMovesValid;
+    // Записи для отмены ходов, синхронны с moveHistory
+    private final UndoStack undoStack = new UndoStack();
+    // Часть ключа позиции, отвечающая за сторону хода
+    private long sideKey;
+    private WindowBounds windowBounds;
+    // Позиция, с которой сыграны ходы undoStack (для двоичного сохранения)
+    private final Position startPosition = new Position();
+    private boolean startWhiteToMove = true;
+    // Журнал ходов автосохранения, если партия текущая в окне (см. startJournal)
+    private GameJournal journal;
 
     private static final String SAVE_DIR = "saves";
-    private static final String SAVE_FILE = "checkers_save.json";
+    private static final String SAVE_FILE = "checkers_save.bin";
+    // Автосохранение текущей партии: снимок и журнал ходов, отдельно от сохранения пользователя
+    private static final String AUTOSAVE_FILE = "checkers_autosave.bin";
+    private static final String JOURNAL_FILE = "checkers_autosave.journal";
+    // Сколько ждать архив истории, занятый другим процессом
+    private static final long ARCHIVE_WAIT_MS = 1000;
+    // Сохранения прежних версий
+    private static final String JSON_SAVE_FILE = "checkers_save.json";
 
     public Game(GameSettings settings) {
         this.settings = settings;
@@ -33,13 +56,16 @@ public class Game {
                         ? GameRules.RuleType.RUSSIAN
                         : GameRules.RuleType.SPANISH
         );
+        this.generator = new MoveGenerator(rules);
         this.board = new Board();
+        board.getPosition().setTable(PieceSquareTable.forVariant(settings.getVariant()));
         this.players = new Player[] {
-                new Player(Color.WHITE, PlayerType.HUMAN, "Белые"),
-                new Player(Color.BLACK, PlayerType.HUMAN, "Черные")
+                new Player(PieceColor.WHITE, PlayerType.HUMAN, "Белые"),
+                new Player(PieceColor.BLACK, settings.getBlackPlayerType(), "Черные")
         };
         this.currentPlayer = players[0];
         this.gameState = GameState.IN_PROGRESS;
+        startPosition.set(board.getPosition());
     }
 
     // Специальный конструктор для загрузки без создания начальных шашек
@@ -50,103 +76,166 @@ public class Game {
                         ? GameRules.RuleType.RUSSIAN
                         : GameRules.RuleType.SPANISH
         );
+        this.generator = new MoveGenerator(rules);
         // Создаем пустую доску без начальных шашек
-        this.board = createEmptyBoard();
+        this.board = new Board(true);
+        board.getPosition().setTable(PieceSquareTable.forVariant(settings.getVariant()));
         this.players = new Player[] {
-                new Player(Color.WHITE, PlayerType.HUMAN, "Белые"),
-                new Player(Color.BLACK, PlayerType.HUMAN, "Черные")
+                new Player(PieceColor.WHITE, PlayerType.HUMAN, "Белые"),
+                new Player(PieceColor.BLACK, settings.getBlackPlayerType(), "Черные")
         };
         this.currentPlayer = players[0];
         this.gameState = GameState.IN_PROGRESS;
     }
 
-    // Создание пустой доски без шашек
-    private Board createEmptyBoard() {
-        Board emptyBoard = new Board();
-        // Удаляем все шашки, созданные конструктором Board
-        List<Checker> checkersToRemove = new ArrayList<>(emptyBoard.getCheckers());
-        for (Checker checker : checkersToRemove) {
-            Cell cell = checker.getCell();
-            if (cell != null) {
-                cell.removeChecker();
-            }
-        }
-        emptyBoard.getCheckers().clear();
-        return emptyBoard;
-    }
-
     // Геттеры
     public Board getBoard() { return board; }
     public Player getCurrentPlayer() { return currentPlayer; }
     public GameState getGameState() { return gameState; }
     public List<MoveRecord> getMoveHistory() { return new ArrayList<>(moveHistory); }
     public GameSettings getSettings() { return settings; }
-    public Rectangle getWindowBounds() { return windowBounds; }
+    public GameRules getRules() { return rules; }
+    public WindowBounds getWindowBounds() { return windowBounds; }
 
-    public void setWindowBounds(Rectangle bounds) {
+    public void setWindowBounds(WindowBounds bounds) {
         this.windowBounds = bounds;
     }
 
-    // Сохранение игры в JSON формате
+    void setGameState(GameState gameState) {
+        this.gameState = gameState;
+    }
+
+    // Начальная позиция и сыгранные с неё ходы (упакованный ход и маска побитых)
+    Position getStartPosition() { return startPosition; }
+    boolean isStartWhiteToMove() { return startWhiteToMove; }
+    int getPlayedMoves() { return undoStack.size(); }
+    int getPlayedMove(int index) { return undoStack.getMove(index); }
+    int getPlayedCaptured(int index) { return undoStack.getCaptured(index); }
+
+    void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    // Ходы партии дописываются в журнал автосохранения, с периодическими снимками;
+    // после сбоя recoverJournal() восстанавливает партию по снимку и журналу
+    public void startJournal() {
+        try {
+            Files.createDirectories(Paths.get(SAVE_DIR));
+            new GameJournal(Paths.get(SAVE_DIR, AUTOSAVE_FILE), Paths.get(SAVE_DIR, JOURNAL_FILE)).attach(this);
+        } catch (IOException e) {
+            System.err.println("Журнал ходов недоступен: " + e.getMessage());
+        }
+    }
+
+    public void closeJournal() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // Штатный выход: партия сохранена пользователю, автосохранение удаляется
+    public void discardJournal() {
+        if (journal != null) {
+            journal.discard();
+        }
+    }
+
+    // Партия из автосохранения, если прошлый запуск завершился аварийно (журнал не удалён); иначе null
+    public static Game recoverJournal() {
+        Path journalFile = Paths.get(SAVE_DIR, JOURNAL_FILE);
+        if (!Files.exists(journalFile)) {
+            return null;
+        }
+        try {
+            Game game = GameJournal.recover(Paths.get(SAVE_DIR, AUTOSAVE_FILE), journalFile);
+            System.out.println("Партия восстановлена после аварийного завершения: " + journalFile.toAbsolutePath());
+            return game;
+        } catch (IOException e) {
+            System.err.println("Ошибка восстановления партии: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Сохранение игры пользователя в двоичном формате (см. BinaryGameFormat)
     public void saveGame() {
+        saveGame(Paths.get(SAVE_DIR, SAVE_FILE));
+    }
+
+    // Формат выбирается по расширению: .json - прежний JSON, иначе двоичный
+    public void saveGame(Path file) {
+        if (file.getFileName().toString().endsWith(".json")) {
+            saveJson(file);
+            return;
+        }
         try {
-            // Создаем директорию для сохранений
-            Path dir = Paths.get(SAVE_DIR);
-            Files.createDirectories(dir);
-            Path file = dir.resolve(SAVE_FILE);
-
-            // Собираем данные для сохранения
-            Map<String, Object> saveData = new HashMap<>();
-
-            // Сохраняем настройки
-            Map<String, Object> settingsData = new HashMap<>();
-            settingsData.put("variant", settings.getVariant().name());
-            settingsData.put("locale", settings.getLocale().getLanguage());
-            settingsData.put("cellSize", settings.getCellSize());
-            saveData.put("settings", settingsData);
-
-            // Сохраняем состояние игры
-            saveData.put("gameState", gameState.name());
-            saveData.put("currentPlayer", currentPlayer.getColor() == Color.WHITE ? "WHITE" : "BLACK");
-
-            // Сохраняем размер окна
-            if (windowBounds != null) {
-                Map<String, Integer> windowData = new HashMap<>();
-                windowData.put("x", windowBounds.x);
-                windowData.put("y", windowBounds.y);
-                windowData.put("width", windowBounds.width);
-                windowData.put("height", windowBounds.height);
-                saveData.put("window", windowData);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
             }
+            BinaryGameFormat.write(this, file);
+            System.out.println("Игра сохранена: " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Ошибка сохранения: " + e.getMessage());
+        }
+    }
 
-            // Сохраняем шашки
-            List<Map<String, Object>> checkersData = new ArrayList<>();
-            System.out.println("Сохранение шашек: " + board.getCheckers().size());
-            for (Checker checker : board.getCheckers()) {
-                Cell cell = checker.getCell();
-                Map<String, Object> checkerData = new HashMap<>();
-                checkerData.put("color", checker.getColor() == Color.WHITE ? "WHITE" : "BLACK");
-                checkerData.put("type", checker.getType().name());
-                checkerData.put("x", cell.getX());
-                checkerData.put("y", cell.getY());
-                checkersData.add(checkerData);
-                System.out.println("  Сохранена шашка: " + checker.getColor() + " " + checker.getType() +
-                        " на [" + cell.getX() + "," + cell.getY() + "]");
+    // Сохранение игры в JSON формате
+    private void saveJson(Path file) {
+        try {
+            // Создаем директорию для сохранений
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
             }
-            saveData.put("checkers", checkersData);
 
-            // Сохраняем историю ходов (упрощенно)
-            List<String> historyData = new ArrayList<>();
-            for (MoveRecord record : moveHistory) {
-                historyData.add(record.toString());
-            }
-            saveData.put("history", historyData);
+            // Пишем поля сразу в файл, без промежуточных коллекций и строк
+            try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(file))) {
+                json.beginObject();
+
+                // Сохраняем настройки
+                json.name("settings").beginObject()
+                        .name("variant").value(settings.getVariant().name())
+                        .name("locale").value(settings.getLocale().getLanguage())
+                        .name("cellSize").value(settings.getCellSize())
+                        .name("blackPlayer").value(settings.getBlackPlayerType().name())
+                        .name("engineTime").value(settings.getEngineTimeMs())
+                        .name("engineThreads").value(settings.getEngineThreads())
+                        .name("ponder").value(settings.isPonder())
+                        .endObject();
+
+                // Сохраняем состояние игры
+                json.name("gameState").value(gameState.name());
+                json.name("currentPlayer").value(currentPlayer.getColor().name());
+
+                // Сохраняем размер окна
+                if (windowBounds != null) {
+                    json.name("window").beginObject()
+                            .name("x").value(windowBounds.getX())
+                            .name("y").value(windowBounds.getY())
+                            .name("width").value(windowBounds.getWidth())
+                            .name("height").value(windowBounds.getHeight())
+                            .endObject();
+                }
+
+                // Сохраняем шашки
+                json.name("checkers").beginArray();
+                for (Checker checker : board.getCheckers()) {
+                    Cell cell = checker.getCell();
+                    json.beginObject()
+                            .name("color").value(checker.getColor().name())
+                            .name("type").value(checker.getType().name())
+                            .name("x").value(cell.getX())
+                            .name("y").value(cell.getY())
+                            .endObject();
+                }
+                json.endArray();
 
-            // Конвертируем в JSON и сохраняем
-            String json = JsonHelper.toJson(saveData);
+                // Сохраняем историю ходов (упрощенно)
+                json.name("history").beginArray();
+                for (MoveRecord record : moveHistory) {
+                    json.value(record.toString());
+                }
+                json.endArray();
 
-            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
-                writer.println(json);
+                json.endObject();
             }
 
             System.out.println("Игра сохранена в JSON: " + file.toAbsolutePath());
@@ -157,20 +246,45 @@ public class Game {
         }
     }
 
-    // Загрузка игры из JSON файла
+    // Загрузка сохранённой игры пользователя; если двоичного сохранения нет, читается JSON прежних версий
     public static Game loadGame() {
         Path file = Paths.get(SAVE_DIR, SAVE_FILE);
+        return loadGame(Files.exists(file) ? file : Paths.get(SAVE_DIR, JSON_SAVE_FILE));
+    }
+
+    // Формат определяется по содержимому: двоичный по сигнатуре, иначе JSON
+    public static Game loadGame(Path file) {
         if (!Files.exists(file)) {
             System.out.println("Файл сохранения не найден: " + file.toAbsolutePath());
             return null;
         }
 
+        ByteBuffer data;
+        try {
+            data = BinaryGameFormat.readFile(file);
+        } catch (IOException e) {
+            System.err.println("Ошибка чтения сохранения: " + e.getMessage());
+            return null;
+        }
+        if (!BinaryGameFormat.isBinary(data)) {
+            return loadJson(file, new InputStreamReader(
+                    new ByteArrayInputStream(data.array(), 0, data.limit()), StandardCharsets.UTF_8));
+        }
         try {
-            // Читаем весь файл
-            String json = new String(Files.readAllBytes(file));
+            Game game = BinaryGameFormat.decode(data);
+            System.out.println("Игра загружена: " + file.toAbsolutePath());
+            return game;
+        } catch (IOException e) {
+            System.err.println("Ошибка загрузки игры: " + e.getMessage());
+            return null;
+        }
+    }
 
-            // Парсим JSON (упрощенный парсинг)
-            Map<String, Object> data = parseJson(json);
+    // Загрузка игры из JSON
+    private static Game loadJson(Path file, Reader json) {
+        try {
+            // Парсим JSON за один проход
+            Map<String, Object> data = JsonHelper.asObject(JsonHelper.parse(json));
             if (data == null) {
                 System.err.println("Неверный формат JSON файла");
                 return null;
@@ -178,7 +292,7 @@ public class Game {
 
             // Восстанавливаем настройки
             GameSettings settings = new GameSettings();
-            Map<String, Object> settingsData = (Map<String, Object>) data.get("settings");
+            Map<String, Object> settingsData = JsonHelper.asObject(data.get("settings"));
             if (settingsData != null) {
                 String variant = (String) settingsData.get("variant");
                 settings.setVariant(GameSettings.Variant.valueOf(variant));
@@ -194,6 +308,24 @@ public class Game {
 
                 Number cellSize = (Number) settingsData.get("cellSize");
                 settings.setCellSize(cellSize.intValue());
+
+                // Поля компьютерного игрока есть не во всех сохранениях
+                String blackPlayer = (String) settingsData.get("blackPlayer");
+                if (blackPlayer != null) {
+                    settings.setBlackPlayerType(PlayerType.valueOf(blackPlayer));
+                }
+                Number engineTime = (Number) settingsData.get("engineTime");
+                if (engineTime != null) {
+                    settings.setEngineTimeMs(engineTime.intValue());
+                }
+                Number engineThreads = (Number) settingsData.get("engineThreads");
+                if (engineThreads != null) {
+                    settings.setEngineThreads(engineThreads.intValue());
+                }
+                Boolean ponder = (Boolean) settingsData.get("ponder");
+                if (ponder != null) {
+                    settings.setPonder(ponder);
+                }
             }
 
             // Создаем игру с пустой доской
@@ -208,45 +340,41 @@ public class Game {
 
             String currentPlayerStr = (String) data.get("currentPlayer");
             if (currentPlayerStr != null) {
-                game.currentPlayer = "WHITE".equals(currentPlayerStr) ? game.players[0] : game.players[1];
+                game.setCurrentPlayer("WHITE".equals(currentPlayerStr) ? game.players[0] : game.players[1]);
                 System.out.println("Загружен текущий игрок: " + currentPlayerStr);
             }
 
             // Восстанавливаем размер окна
-            Map<String, Object> windowData = (Map<String, Object>) data.get("window");
+            Map<String, Object> windowData = JsonHelper.asObject(data.get("window"));
             if (windowData != null) {
                 int x = ((Number) windowData.get("x")).intValue();
                 int y = ((Number) windowData.get("y")).intValue();
                 int width = ((Number) windowData.get("width")).intValue();
                 int height = ((Number) windowData.get("height")).intValue();
-                game.windowBounds = new Rectangle(x, y, width, height);
+                game.windowBounds = new WindowBounds(x, y, width, height);
                 System.out.println("Загружен размер окна: " + x + "," + y + "," + width + "," + height);
             }
 
             // Восстанавливаем шашки
-            List<Map<String, Object>> checkersData = (List<Map<String, Object>>) data.get("checkers");
+            List<Object> checkersData = JsonHelper.asArray(data.get("checkers"));
             if (checkersData != null) {
                 System.out.println("Загружаем шашек: " + checkersData.size());
-                for (Map<String, Object> checkerData : checkersData) {
+                for (Object item : checkersData) {
+                    Map<String, Object> checkerData = JsonHelper.asObject(item);
+                    if (checkerData == null) {
+                        throw new IOException("Шашка записана не объектом: " + item);
+                    }
                     String colorStr = (String) checkerData.get("color");
                     String typeStr = (String) checkerData.get("type");
                     int x = ((Number) checkerData.get("x")).intValue();
                     int y = ((Number) checkerData.get("y")).intValue();
 
-                    Color color = "WHITE".equals(colorStr) ? Color.WHITE : Color.BLACK;
+                    PieceColor color = "WHITE".equals(colorStr) ? PieceColor.WHITE : PieceColor.BLACK;
                     CheckerType type = CheckerType.valueOf(typeStr);
 
-                    Cell cell = game.board.getCell(x, y);
-                    if (cell != null) {
+                    Checker checker = game.board.placeChecker(color, type, x, y);
+                    if (checker != null) {
                         System.out.println("Создаем шашку: " + colorStr + " " + typeStr + " на [" + x + "," + y + "]");
-
-                        // СОЗДАЕМ шашку и ДОБАВЛЯЕМ в список
-                        Checker checker = new Checker(color, cell);
-                        game.board.getCheckers().add(checker); // ВАЖНО: добавляем в список!
-
-                        if (type == CheckerType.KING) {
-                            checker.promoteToKing();
-                        }
                     } else {
                         System.err.println("Ошибка: ячейка не найдена [" + x + "," + y + "]");
                     }
@@ -254,15 +382,15 @@ public class Game {
             }
 
             // Проверяем результат
-            System.out.println("Всего загружено шашек: " + game.board.getCheckers().size());
+            System.out.println("Всего загружено шашек: " + Integer.bitCount(game.board.getPosition().getOccupied()));
 
             // Проверяем состояние игры
             if (game.gameState == GameState.WHITE_WIN || game.gameState == GameState.BLACK_WIN) {
                 System.out.println("Игра уже завершена: " + game.gameState);
             } else {
                 // Проверяем, есть ли шашки у игроков
-                int whiteCount = game.board.getCheckersByColor(Color.WHITE).size();
-                int blackCount = game.board.getCheckersByColor(Color.BLACK).size();
+                int whiteCount = game.board.getPosition().count(true);
+                int blackCount = game.board.getPosition().count(false);
                 System.out.println("Белых шашек: " + whiteCount + ", черных: " + blackCount);
 
                 if (whiteCount == 0 || blackCount == 0) {
@@ -271,6 +399,10 @@ public class Game {
                 }
             }
 
+            // Ходы в JSON не сохраняются: партия продолжается с загруженной позиции
+            game.startPosition.set(game.board.getPosition());
+            game.startWhiteToMove = game.isWhiteToMove();
+
             System.out.println("Игра загружена из JSON: " + file.toAbsolutePath());
             return game;
 
@@ -281,132 +413,23 @@ public class Game {
         }
     }
 
-    // Простой парсер JSON (остается без изменений)
-    private static Map<String, Object> parseJson(String json) {
-        // Упрощенный парсинг для нашего формата
-        json = json.trim();
-        if (!json.startsWith("{") || !json.endsWith("}")) {
-            return null;
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        json = json.substring(1, json.length() - 1).trim();
-
-        // Разбиваем на пары ключ:значение
-        String[] pairs = splitJsonPairs(json);
-        for (String pair : pairs) {
-            String[] keyValue = pair.split(":", 2);
-            if (keyValue.length == 2) {
-                String key = keyValue[0].trim().replaceAll("^\"|\"$", "");
-                String value = keyValue[1].trim();
-                result.put(key, parseJsonValue(value));
-            }
-        }
-
-        return result;
-    }
-
-    private static String[] splitJsonPairs(String json) {
-        List<String> pairs = new ArrayList<>();
-        int depth = 0;
-        StringBuilder current = new StringBuilder();
-
-        for (char c : json.toCharArray()) {
-            if (c == '{' || c == '[') depth++;
-            else if (c == '}' || c == ']') depth--;
-            else if (c == ',' && depth == 0) {
-                pairs.add(current.toString());
-                current = new StringBuilder();
-                continue;
-            }
-            current.append(c);
-        }
-
-        if (current.length() > 0) {
-            pairs.add(current.toString());
-        }
-
-        return pairs.toArray(new String[0]);
-    }
-
-    private static Object parseJsonValue(String value) {
-        value = value.trim();
-
-        if (value.startsWith("\"")) {
-            // Строка
-            return value.substring(1, value.length() - 1).replace("\\\"", "\"");
-        } else if (value.equals("true") || value.equals("false")) {
-            // Boolean
-            return Boolean.valueOf(value);
-        } else if (value.equals("null")) {
-            // Null
+    // Разбор JSON-объекта в Map (открыт для бенчмарков); null, если это не объект или JSON неверный
+    public static Map<String, Object> parseJson(String json) {
+        try {
+            return JsonHelper.asObject(JsonHelper.parse(json));
+        } catch (IOException e) {
             return null;
-        } else if (value.startsWith("{")) {
-            // Объект
-            return parseJson(value);
-        } else if (value.startsWith("[")) {
-            // Массив
-            return parseJsonArray(value);
-        } else {
-            // Число
-            try {
-                if (value.contains(".")) {
-                    return Double.parseDouble(value);
-                } else {
-                    return Integer.parseInt(value);
-                }
-            } catch (NumberFormatException e) {
-                return value;
-            }
-        }
-    }
-
-    private static List<Object> parseJsonArray(String arrayStr) {
-        List<Object> result = new ArrayList<>();
-        arrayStr = arrayStr.substring(1, arrayStr.length() - 1).trim();
-
-        if (arrayStr.isEmpty()) {
-            return result;
         }
-
-        String[] items = splitJsonArray(arrayStr);
-        for (String item : items) {
-            result.add(parseJsonValue(item.trim()));
-        }
-
-        return result;
-    }
-
-    private static String[] splitJsonArray(String arrayStr) {
-        List<String> items = new ArrayList<>();
-        int depth = 0;
-        StringBuilder current = new StringBuilder();
-
-        for (char c : arrayStr.toCharArray()) {
-            if (c == '{' || c == '[') depth++;
-            else if (c == '}' || c == ']') depth--;
-            else if (c == ',' && depth == 0) {
-                items.add(current.toString());
-                current = new StringBuilder();
-                continue;
-            }
-            current.append(c);
-        }
-
-        if (current.length() > 0) {
-            items.add(current.toString());
-        }
-
-        return items.toArray(new String[0]);
     }
 
     // Удаление сохранения
     public void deleteSave() {
         try {
-            Path file = Paths.get(SAVE_DIR, SAVE_FILE);
-            if (Files.exists(file)) {
-                Files.delete(file);
-                System.out.println("Сохранение JSON удалено: " + file.toAbsolutePath());
+            for (String name : new String[] {SAVE_FILE, JSON_SAVE_FILE}) {
+                Path file = Paths.get(SAVE_DIR, name);
+                if (Files.deleteIfExists(file)) {
+                    System.out.println("Сохранение удалено: " + file.toAbsolutePath());
+                }
             }
         } catch (IOException e) {
             System.err.println("Ошибка удаления сохранения: " + e.getMessage());
@@ -415,7 +438,7 @@ public class Game {
 
     // Проверка существования сохранения
     public static boolean saveExists() {
-        return Files.exists(Paths.get(SAVE_DIR, SAVE_FILE));
+        return Files.exists(Paths.get(SAVE_DIR, SAVE_FILE)) || Files.exists(Paths.get(SAVE_DIR, JSON_SAVE_FILE));
     }
 
     // Остальные методы без изменений...
@@ -424,267 +447,267 @@ public class Game {
         if (checker.getColor() != currentPlayer.getColor()) {
             return validMoves;
         }
-        boolean mustCapture = mustCaptureExists();
-        if (mustCapture) {
-            validMoves.addAll(getCaptureMoves(checker));
-        } else {
-            validMoves.addAll(getNormalMoves(checker));
+        int from = checker.getSquare();
+        MoveList moves = getLegalMoves();
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.from(moves.get(i)) == from) {
+                validMoves.add(board.getCell(Move.to(moves.get(i))));
+            }
         }
         return validMoves;
     }
 
-    private boolean mustCaptureExists() {
-        for (Checker checker : board.getCheckersByColor(currentPlayer.getColor())) {
-            if (!getCaptureMoves(checker).isEmpty()) {
-                return true;
-            }
+    // Допустимые ходы текущей позиции: считаются один раз на позицию и сбрасываются только в makeMove.
+    // Возвращаемый буфер принадлежит Game - изменять его нельзя
+    public MoveList getLegalMoves() {
+        if (!legalMovesValid) {
+            generator.generate(board.getPosition(), isWhiteToMove(), legalMoves);
+            legalMovesValid = true;
         }
-        return false;
-    }
-
-    private List<Cell> getNormalMoves(Checker checker) {
-        List<Cell> moves = new ArrayList<>();
-        int x = checker.getCell().getX();
-        int y = checker.getCell().getY();
-
-        if (checker.getType() == CheckerType.KING &&
-                settings.getVariant() == GameSettings.Variant.RUSSIAN) {
-            int[][] dirs = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-            for (int[] dir : dirs) {
-                int step = 1;
-                while (true) {
-                    int nx = x + dir[0] * step;
-                    int ny = y + dir[1] * step;
-                    Cell cell = board.getCell(nx, ny);
-                    if (cell == null || !cell.isEmpty()) break;
-                    moves.add(cell);
-                    step++;
-                }
-            }
-        } else {
-            int[][] directions = getDirections(checker);
-            for (int[] dir : directions) {
-                int nx = x + dir[0];
-                int ny = y + dir[1];
-                Cell cell = board.getCell(nx, ny);
-                if (cell != null && cell.isEmpty()) {
-                    moves.add(cell);
-                }
-            }
-        }
-        return moves;
-    }
-
-    private void findCaptureMoves(Checker checker, Cell currentCell, List<Cell> captureMoves, List<Checker> capturedCheckers) {
-        int x = currentCell.getX();
-        int y = currentCell.getY();
-
-        if (checker.getType() == CheckerType.KING && rules.canKingMoveMultipleSteps()) {
-            int[][] dirs = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-            for (int[] dir : dirs) {
-                int step = 1;
-                while (true) {
-                    int ex = x + dir[0] * step;
-                    int ey = y + dir[1] * step;
-                    Cell enemyCell = board.getCell(ex, ey);
-                    if (enemyCell == null) break;
-                    if (enemyCell.hasChecker()) {
-                        if (enemyCell.getChecker().getColor() == checker.getColor() ||
-                                capturedCheckers.contains(enemyCell.getChecker())) {
-                            break;
-                        }
-                        int jump = 1;
-                        while (true) {
-                            int tx = x + dir[0] * (step + jump);
-                            int ty = y + dir[1] * (step + jump);
-                            Cell targetCell = board.getCell(tx, ty);
-                            if (targetCell == null) break;
-                            if (targetCell.isEmpty()) {
-                                captureMoves.add(targetCell);
-                                List<Checker> newCaptured = new ArrayList<>(capturedCheckers);
-                                newCaptured.add(enemyCell.getChecker());
-                                findCaptureMoves(checker, targetCell, captureMoves, newCaptured);
-                                jump++;
-                            } else {
-                                break;
-                            }
-                        }
-                        break;
-                    }
-                    step++;
+        return legalMoves;
+    }
+
+    // Все допустимые ходы текущего игрока в виде упакованных int (см. Move) без выделения памяти
+    public int generateMoves(MoveList moves) {
+        moves.copyFrom(getLegalMoves());
+        return moves.size();
+    }
+
+    public MoveGenerator getMoveGenerator() {
+        return generator;
+    }
+
+    public boolean isWhiteToMove() {
+        return currentPlayer.getColor() == PieceColor.WHITE;
+    }
+
+    // Маски побитых шашек у допустимых ходов checker на targetCell, без повторов.
+    // Больше одной маски - к клетке ведут разные цепочки взятий, игрок должен выбрать одну
+    public int[] getCaptureChoices(Checker checker, Cell targetCell) {
+        int from = checker.getSquare();
+        int to = targetCell.getSquare();
+        MoveList moves = getLegalMoves();
+        int[] choices = new int[moves.size()];
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == from && Move.to(move) == to) {
+                int captured = moves.getCaptured(i);
+                boolean seen = false;
+                for (int j = 0; j < count && !seen; j++) {
+                    seen = choices[j] == captured;
                 }
-            }
-        } else {
-            int[][] dirs = (checker.getType() == CheckerType.KING)
-                    ? new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}
-                    : rules.getDirectionsForCapture(checker.getColor());
-
-            for (int[] dir : dirs) {
-                int ex = x + dir[0];
-                int ey = y + dir[1];
-                Cell enemyCell = board.getCell(ex, ey);
-                int tx = x + 2 * dir[0];
-                int ty = y + 2 * dir[1];
-                Cell targetCell = board.getCell(tx, ty);
-
-                if (enemyCell != null && targetCell != null &&
-                        enemyCell.hasChecker() &&
-                        enemyCell.getChecker().getColor() != checker.getColor() &&
-                        targetCell.isEmpty() &&
-                        !capturedCheckers.contains(enemyCell.getChecker())) {
-
-                    captureMoves.add(targetCell);
-                    List<Checker> newCaptured = new ArrayList<>(capturedCheckers);
-                    newCaptured.add(enemyCell.getChecker());
-                    findCaptureMoves(checker, targetCell, captureMoves, newCaptured);
+                if (!seen) {
+                    choices[count++] = captured;
                 }
             }
         }
+        return Arrays.copyOf(choices, count);
     }
 
-    private List<Cell> getCaptureMoves(Checker checker) {
-        List<Cell> captureMoves = new ArrayList<>();
-        findCaptureMoves(checker, checker.getCell(), captureMoves, new ArrayList<>());
-        return captureMoves;
+    // Ход на targetCell; если туда ведут цепочки взятий с разными побитыми шашками,
+    // нужно указать выбранную через makeMove(checker, targetCell, capturedMask)
+    public void makeMove(Checker checker, Cell targetCell) {
+        int[] choices = getCaptureChoices(checker, targetCell);
+        if (choices.length > 1) {
+            throw new IllegalArgumentException("Неоднозначное взятие на " + Move.squareName(targetCell.getSquare())
+                    + ": нужно указать побитые шашки");
+        }
+        if (choices.length == 1) {
+            makeMove(checker, targetCell, choices[0]);
+        }
     }
 
-    private int[][] getDirections(Checker checker) {
-        if (checker.getType() == CheckerType.KING) {
-            return new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        } else {
-            if (checker.isWhite()) {
-                return new int[][]{{1, -1}, {-1, -1}};
-            } else {
-                return new int[][]{{1, 1}, {-1, 1}};
+    // Ход на targetCell с заданной маской побитых шашек (одна из getCaptureChoices)
+    public void makeMove(Checker checker, Cell targetCell, int capturedMask) {
+        int from = checker.getSquare();
+        int to = targetCell.getSquare();
+        MoveList moves = getLegalMoves();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == from && Move.to(move) == to && moves.getCaptured(i) == capturedMask) {
+                makeMove(move, capturedMask);
+                return;
             }
         }
     }
 
-    public void makeMove(Checker checker, Cell targetCell) {
-        Cell fromCell = checker.getCell();
-        boolean isCapture = isCaptureMove(fromCell, targetCell);
+    // Выполнение хода, полученного из generateMoves: взятие выполняется целиком,
+    // побитые шашки снимаются с доски после последнего прыжка
+    public void makeMove(int move, int capturedMask) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean isCapture = Move.isCapture(move);
 
+        undoStack.push(move, capturedMask, capturedMask & board.getPosition().getKings(),
+                isWhiteToMove(), gameState);
         moveHistory.add(new MoveRecord(
                 currentPlayer.getColor(),
-                fromCell.getX(), fromCell.getY(),
-                targetCell.getX(), targetCell.getY(),
+                Bitboard.x(from), Bitboard.y(from),
+                Bitboard.x(to), Bitboard.y(to),
                 isCapture
         ));
 
-        board.moveChecker(checker, targetCell);
+        board.moveChecker(from, to);
 
-        if (isCapture) {
-            List<Checker> captured = findCapturedCheckers(checker, fromCell, targetCell);
-            for (Checker c : captured) {
-                board.removeChecker(c);
-            }
+        while (capturedMask != 0) {
+            board.removeChecker(Integer.numberOfTrailingZeros(capturedMask));
+            capturedMask &= capturedMask - 1;
         }
 
-        checkPromotion(checker);
-
-        if (isCapture && canContinueCapture(checker)) {
-            return;
+        if (Move.isPromotion(move)) {
+            board.promoteToKing(to);
         }
 
+        legalMovesValid = false;
         switchPlayer();
         checkGameOver();
+        if (journal != null) {
+            journal.moveMade(undoStack.size() - 1, move, undoStack.getCaptured());
+        }
     }
 
-    private boolean isCaptureMove(Cell from, Cell to) {
-        return Math.abs(from.getX() - to.getX()) == 2 &&
-                Math.abs(from.getY() - to.getY()) == 2;
+    // Отмена последнего хода: возвращает шашку, снимает превращение, восстанавливает
+    // побитые шашки, сторону хода и состояние игры. Возвращает false, если отменять нечего
+    public boolean unmakeMove() {
+        if (undoStack.isEmpty()) {
+            return false;
+        }
+        int move = undoStack.getMove();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean moverWhite = undoStack.wasWhiteToMove();
+
+        if (Move.isPromotion(move)) {
+            board.demoteKing(to);
+        }
+        board.moveChecker(to, from);
+
+        int captured = undoStack.getCaptured();
+        int capturedKings = undoStack.getCapturedKings();
+        while (captured != 0) {
+            int sq = Integer.numberOfTrailingZeros(captured);
+            board.placeChecker(sq, !moverWhite, (capturedKings & (1 << sq)) != 0);
+            captured &= captured - 1;
+        }
+
+        setCurrentPlayer(moverWhite ? players[0] : players[1]);
+        gameState = undoStack.getGameState();
+        moveHistory.remove(moveHistory.size() - 1);
+        undoStack.pop();
+        legalMovesValid = false;
+        if (journal != null) {
+            journal.moveUndone(undoStack.size());
+        }
+        return true;
     }
 
-    private void checkPromotion(Checker checker) {
-        int y = checker.getCell().getY();
-        if (checker.getType() == CheckerType.REGULAR) {
-            if ((checker.isWhite() && y == 0) || (checker.isBlack() && y == 7)) {
-                board.promoteToKing(checker);
-            }
+    // Начало игры с произвольной позиции: история и отмена ходов сбрасываются
+    public void setPosition(Position position, boolean whiteToMove) {
+        board.getPosition().set(position);
+        startPosition.set(position);
+        startWhiteToMove = whiteToMove;
+        setCurrentPlayer(whiteToMove ? players[0] : players[1]);
+        moveHistory.clear();
+        undoStack.clear();
+        gameState = GameState.IN_PROGRESS;
+        legalMovesValid = false;
+        checkGameOver();
+        // Записи журнала относятся к прежней начальной позиции
+        if (journal != null) {
+            journal.snapshot();
         }
     }
 
-    private boolean canContinueCapture(Checker checker) {
-        return !getCaptureMoves(checker).isEmpty();
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
     }
 
     private void switchPlayer() {
         currentPlayer = (currentPlayer == players[0]) ? players[1] : players[0];
+        sideKey ^= Zobrist.SIDE;
     }
 
-    private List<Checker> findCapturedCheckers(Checker checker, Cell from, Cell to) {
-        List<Checker> captured = new ArrayList<>();
-        int dx = Integer.signum(to.getX() - from.getX());
-        int dy = Integer.signum(to.getY() - from.getY());
-        int steps = Math.max(Math.abs(to.getX() - from.getX()), Math.abs(to.getY() - from.getY()));
-
-        if (checker.getType() == CheckerType.KING && rules.canKingMoveMultipleSteps()) {
-            for (int i = 1; i < steps; i++) {
-                Cell cell = board.getCell(from.getX() + dx * i, from.getY() + dy * i);
-                if (cell != null && cell.hasChecker() && cell.getChecker().getColor() != checker.getColor()) {
-                    captured.add(cell.getChecker());
-                    break;
-                }
-            }
-        } else {
-            Cell mid = board.getCell((from.getX() + to.getX()) / 2, (from.getY() + to.getY()) / 2);
-            if (mid != null && mid.hasChecker() && mid.getChecker().getColor() != checker.getColor()) {
-                captured.add(mid.getChecker());
-            }
+    private void setCurrentPlayer(Player player) {
+        if (player != currentPlayer) {
+            switchPlayer();
         }
-        return captured;
+    }
+
+    // 64-битный ключ позиции (расположение шашек и сторона хода), обновляется инкрементально
+    public long positionKey() {
+        return board.getPosition().getKey() ^ sideKey;
     }
 
     private void checkGameOver() {
-        List<Checker> currentPlayerCheckers = board.getCheckersByColor(currentPlayer.getColor());
-        if (currentPlayerCheckers.isEmpty()) {
-            gameState = currentPlayer.getColor() == Color.WHITE ? GameState.BLACK_WIN : GameState.WHITE_WIN;
+        boolean white = isWhiteToMove();
+        if (board.getPosition().getPieces(white) == 0) {
+            gameState = white ? GameState.BLACK_WIN : GameState.WHITE_WIN;
             System.out.println("Игра окончена! Победитель: " +
                     (gameState == GameState.WHITE_WIN ? "Белые" : "Черные"));
             return;
         }
 
         // Проверяем, может ли текущий игрок сделать ход
-        if (!canPlayerMove(currentPlayer)) {
-            gameState = currentPlayer.getColor() == Color.WHITE ? GameState.BLACK_WIN : GameState.WHITE_WIN;
+        if (!canPlayerMove()) {
+            gameState = white ? GameState.BLACK_WIN : GameState.WHITE_WIN;
             System.out.println("Игра окончена! Игрок не может сделать ход. Победитель: " +
                     (gameState == GameState.WHITE_WIN ? "Белые" : "Черные"));
         }
     }
 
-    private boolean canPlayerMove(Player player) {
-        for (Checker checker : board.getCheckersByColor(player.getColor())) {
-            if (!getValidMoves(checker).isEmpty()) {
-                return true;
-            }
-        }
-        return false;
+    private boolean canPlayerMove() {
+        return !getLegalMoves().isEmpty();
     }
 
     public boolean isGameOver() {
         return gameState != GameState.IN_PROGRESS;
     }
 
-    // Сохранение истории
-    public void saveHistoryToFile() {
+    // Партия дописывается в архив history/archive (см. GameArchive); возвращает каталог архива.
+    // Сообщение пользователю показывает интерфейс.
+    // Архив может держать другой процесс (турнир, сборка книги): после ARCHIVE_WAIT_MS ожидания
+    // партия откладывается в файл (возвращается он) и переносится в архив при следующей записи
+    public Path saveHistoryToFile() throws IOException {
+        GameArchive archive;
         try {
-            Path dir = Paths.get("history");
-            Files.createDirectories(dir);
-            String filename = "game_" + System.currentTimeMillis() + ".txt";
-            Path file = dir.resolve(filename);
-
-            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
-                writer.println("История игры");
-                String mode = (settings.getVariant() == GameSettings.Variant.RUSSIAN) ? "Русские шашки" : "Испанские шашки";
-                writer.println("Режим: " + mode);
-                writer.println("=".repeat(40));
-                for (int i = 0; i < moveHistory.size(); i++) {
-                    writer.printf("%2d. %s%n", i + 1, moveHistory.get(i));
+            archive = GameArchive.open(GameArchive.DEFAULT_DIR, ARCHIVE_WAIT_MS);
+        } catch (IOException e) {
+            System.err.println(e.getMessage() + ", партия отложена");
+            return GameArchive.savePending(GameArchive.DEFAULT_DIR, this);
+        }
+        try (archive) {
+            archive.append(this);
+            archive.importPending();
+            return archive.getDirectory();
+        }
+    }
+
+    // Запись истории ходов в текстовый файл (формат каталога history): взятие - по строке на прыжок,
+    // как в файлах прежних версий, чтобы путь хода читался однозначно (HistoryFile)
+    public void writeHistory(Path file) throws IOException {
+        Position position = new Position();
+        position.set(startPosition);
+        boolean white = startWhiteToMove;
+        int[] path = new int[32];
+        int line = 0;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("История игры");
+            writer.println("Режим: " + (settings.getVariant() == GameSettings.Variant.RUSSIAN
+                    ? HistoryFile.RUSSIAN_MODE : HistoryFile.SPANISH_MODE));
+            writer.println("=".repeat(40));
+            for (int i = 0; i < getPlayedMoves(); i++) {
+                int move = getPlayedMove(i);
+                int captured = getPlayedCaptured(i);
+                int length = MovePath.of(position, white, move, captured, path);
+                for (int hop = 1; hop < length; hop++) {
+                    writer.printf("%2d. %s%n", ++line, new MoveRecord(white ? PieceColor.WHITE : PieceColor.BLACK,
+                            Bitboard.x(path[hop - 1]), Bitboard.y(path[hop - 1]),
+                            Bitboard.x(path[hop]), Bitboard.y(path[hop]), Move.isCapture(move)));
                 }
+                position.applyMove(Move.from(move), Move.to(move), captured, Move.isPromotion(move));
+                white = !white;
             }
-            JOptionPane.showMessageDialog(null, "История сохранена в:\n" + file.toAbsolutePath());
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Ошибка сохранения: " + e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
         }
     }
 }
\ No newline at end of file
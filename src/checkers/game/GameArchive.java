@@ -0,0 +1,574 @@
+package checkers.game;
+
+import checkers.classes.Bitboard;
+import checkers.classes.Position;
+import checkers.enums.GameState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Архив законченных партий: партии дописываются подряд в файлы-сегменты (до SEGMENT_BYTES каждый),
+// номер партии ведёт через индекс к её сегменту и смещению.
+// Сегмент: MAGIC "CHKA", версия, затем записи партий:
+//   int   длина записи в байтах (вместе с этим полем)
+//   int   CRC32 остатка записи (всё после этого поля)
+//   long  время окончания партии (мс)
+//   byte  вариант правил, byte результат (GameState), byte флаги (START_WHITE, CUSTOM_START), byte резерв
+//   short число полуходов
+//   3 int маски начальной позиции (только с флагом CUSTOM_START)
+//   ходы: short упакованный ход (Move), для взятий - int маска побитых
+// Индекс archive.idx - записи по INDEX_BYTES: int сегмент, int смещение, int длина,
+// byte вариант, byte результат, short полуходов.
+// Запись партии сначала попадает в сегмент и сбрасывается на диск, только потом - в индекс.
+// При открытии записи индекса с конца проверяются по сегменту (границы, длина, CRC, сводка);
+// не сошедшиеся после сбоя отбрасываются, недописанный хвост сегмента отрезается. Просмотр - по отображённым в память сегментам, параллельно
+// по одному сегменту на поток; записи читаются через Entry без создания объектов.
+// Один процесс-писатель: каталог блокируется на время открытия архива. Партии, которые не удалось
+// дописать из-за занятого архива, откладываются в каталог PENDING_DIR (savePending, importPending)
+public class GameArchive implements Closeable {
+    public static final Path DEFAULT_DIR = Paths.get("history", "archive");
+    public static final String INDEX_FILE = "archive.idx";
+    public static final String PENDING_DIR = "pending";
+    static final int MAGIC = 0x43484B41;
+    static final int VERSION = 2;
+    static final int SEGMENT_HEADER_BYTES = 8;
+    static final int SEGMENT_BYTES = 16 << 20;
+    static final int INDEX_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 22;
+    private static final long LOCK_RETRY_MS = 50;
+
+    private static final int START_WHITE = 1;
+    private static final int CUSTOM_START = 2;
+
+    private static final GameState[] STATES = GameState.values();
+    private static final GameSettings.Variant[] VARIANTS = GameSettings.Variant.values();
+
+    private final Path dir;
+    private final FileChannel index;
+    private final FileLock lock;
+    private FileChannel segment;
+    private int segmentNumber;
+    // Конец последней записи текущего сегмента
+    private int segmentEnd;
+    private long size;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final CRC32 crc = new CRC32();
+
+    private GameArchive(Path dir, long waitMs) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        index = FileChannel.open(dir.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long deadline = System.currentTimeMillis() + waitMs;
+        FileLock acquired;
+        while ((acquired = tryLock(index)) == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                index.close();
+                throw new InterruptedIOException("Прервано ожидание архива: " + dir);
+            }
+        }
+        lock = acquired;
+        if (lock == null) {
+            index.close();
+            throw new IOException("Архив используется другим процессом: " + dir);
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // архив уже открыт в этом же процессе
+            return null;
+        }
+    }
+
+    public static GameArchive open(Path dir) throws IOException {
+        return open(dir, 0);
+    }
+
+    // Открытие с ожиданием до waitMs, пока архив держит другой писатель
+    public static GameArchive open(Path dir, long waitMs) throws IOException {
+        GameArchive archive = new GameArchive(dir, waitMs);
+        try {
+            archive.recover();
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    // Записи индекса с конца, не сошедшиеся со своей записью в сегменте, отбрасываются;
+    // последняя целая задаёт текущий сегмент и его конец, всё после неё отрезается
+    private void recover() throws IOException {
+        long entries = index.size() / INDEX_BYTES;
+        size = entries;
+        segmentNumber = 0;
+        segmentEnd = SEGMENT_HEADER_BYTES;
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_BYTES);
+        while (size > 0) {
+            entry.clear();
+            readFully(index, entry, (size - 1) * INDEX_BYTES);
+            if (matches(entry)) {
+                segmentNumber = entry.getInt(0);
+                segmentEnd = entry.getInt(4) + entry.getInt(8);
+                break;
+            }
+            size--;
+        }
+        if (size < entries) {
+            System.err.println("Архив " + dir + ": отброшено повреждённых записей: " + (entries - size));
+        }
+        index.truncate(size * INDEX_BYTES);
+        openSegment(segmentNumber, size == 0);
+        segment.truncate(segmentEnd);
+    }
+
+    // Запись индекса указывает внутрь сегмента на запись той же длины с верной CRC и той же сводкой
+    private boolean matches(ByteBuffer entry) throws IOException {
+        int number = entry.getInt(0);
+        int offset = entry.getInt(4);
+        int length = entry.getInt(8);
+        Path file = segmentFile(number);
+        if (number < 0 || offset < SEGMENT_HEADER_BYTES || length < RECORD_HEADER_BYTES || !Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                // чужой формат не отрезается как повреждение
+                throw new IOException("Неизвестный формат сегмента: " + file);
+            }
+            if ((long) offset + length > channel.size()) {
+                return false;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(channel, record, offset);
+            return record.getInt(0) == length && record.getInt(4) == checksum(new CRC32(), record, 0, length)
+                    && record.get(16) == entry.get(12) && record.get(17) == entry.get(13)
+                    && record.getShort(20) == entry.getShort(14);
+        }
+    }
+
+    // CRC32 записи по смещению offset без полей длины и контрольной суммы
+    private static int checksum(CRC32 crc, ByteBuffer data, int offset, int length) {
+        ByteBuffer view = data.duplicate();
+        view.limit(offset + length).position(offset + 8);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private void openSegment(int number, boolean create) throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+        }
+        segment = FileChannel.open(segmentFile(number), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentNumber = number;
+        if (create || segment.size() < SEGMENT_HEADER_BYTES) {
+            segment.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(segment, header, 0);
+            segmentEnd = SEGMENT_HEADER_BYTES;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            readFully(segment, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Неизвестный формат сегмента: " + segmentFile(number));
+            }
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return dir.resolve(String.format("segment_%06d.dat", number));
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    // Партия с её текущим состоянием как результатом; возвращает номер партии в архиве
+    public long append(Game game) throws IOException {
+        return append(game, game.getGameState(), System.currentTimeMillis());
+    }
+
+    // Результат задаётся явно - например, присуждённая ничья, которой нет в состоянии Game
+    public synchronized long append(Game game, GameState result, long time) throws IOException {
+        int plies = game.getPlayedMoves();
+        Position start = game.getStartPosition();
+        boolean custom = start.getWhite() != Bitboard.INITIAL_WHITE || start.getBlack() != Bitboard.INITIAL_BLACK
+                || start.getKings() != 0 || !game.isStartWhiteToMove();
+        int capacity = RECORD_HEADER_BYTES + 12 + plies * 6;
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putInt(0).putInt(0);
+        buffer.putLong(time);
+        buffer.put((byte) game.getSettings().getVariant().ordinal());
+        buffer.put((byte) result.ordinal());
+        buffer.put((byte) ((game.isStartWhiteToMove() ? START_WHITE : 0) | (custom ? CUSTOM_START : 0)));
+        buffer.put((byte) 0);
+        buffer.putShort((short) plies);
+        if (custom) {
+            buffer.putInt(start.getWhite()).putInt(start.getBlack()).putInt(start.getKings());
+        }
+        for (int i = 0; i < plies; i++) {
+            int move = game.getPlayedMove(i);
+            buffer.putShort((short) move);
+            if (Move.isCapture(move)) {
+                buffer.putInt(game.getPlayedCaptured(i));
+            }
+        }
+        int length = buffer.position();
+        buffer.putInt(0, length);
+        buffer.putInt(4, checksum(crc, buffer, 0, length));
+        buffer.flip();
+
+        if (segmentEnd + length > SEGMENT_BYTES && segmentEnd > SEGMENT_HEADER_BYTES) {
+            openSegment(segmentNumber + 1, true);
+        }
+        int offset = segmentEnd;
+        writeFully(segment, buffer, offset);
+        // индекс не должен указывать на запись, которой ещё нет на диске
+        segment.force(false);
+        segmentEnd += length;
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_BYTES);
+        entry.putInt(segmentNumber).putInt(offset).putInt(length)
+                .put((byte) game.getSettings().getVariant().ordinal()).put((byte) result.ordinal())
+                .putShort((short) plies).flip();
+        writeFully(index, entry, size * INDEX_BYTES);
+        return size++;
+    }
+
+    // Партия по номеру: через индекс к сегменту, запись читается в отдельный буфер
+    public Entry get(long number) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_BYTES);
+        synchronized (this) {
+            if (number < 0 || number >= size) {
+                throw new IndexOutOfBoundsException("Нет партии с номером " + number);
+            }
+            readFully(index, entry, number * INDEX_BYTES);
+        }
+        int length = entry.getInt(8);
+        ByteBuffer record = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(segmentFile(entry.getInt(0)), StandardOpenOption.READ)) {
+            readFully(channel, record, entry.getInt(4));
+        }
+        if (record.getInt(0) != length || record.getInt(4) != checksum(new CRC32(), record, 0, length)) {
+            throw new IOException("Повреждённая партия с номером " + number);
+        }
+        return new Entry().moveTo(record, 0);
+    }
+
+    // Все партии по порядку в одном потоке
+    public void forEach(Consumer<Entry> visitor) throws IOException {
+        int segments;
+        int lastEnd;
+        synchronized (this) {
+            segments = segmentNumber + 1;
+            lastEnd = segmentEnd;
+        }
+        Entry entry = new Entry();
+        for (int s = 0; s < segments; s++) {
+            scanSegment(s, s == segments - 1 ? lastEnd : -1, entry, visitor);
+        }
+    }
+
+    // Параллельный просмотр: сегменты распределяются по потокам, у каждого потока свой накопитель
+    // (supplier) и своё окно Entry, накопители объединяются combiner
+    public <R> R scan(Supplier<R> supplier, BiConsumer<R, Entry> visitor, BinaryOperator<R> combiner) {
+        int segments;
+        int lastEnd;
+        synchronized (this) {
+            segments = segmentNumber + 1;
+            lastEnd = segmentEnd;
+        }
+        return IntStream.range(0, segments).parallel().mapToObj(s -> {
+            R result = supplier.get();
+            Entry entry = new Entry();
+            try {
+                scanSegment(s, s == segments - 1 ? lastEnd : -1, entry, e -> visitor.accept(result, e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        }).reduce(combiner).orElseGet(supplier);
+    }
+
+    // Записи сегмента до end (-1 - сегмент закрыт, до конца файла)
+    private void scanSegment(int number, int end, Entry entry, Consumer<Entry> visitor) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(segmentFile(number), StandardOpenOption.READ)) {
+            long limit = end < 0 ? channel.size() : end;
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+        }
+        if (data.limit() < SEGMENT_HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Неизвестный формат сегмента: " + segmentFile(number));
+        }
+        CRC32 crc = new CRC32();
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset + RECORD_HEADER_BYTES <= data.limit()) {
+            int length = data.getInt(offset);
+            if (length < RECORD_HEADER_BYTES || offset + length > data.limit()
+                    || data.getInt(offset + 4) != checksum(crc, data, offset, length)) {
+                throw new IOException("Повреждённая запись в " + segmentFile(number) + " по смещению " + offset);
+            }
+            visitor.accept(entry.moveTo(data, offset));
+            offset += length;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Неожиданный конец файла архива");
+            }
+            position += read;
+        }
+        target.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (segment != null) {
+                segment.force(false);
+                segment.close();
+            }
+            index.force(false);
+        } finally {
+            lock.release();
+            index.close();
+        }
+    }
+
+    // Окно на одну запись архива; переиспользуется при просмотре
+    public static final class Entry {
+        private ByteBuffer data;
+        private int offset;
+
+        Entry moveTo(ByteBuffer data, int offset) {
+            this.data = data;
+            this.offset = offset;
+            return this;
+        }
+
+        public long getTime() { return data.getLong(offset + 8); }
+        public GameSettings.Variant getVariant() { return VARIANTS[data.get(offset + 16)]; }
+        public GameState getResult() { return STATES[data.get(offset + 17)]; }
+        public boolean isStartWhiteToMove() { return (data.get(offset + 18) & START_WHITE) != 0; }
+        public boolean isCustomStart() { return (data.get(offset + 18) & CUSTOM_START) != 0; }
+        public int getPlies() { return data.getShort(offset + 20) & 0xFFFF; }
+
+        public Position getStart() {
+            if (!isCustomStart()) {
+                return Position.initial();
+            }
+            int at = offset + RECORD_HEADER_BYTES;
+            return new Position(data.getInt(at), data.getInt(at + 4), data.getInt(at + 8));
+        }
+
+        // Ходы и маски побитых в массивы (не короче getPlies()); возвращает число полуходов
+        public int readMoves(int[] moves, int[] captured) {
+            int plies = getPlies();
+            int at = offset + RECORD_HEADER_BYTES + (isCustomStart() ? 12 : 0);
+            for (int i = 0; i < plies; i++) {
+                int move = data.getShort(at) & 0xFFFF;
+                at += 2;
+                moves[i] = move;
+                if (Move.isCapture(move)) {
+                    captured[i] = data.getInt(at);
+                    at += 4;
+                } else {
+                    captured[i] = 0;
+                }
+            }
+            return plies;
+        }
+
+        // Партия с ходами и историей, как после игры (состояние - по правилам, не результат архива)
+        public Game toGame() {
+            GameSettings settings = new GameSettings();
+            settings.setVariant(getVariant());
+            Game game = new Game(settings);
+            game.setPosition(getStart(), isStartWhiteToMove());
+            int[] moves = new int[getPlies()];
+            int[] captured = new int[moves.length];
+            readMoves(moves, captured);
+            for (int i = 0; i < moves.length; i++) {
+                game.makeMove(moves[i], captured[i]);
+            }
+            return game;
+        }
+    }
+
+    // Партия, которую не удалось дописать в архив dir (он занят другим процессом), сохраняется
+    // двоичным сохранением в его каталог PENDING_DIR; возвращает файл
+    public static Path savePending(Path dir, Game game) throws IOException {
+        Path pending = dir.resolve(PENDING_DIR);
+        Files.createDirectories(pending);
+        long time = System.currentTimeMillis();
+        Path file = pending.resolve("game_" + time + ".bin");
+        for (int i = 1; Files.exists(file); i++) {
+            file = pending.resolve("game_" + time + "_" + i + ".bin");
+        }
+        BinaryGameFormat.write(game, file);
+        return file;
+    }
+
+    // Перенос отложенных партий (savePending) в архив; перенесённые файлы удаляются,
+    // нечитаемые остаются на месте. Возвращает число партий
+    public int importPending() throws IOException {
+        Path pending = dir.resolve(PENDING_DIR);
+        if (!Files.isDirectory(pending)) {
+            return 0;
+        }
+        int imported = 0;
+        try (Stream<Path> files = Files.list(pending)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".bin")).sorted()::iterator) {
+                Game game;
+                try {
+                    game = BinaryGameFormat.decode(BinaryGameFormat.readFile(file));
+                } catch (IOException e) {
+                    System.err.println("Отложенная партия не прочитана: " + file + ": " + e.getMessage());
+                    continue;
+                }
+                append(game, game.getGameState(), Files.getLastModifiedTime(file).toMillis());
+                Files.delete(file);
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    // Перенос текстовых файлов истории (формат Game.writeHistory) в архив; возвращает число партий.
+    // Прыжки одного взятия собираются в путь (HistoryFile), ход выбирается по побитым шашкам;
+    // партия с недопустимым или неоднозначным ходом пропускается
+    public int importHistory(Path path) throws IOException {
+        int imported = 0;
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".txt")).sorted()::iterator) {
+                for (HistoryFile.Record record : HistoryFile.read(file)) {
+                    Game game = replay(record);
+                    if (game == null) {
+                        System.err.println("Недопустимый ход в " + file);
+                        continue;
+                    }
+                    append(game, game.getGameState(), Files.getLastModifiedTime(file).toMillis());
+                    imported++;
+                }
+            }
+        }
+        return imported;
+    }
+
+    private static Game replay(HistoryFile.Record record) {
+        GameSettings settings = new GameSettings();
+        settings.setVariant(record.getVariant());
+        Game game = new Game(settings);
+        for (int[] path : record.getPaths()) {
+            MoveList legal = game.getLegalMoves();
+            int found = MovePath.find(legal, game.getBoard().getPosition(), game.isWhiteToMove(), path, path.length);
+            if (found < 0) {
+                return null;
+            }
+            game.makeMove(legal.get(found), legal.getCaptured(found));
+        }
+        return game;
+    }
+
+    // Сводка по архиву: число партий, результаты по вариантам, средняя длина и скорость просмотра.
+    // Запуск: java -cp <classes> checkers.game.GameArchive [каталог архива] [--import=каталог истории]
+    public static void main(String[] args) throws IOException {
+        Path dir = DEFAULT_DIR;
+        Path importDir = null;
+        for (String arg : args) {
+            if (arg.startsWith("--import=")) {
+                importDir = Paths.get(arg.substring("--import=".length()));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            } else {
+                dir = Paths.get(arg);
+            }
+        }
+        try (GameArchive archive = GameArchive.open(dir)) {
+            if (importDir != null) {
+                System.out.println("Перенесено партий: " + archive.importHistory(importDir));
+            }
+            int pending = archive.importPending();
+            if (pending > 0) {
+                System.out.println("Перенесено отложенных партий: " + pending);
+            }
+            long start = System.nanoTime();
+            // [вариант][результат] и сумма полуходов в последней ячейке
+            long[] totals = archive.scan(() -> new long[VARIANTS.length * STATES.length + 1], (counts, entry) -> {
+                counts[entry.getVariant().ordinal() * STATES.length + entry.getResult().ordinal()]++;
+                counts[counts.length - 1] += entry.getPlies();
+            }, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            });
+            long elapsed = System.nanoTime() - start;
+            long bytes = 0;
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".dat"))::iterator) {
+                    bytes += Files.size(file);
+                }
+            }
+            System.out.println("Архив: " + dir.toAbsolutePath() + ", партий: " + archive.size()
+                    + ", средняя длина: " + (archive.size() == 0 ? 0 : totals[totals.length - 1] / archive.size()) + " полуходов");
+            for (GameSettings.Variant variant : VARIANTS) {
+                long[] row = Arrays.copyOfRange(totals, variant.ordinal() * STATES.length, (variant.ordinal() + 1) * STATES.length);
+                StringBuilder line = new StringBuilder(variant.name()).append(':');
+                for (GameState state : STATES) {
+                    line.append(' ').append(state.name()).append(' ').append(row[state.ordinal()]);
+                }
+                System.out.println(line);
+            }
+            System.out.printf("Просмотр: %d МБ за %.1f мс (%.2f ГБ/с)%n", bytes >> 20, elapsed / 1e6,
+                    bytes / (double) Math.max(1, elapsed));
+        }
+    }
+}
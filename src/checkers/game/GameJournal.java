@@ -0,0 +1,295 @@
+package checkers.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+// Журнал ходов поверх двоичного снимка партии (BinaryGameFormat): каждый ход и каждая отмена
+// дописываются в конец журнала записью фиксированного размера, вместо перезаписи всего сохранения.
+// Снимок и журнал - свои файлы автосохранения, сохранение пользователя они не трогают.
+// Заголовок журнала: MAGIC "CHKJ", версия, контрольная сумма снимка, к которому относятся записи.
+// Запись (16 байт): число полуходов до хода (после отмены), ход или UNDO, маска побитых, CRC32 первых 12 байт.
+// Снимок переписывается каждые COMPACT_RECORDS записей (через временный файл и атомарное
+// переименование), после чего журнал начинается заново. Если сбой случился между записью снимка
+// и очисткой журнала, старый журнал не совпадёт с новым снимком по контрольной сумме и будет пропущен.
+// Записи и снимки кодируются в потоке вызова, а пишутся на диск одним общим фоновым потоком
+// по порядку, так что поток интерфейса не ждёт диска. fsync - пачками: после SYNC_RECORDS записей
+// или если с прошлого прошло SYNC_INTERVAL_MS, так что при сбое ОС теряются не больше нескольких
+// последних ходов (при падении программы - только ещё не записанные фоновым потоком)
+public class GameJournal implements Closeable {
+    static final int MAGIC = 0x43484B4A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int RECORD_BYTES = 16;
+    private static final int UNDO = -1;
+
+    private static final int SYNC_RECORDS = 8;
+    private static final long SYNC_INTERVAL_MS = 1000;
+    private static final int COMPACT_RECORDS = 100;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    // Один поток на все журналы: записи закрытого журнала успевают лечь на диск раньше,
+    // чем следующий журнал перепишет те же файлы
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "game-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final CRC32 crc = new CRC32();
+    private Game game;
+    // Записей с последнего снимка (поток вызова)
+    private int records;
+
+    // Состояние файла журнала - только в потоке WRITER
+    private FileChannel channel;
+    private int unsynced;
+    private long lastSync;
+    private volatile boolean failed;
+
+    public GameJournal(Path snapshotFile, Path journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    // Ходы партии пишутся в этот журнал; сразу сохраняется снимок её текущего состояния
+    public void attach(Game game) {
+        if (this.game != null && this.game != game) {
+            this.game.setJournal(null);
+        }
+        this.game = game;
+        game.setJournal(this);
+        snapshot();
+    }
+
+    // Полный снимок партии и пустой журнал после него
+    public void snapshot() {
+        ByteBuffer data = BinaryGameFormat.encode(game);
+        records = 0;
+        submit(() -> {
+            closeChannel();
+            int checksum = BinaryGameFormat.write(data, snapshotFile);
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(checksum).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            unsynced = 0;
+            lastSync = System.currentTimeMillis();
+        });
+    }
+
+    // Вызывается из Game.makeMove
+    void moveMade(int plies, int move, int captured) {
+        append(plies, move, captured);
+    }
+
+    // Вызывается из Game.unmakeMove: в партии осталось plies полуходов
+    void moveUndone(int plies) {
+        append(plies, UNDO, 0);
+    }
+
+    private void append(int plies, int move, int captured) {
+        if (failed) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.putInt(plies).putInt(move).putInt(captured);
+        crc.reset();
+        crc.update(record.array(), 0, 12);
+        record.putInt((int) crc.getValue()).flip();
+        submit(() -> {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            unsynced++;
+            long now = System.currentTimeMillis();
+            if (unsynced >= SYNC_RECORDS || now - lastSync >= SYNC_INTERVAL_MS) {
+                channel.force(false);
+                unsynced = 0;
+                lastSync = now;
+            }
+        });
+        if (++records >= COMPACT_RECORDS) {
+            snapshot();
+        }
+    }
+
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    // Задача фонового потока; после первой ошибки журнал отключается, игра продолжается
+    // (состояние сохранится при выходе)
+    private void submit(Write write) {
+        if (failed) {
+            return;
+        }
+        WRITER.execute(() -> {
+            if (failed) {
+                return;
+            }
+            try {
+                write.run();
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                System.err.println("Ошибка записи журнала ходов, журнал отключён: " + e.getMessage());
+                try {
+                    closeChannel();
+                } catch (IOException ignored) {
+                    // журнал уже отключён
+                }
+            }
+        });
+    }
+
+    // Сброс несохранённых записей на диск
+    public void sync() {
+        submit(this::syncChannel);
+    }
+
+    private void syncChannel() throws IOException {
+        if (channel != null && unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+            lastSync = System.currentTimeMillis();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            try {
+                syncChannel();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    // Журнал отвязывается от партии; файлы остаются для восстановления, запись заканчивается в фоне
+    @Override
+    public void close() {
+        detach();
+        WRITER.execute(() -> {
+            try {
+                closeChannel();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия журнала ходов: " + e.getMessage());
+            }
+        });
+    }
+
+    // Штатное завершение: журнал и снимок больше не нужны и удаляются.
+    // Ждёт фоновый поток, чтобы файлы не остались после выхода из программы
+    public void discard() {
+        detach();
+        awaitWriter(() -> {
+            try {
+                closeChannel();
+                Files.deleteIfExists(journalFile);
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException e) {
+                System.err.println("Ошибка удаления журнала ходов: " + e.getMessage());
+            }
+        });
+    }
+
+    private void detach() {
+        if (game != null) {
+            game.setJournal(null);
+            game = null;
+        }
+    }
+
+    // Ожидание, пока фоновый поток допишет всё, что поставлено раньше
+    public static void flush() {
+        awaitWriter(() -> { });
+    }
+
+    // Задача в фоновом потоке после всех уже поставленных, с ожиданием
+    private static void awaitWriter(Runnable task) {
+        try {
+            WRITER.submit(task).get(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Журнал ходов не дописан: " + e);
+        }
+    }
+
+    // Партия из снимка и записей журнала после него. Журнал от другого снимка пропускается,
+    // чтение записей прекращается на первой повреждённой или недописанной
+    public static Game recover(Path snapshotFile, Path journalFile) throws IOException {
+        ByteBuffer snapshot = BinaryGameFormat.readFile(snapshotFile);
+        if (!BinaryGameFormat.isBinary(snapshot)) {
+            throw new IOException("Снимок не в двоичном формате: " + snapshotFile);
+        }
+        int checksum = BinaryGameFormat.checksum(snapshot);
+        Game game = BinaryGameFormat.decode(snapshot);
+        if (!Files.exists(journalFile)) {
+            return game;
+        }
+
+        ByteBuffer journal = BinaryGameFormat.readFile(journalFile);
+        if (journal.remaining() < HEADER_BYTES || journal.getInt() != MAGIC || journal.getInt() != VERSION) {
+            System.err.println("Журнал ходов не распознан, используется только снимок");
+            return game;
+        }
+        if (journal.getInt() != checksum) {
+            // журнал от предыдущего снимка: сбой между записью снимка и очисткой журнала
+            return game;
+        }
+        CRC32 crc = new CRC32();
+        int replayed = 0;
+        while (journal.remaining() >= RECORD_BYTES) {
+            int start = journal.position();
+            int plies = journal.getInt();
+            int move = journal.getInt();
+            int captured = journal.getInt();
+            crc.reset();
+            crc.update(journal.array(), start, 12);
+            if ((int) crc.getValue() != journal.getInt() || !replay(game, plies, move, captured)) {
+                System.err.println("Журнал ходов повреждён, восстановлено записей: " + replayed);
+                return game;
+            }
+            replayed++;
+        }
+        return game;
+    }
+
+    // Отмена ходов до plies и, если это ход, его выполнение; false, если запись не подходит к партии
+    private static boolean replay(Game game, int plies, int move, int captured) {
+        if (plies > game.getPlayedMoves()) {
+            return false;
+        }
+        while (game.getPlayedMoves() > plies) {
+            game.unmakeMove();
+        }
+        if (move == UNDO) {
+            return true;
+        }
+        MoveList legal = game.getLegalMoves();
+        for (int i = 0; i < legal.size(); i++) {
+            if (legal.get(i) == move && legal.getCaptured(i) == captured) {
+                game.makeMove(move, captured);
+                return true;
+            }
+        }
+        return false;
+    }
+}
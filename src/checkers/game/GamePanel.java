@@ -1,6 +1,9 @@
 package checkers.game;
 
 import checkers.classes.*;
+import checkers.engine.ComputerPlayer;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
 import checkers.enums.CheckerType;
 
 import javax.swing.*;
@@ -15,20 +18,36 @@ public class GamePanel extends JPanel {
     private Checker selectedChecker;
     private List<Cell> highlightedCells;
     private final GameSettings settings;
+    private ComputerPlayer computerPlayer;
+    // Таблица транспозиций создаётся один раз и переживает смену партий
+    private TranspositionTable transpositionTable;
+    // Поиск идёт в фоновом потоке, доска остаётся отзывчивой
+    private final EngineExecutor engine = new EngineExecutor();
+    // Подсказка: клетки хода, предложенного компьютером
+    private final List<Cell> hintCells = new java.util.ArrayList<>();
+    // Обдумывание на время игрока: ключ позиции после ожидаемого ответа,
+    // результат законченного обдумывания и признак того, что игрок сделал ожидаемый ход
+    private boolean pondering;
+    private long ponderKey;
+    private SearchResult ponderResult;
+    private boolean ponderHit;
 
     private static final int BOARD_MARGIN = 10;
     private static final Color LIGHT_COLOR = new Color(240, 217, 181);
     private static final Color DARK_COLOR = new Color(181, 136, 99);
     private static final Color HIGHLIGHT_COLOR = new Color(100, 200, 100, 128);
+    private static final Color HINT_COLOR = new Color(80, 140, 230, 128);
 
     public GamePanel(GameSettings settings) {
         this.settings = settings;
         initSize();
         setBackground(Color.LIGHT_GRAY);
         this.game = new Game(settings);
+        game.startJournal();
         this.board = game.getBoard();
         this.highlightedCells = new java.util.ArrayList<>();
         addMouseListener(new CheckersMouseAdapter());
+        scheduleComputerMove();
     }
 
     // Конструктор для загруженной игры
@@ -37,9 +56,11 @@ public class GamePanel extends JPanel {
         initSize();
         setBackground(Color.LIGHT_GRAY);
         this.game = loadedGame;
+        game.startJournal();
         this.board = game.getBoard();
         this.highlightedCells = new java.util.ArrayList<>();
         addMouseListener(new CheckersMouseAdapter());
+        scheduleComputerMove();
     }
 
     private void initSize() {
@@ -54,20 +75,173 @@ public class GamePanel extends JPanel {
     }
 
     public void startNewGame() {
+        closeComputerPlayer();
+        game.closeJournal();
         game = new Game(settings);
+        game.startJournal();
         board = game.getBoard();
         selectedChecker = null;
         highlightedCells.clear();
+        hintCells.clear();
         repaint();
+        scheduleComputerMove();
     }
 
     // Новый метод для обновления игры без создания новой панели
     public void updateGame(Game newGame) {
+        // Незаконченный поиск относится к старой партии (или старым настройкам) - отменяем
+        closeComputerPlayer();
+        game.closeJournal();
         this.game = newGame;
+        game.startJournal();
         this.board = game.getBoard();
         this.selectedChecker = null;
         this.highlightedCells.clear();
+        this.hintCells.clear();
         repaint(); // Важно! Перерисовываем панель
+        scheduleComputerMove();
+    }
+
+    // Отмена последнего хода (против компьютера - вместе с его ответом)
+    public void undoMove() {
+        cancelEngine();
+        hintCells.clear();
+        if (game.unmakeMove()) {
+            while (game.getCurrentPlayer().isComputer() && game.canUndo()) {
+                game.unmakeMove();
+            }
+            deselectChecker();
+            scheduleComputerMove();
+        }
+    }
+
+    // Подсказка: компьютер ищет ход за игрока, найденный ход подсвечивается
+    public void showHint() {
+        if (game.isGameOver() || game.getCurrentPlayer().isComputer()) {
+            return;
+        }
+        cancelEngine();
+        Game current = game;
+        engine.submit(getComputerPlayer(), game.getBoard().getPosition(), game.isWhiteToMove(),
+                settings.getEngineTimeMs(), result -> {
+                    if (current != game || !result.hasMove()) {
+                        return;
+                    }
+                    System.out.println("Подсказка: " + Move.toNotation(result.getMove()) + " " + result);
+                    hintCells.clear();
+                    hintCells.add(board.getCell(Move.from(result.getMove())));
+                    hintCells.add(board.getCell(Move.to(result.getMove())));
+                    repaint();
+                });
+    }
+
+    // Поиск хода компьютера запускается в фоновом потоке, ход выполняется в потоке событий
+    private void scheduleComputerMove() {
+        if (game.isGameOver() || !game.getCurrentPlayer().isComputer()) {
+            return;
+        }
+        Game current = game;
+        ComputerPlayer player = getComputerPlayer();
+        engine.submit(player, game.getBoard().getPosition(), game.isWhiteToMove(),
+                player.getTimeMs(), result -> applyComputerMove(current, result));
+    }
+
+    private void applyComputerMove(Game current, SearchResult result) {
+        if (current != game || game.isGameOver() || !game.getCurrentPlayer().isComputer()) {
+            return;
+        }
+        System.out.println("Ход компьютера: " + result);
+        if (result.hasMove()) {
+            game.makeMove(result.getMove(), result.getCaptured());
+        }
+        deselectChecker();
+        if (game.isGameOver()) {
+            showGameOverDialog();
+        } else if (game.getCurrentPlayer().isComputer()) {
+            scheduleComputerMove();
+        } else {
+            startPondering();
+        }
+    }
+
+    // Пока игрок думает, компьютер ищет ответ на его ожидаемый ход, заполняя таблицу транспозиций
+    private void startPondering() {
+        if (!settings.isPonder() || game.isGameOver() || game.getCurrentPlayer().isComputer()) {
+            return;
+        }
+        ComputerPlayer player = getComputerPlayer();
+        MoveList moves = game.getLegalMoves();
+        int index = player.predictReply(game.positionKey(), moves);
+        if (index < 0) {
+            return;
+        }
+        int move = moves.get(index);
+        Position predicted = game.getBoard().getPosition().copy();
+        predicted.applyMove(Move.from(move), Move.to(move), moves.getCaptured(index), Move.isPromotion(move));
+        boolean white = !game.isWhiteToMove();
+        Game current = game;
+        engine.submit(player, predicted, white, ComputerPlayer.PONDER_TIME_MS,
+                result -> onPonderResult(current, result));
+        pondering = true;
+        ponderKey = predicted.getKey() ^ (white ? 0 : Zobrist.SIDE);
+        ponderResult = null;
+        ponderHit = false;
+    }
+
+    // Обдумывание закончилось само (или после попадания): до хода игрока результат откладывается
+    private void onPonderResult(Game current, SearchResult result) {
+        if (ponderHit) {
+            pondering = false;
+            applyComputerMove(current, result);
+        } else {
+            ponderResult = result;
+        }
+    }
+
+    // Ход игрока сделан: при попадании ответ берётся из обдумывания, иначе начинается обычный поиск,
+    // которому достаётся заполненная обдумыванием таблица транспозиций
+    private void answerPlayerMove() {
+        if (pondering && game.getCurrentPlayer().isComputer() && game.positionKey() == ponderKey) {
+            System.out.println("Попадание при обдумывании");
+            if (ponderResult != null) {
+                SearchResult result = ponderResult;
+                pondering = false;
+                ponderResult = null;
+                applyComputerMove(game, result);
+            } else {
+                ponderHit = true;
+                computerPlayer.ponderHit();
+            }
+            return;
+        }
+        cancelEngine();
+        scheduleComputerMove();
+    }
+
+    private void cancelEngine() {
+        engine.cancel();
+        pondering = false;
+        ponderResult = null;
+        ponderHit = false;
+    }
+
+    private ComputerPlayer getComputerPlayer() {
+        if (computerPlayer == null) {
+            if (transpositionTable == null) {
+                transpositionTable = new TranspositionTable(ComputerPlayer.DEFAULT_HASH_MB);
+            }
+            computerPlayer = new ComputerPlayer(game, transpositionTable, settings.getEngineTimeMs());
+        }
+        return computerPlayer;
+    }
+
+    // Отмена поиска; потоки игрока освобождаются, когда поиск действительно остановится
+    private void closeComputerPlayer() {
+        cancelEngine();
+        if (computerPlayer != null) {
+            engine.release(computerPlayer);
+            computerPlayer = null;
+        }
     }
 
     @Override
@@ -76,7 +250,8 @@ public class GamePanel extends JPanel {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         drawBoard(g2d);
-        drawHighlightedCells(g2d);
+        drawCells(g2d, hintCells, HINT_COLOR);
+        drawCells(g2d, highlightedCells, HIGHLIGHT_COLOR);
         drawCheckers(g2d);
     }
 
@@ -92,9 +267,9 @@ public class GamePanel extends JPanel {
         }
     }
 
-    private void drawHighlightedCells(Graphics2D g2d) {
-        g2d.setColor(HIGHLIGHT_COLOR);
-        for (Cell cell : highlightedCells) {
+    private void drawCells(Graphics2D g2d, List<Cell> cells, Color color) {
+        g2d.setColor(color);
+        for (Cell cell : cells) {
             g2d.fillRect(BOARD_MARGIN + cell.getX() * settings.getCellSize(),
                     BOARD_MARGIN + cell.getY() * settings.getCellSize(),
                     settings.getCellSize(), settings.getCellSize());
@@ -111,7 +286,7 @@ public class GamePanel extends JPanel {
         int size = settings.getCellSize();
         int x = BOARD_MARGIN + checker.getCell().getX() * size;
         int y = BOARD_MARGIN + checker.getCell().getY() * size;
-        g2d.setColor(checker.getColor());
+        g2d.setColor(checker.isWhite() ? Color.WHITE : Color.BLACK);
         g2d.fillOval(x + 5, y + 5, size - 10, size - 10);
         g2d.setColor(Color.BLACK);
         g2d.drawOval(x + 5, y + 5, size - 10, size - 10);
@@ -125,7 +300,7 @@ public class GamePanel extends JPanel {
         @Override
         public void mouseClicked(MouseEvent e) {
             Cell clickedCell = getCellAt(e.getPoint());
-            if (clickedCell == null) return;
+            if (clickedCell == null || game.getCurrentPlayer().isComputer()) return;
             if (selectedChecker == null) {
                 trySelectChecker(clickedCell);
             } else {
@@ -157,12 +332,42 @@ public class GamePanel extends JPanel {
 
     private void tryMoveSelectedChecker(Cell targetCell) {
         if (highlightedCells.contains(targetCell)) {
-            game.makeMove(selectedChecker, targetCell);
+            int[] choices = game.getCaptureChoices(selectedChecker, targetCell);
+            int choice = choices.length == 1 ? 0 : chooseCapture(choices);
+            if (choice < 0) {
+                return;
+            }
+            // Подсказка к прежней позиции больше не нужна (обдумывание остаётся до сравнения ходов)
+            if (!pondering) {
+                engine.cancel();
+            }
+            hintCells.clear();
+            game.makeMove(selectedChecker, targetCell, choices[choice]);
             deselectChecker();
             if (game.isGameOver()) {
+                cancelEngine();
                 showGameOverDialog();
+            } else {
+                answerPlayerMove();
+            }
+        }
+    }
+
+    // К клетке ведут разные цепочки взятий: игрок выбирает, какие шашки бить; -1 - выбор отменён
+    private int chooseCapture(int[] choices) {
+        String[] options = new String[choices.length];
+        for (int i = 0; i < choices.length; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int captured = choices[i]; captured != 0; captured &= captured - 1) {
+                if (text.length() > 0) {
+                    text.append(", ");
+                }
+                text.append(Move.squareName(Integer.numberOfTrailingZeros(captured)));
             }
+            options[i] = text.toString();
         }
+        return JOptionPane.showOptionDialog(this, "Какие шашки бить?", "Выбор взятия",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
     }
 
     private void deselectChecker() {
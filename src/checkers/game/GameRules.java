@@ -1,7 +1,8 @@
 // GameRules.java тоже должен быть сериализуемым
 package checkers.game;
 
-import java.awt.Color;
+import checkers.enums.PieceColor;
+
 import java.io.Serializable;
 
 public class GameRules implements Serializable {
@@ -12,6 +13,10 @@ public class GameRules implements Serializable {
         SPANISH
     }
 
+    private static final int[][] WHITE_FORWARD = {{1, -1}, {-1, -1}};
+    private static final int[][] BLACK_FORWARD = {{1, 1}, {-1, 1}};
+    private static final int[][] ALL_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
     private final RuleType ruleType;
 
     public GameRules(RuleType ruleType) {
@@ -22,35 +27,34 @@ public class GameRules implements Serializable {
         return ruleType == RuleType.RUSSIAN;
     }
 
-    public int[][] getDirectionsForNormalChecker(Color color) {
-        if (isRussian()) {
-            if (color == Color.WHITE) {
-                return new int[][]{{1, -1}, {-1, -1}};
-            } else {
-                return new int[][]{{1, 1}, {-1, 1}};
-            }
-        } else {
-            if (color == Color.WHITE) {
-                return new int[][]{{1, -1}, {-1, -1}};
-            } else {
-                return new int[][]{{1, 1}, {-1, 1}};
-            }
-        }
+    // Массивы направлений общие для всех вызовов - не изменять
+    public int[][] getDirectionsForNormalChecker(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE_FORWARD : BLACK_FORWARD;
     }
 
-    public int[][] getDirectionsForCapture(Color color) {
+    public int[][] getDirectionsForCapture(PieceColor color) {
         if (isRussian()) {
-            return new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        } else {
-            if (color == Color.WHITE) {
-                return new int[][]{{1, -1}, {-1, -1}};
-            } else {
-                return new int[][]{{1, 1}, {-1, 1}};
-            }
+            return ALL_DIRECTIONS;
         }
+        return color == PieceColor.WHITE ? WHITE_FORWARD : BLACK_FORWARD;
     }
 
     public boolean canKingMoveMultipleSteps() {
         return isRussian();
     }
+
+    // В русских шашках простая шашка бьёт и назад
+    public boolean canMenCaptureBackward() {
+        return isRussian();
+    }
+
+    // В русских шашках шашка, дошедшая до последнего ряда во время взятия, продолжает бить как дамка
+    public boolean canPromoteDuringCapture() {
+        return isRussian();
+    }
+
+    // В испанских шашках обязательно взятие наибольшего числа шашек (при равенстве - наибольшего числа дамок)
+    public boolean isMajorityCaptureRequired() {
+        return !isRussian();
+    }
 }
\ No newline at end of file
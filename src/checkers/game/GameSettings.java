@@ -1,5 +1,7 @@
 package checkers.game;
 
+import checkers.enums.PlayerType;
+
 import java.util.Locale;
 import java.io.Serializable;
 
@@ -14,6 +16,11 @@ public class GameSettings implements Serializable {
     private Variant variant = Variant.SPANISH;
     private Locale locale = Locale.getDefault();
     private int cellSize = 60;
+    private PlayerType blackPlayerType = PlayerType.HUMAN;
+    private int engineTimeMs = 1000;
+    private int engineThreads = 1;
+    // Обдумывание на время соперника
+    private boolean ponder = false;
 
     public Variant getVariant() { return variant; }
     public void setVariant(Variant variant) { this.variant = variant; }
@@ -23,4 +30,16 @@ public class GameSettings implements Serializable {
 
     public int getCellSize() { return cellSize; }
     public void setCellSize(int cellSize) { this.cellSize = cellSize; }
+
+    public PlayerType getBlackPlayerType() { return blackPlayerType; }
+    public void setBlackPlayerType(PlayerType blackPlayerType) { this.blackPlayerType = blackPlayerType; }
+
+    public int getEngineTimeMs() { return engineTimeMs; }
+    public void setEngineTimeMs(int engineTimeMs) { this.engineTimeMs = engineTimeMs; }
+
+    public int getEngineThreads() { return engineThreads; }
+    public void setEngineThreads(int engineThreads) { this.engineThreads = engineThreads; }
+
+    public boolean isPonder() { return ponder; }
+    public void setPonder(boolean ponder) { this.ponder = ponder; }
 }
\ No newline at end of file
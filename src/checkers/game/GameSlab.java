@@ -0,0 +1,266 @@
+package checkers.game;
+
+import checkers.classes.Position;
+import checkers.classes.Zobrist;
+import checkers.enums.GameState;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// Компактное хранение большого числа партий вне кучи: по 32 байта на партию в прямой памяти.
+// Запись: маски белых, чёрных и дамок (по int), флаги (байт: сторона хода, занятость),
+// состояние игры (байт), вариант правил (байт), резерв (байт), число полуходов (int),
+// полуходы дамками без взятий (int), ключ позиции без стороны хода (long).
+// Память выделяется блоками по BLOCK_ENTRIES записей и не возвращается; освобождённые записи
+// образуют список свободных (номер следующей хранится на месте маски белых).
+// Чтение и ходы - через Entry, который переиспользуется и не создаёт объектов.
+// Не потокобезопасно: один поток или внешняя синхронизация
+public class GameSlab {
+    public static final int ENTRY_BYTES = 32;
+    private static final int BLOCK_SHIFT = 16;
+    private static final int BLOCK_ENTRIES = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_ENTRIES - 1;
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 4;
+    private static final int KINGS = 8;
+    private static final int FLAGS = 12;
+    private static final int STATE = 13;
+    private static final int VARIANT = 14;
+    private static final int PLIES = 16;
+    private static final int QUIET_PLIES = 20;
+    private static final int KEY = 24;
+
+    private static final int FLAG_WHITE_TO_MOVE = 1;
+    private static final int FLAG_USED = 2;
+
+    private static final GameState[] STATES = GameState.values();
+    private static final GameSettings.Variant[] VARIANTS = GameSettings.Variant.values();
+
+    private ByteBuffer[] blocks = new ByteBuffer[0];
+    private int capacity;
+    private int freeHead = -1;
+    private int size;
+
+    public GameSlab(int initialCapacity) {
+        while (capacity < initialCapacity) {
+            addBlock();
+        }
+    }
+
+    private void addBlock() {
+        blocks = Arrays.copyOf(blocks, blocks.length + 1);
+        blocks[blocks.length - 1] = ByteBuffer.allocateDirect(BLOCK_ENTRIES * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+        capacity += BLOCK_ENTRIES;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Байт прямой памяти на все блоки
+    public long memoryBytes() {
+        return (long) capacity * ENTRY_BYTES;
+    }
+
+    // Новая партия с начальной расстановкой; возвращает номер записи
+    public int allocate(GameSettings.Variant variant) {
+        Position initial = Position.initial();
+        return allocate(variant, initial.getWhite(), initial.getBlack(), initial.getKings(), true);
+    }
+
+    public int allocate(GameSettings.Variant variant, int white, int black, int kings, boolean whiteToMove) {
+        int handle;
+        if (freeHead >= 0) {
+            handle = freeHead;
+            freeHead = block(handle).getInt(offset(handle) + WHITE);
+        } else {
+            if (size == capacity) {
+                addBlock();
+            }
+            // Без свободных записей все номера до size заняты
+            handle = size;
+        }
+        ByteBuffer block = block(handle);
+        int offset = offset(handle);
+        block.putInt(offset + WHITE, white);
+        block.putInt(offset + BLACK, black);
+        block.putInt(offset + KINGS, kings);
+        block.put(offset + FLAGS, (byte) (FLAG_USED | (whiteToMove ? FLAG_WHITE_TO_MOVE : 0)));
+        block.put(offset + STATE, (byte) GameState.IN_PROGRESS.ordinal());
+        block.put(offset + VARIANT, (byte) variant.ordinal());
+        block.putInt(offset + PLIES, 0);
+        block.putInt(offset + QUIET_PLIES, 0);
+        block.putLong(offset + KEY, Zobrist.compute(white, black, kings));
+        size++;
+        return handle;
+    }
+
+    // Партия из Game: расстановка, сторона хода, состояние и число сделанных полуходов
+    public int allocate(Game game) {
+        Position position = game.getBoard().getPosition();
+        int handle = allocate(game.getSettings().getVariant(), position.getWhite(), position.getBlack(),
+                position.getKings(), game.isWhiteToMove());
+        int offset = offset(handle);
+        block(handle).put(offset + STATE, (byte) game.getGameState().ordinal());
+        block(handle).putInt(offset + PLIES, game.getMoveHistory().size());
+        return handle;
+    }
+
+    public void free(int handle) {
+        ByteBuffer block = block(handle);
+        int offset = offset(handle);
+        if ((block.get(offset + FLAGS) & FLAG_USED) == 0) {
+            throw new IllegalStateException("Запись уже свободна: " + handle);
+        }
+        block.put(offset + FLAGS, (byte) 0);
+        block.putInt(offset + WHITE, freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    public boolean isUsed(int handle) {
+        return handle >= 0 && handle < capacity && (block(handle).get(offset(handle) + FLAGS) & FLAG_USED) != 0;
+    }
+
+    private ByteBuffer block(int handle) {
+        return blocks[handle >>> BLOCK_SHIFT];
+    }
+
+    private static int offset(int handle) {
+        return (handle & BLOCK_MASK) * ENTRY_BYTES;
+    }
+
+    // Окно на одну запись: moveTo выбирает запись, остальные методы читают и меняют её.
+    // Для проверки ходов у окна свои генераторы и позиция, поэтому у каждого потока - своё окно
+    public Entry entry() {
+        return new Entry();
+    }
+
+    public final class Entry {
+        private final MoveGenerator[] generators = new MoveGenerator[VARIANTS.length];
+        private final Position position = new Position();
+        private final MoveList moves = new MoveList();
+        private ByteBuffer block;
+        private int offset;
+        private int handle = -1;
+
+        private Entry() {
+            for (GameSettings.Variant variant : VARIANTS) {
+                generators[variant.ordinal()] = new MoveGenerator(new GameRules(variant == GameSettings.Variant.RUSSIAN
+                        ? GameRules.RuleType.RUSSIAN : GameRules.RuleType.SPANISH));
+            }
+        }
+
+        public Entry moveTo(int handle) {
+            if (!isUsed(handle)) {
+                throw new IllegalArgumentException("Нет партии с номером " + handle);
+            }
+            this.handle = handle;
+            this.block = block(handle);
+            this.offset = offset(handle);
+            return this;
+        }
+
+        public int getHandle() { return handle; }
+        public int getWhite() { return block.getInt(offset + WHITE); }
+        public int getBlack() { return block.getInt(offset + BLACK); }
+        public int getKings() { return block.getInt(offset + KINGS); }
+        public boolean isWhiteToMove() { return (block.get(offset + FLAGS) & FLAG_WHITE_TO_MOVE) != 0; }
+        public GameState getGameState() { return STATES[block.get(offset + STATE)]; }
+        public GameSettings.Variant getVariant() { return VARIANTS[block.get(offset + VARIANT)]; }
+        public int getPlies() { return block.getInt(offset + PLIES); }
+        public int getQuietPlies() { return block.getInt(offset + QUIET_PLIES); }
+
+        // Ключ позиции с учётом стороны хода, как Game.positionKey
+        public long getKey() {
+            return block.getLong(offset + KEY) ^ (isWhiteToMove() ? 0 : Zobrist.SIDE);
+        }
+
+        public boolean isGameOver() {
+            return getGameState() != GameState.IN_PROGRESS;
+        }
+
+        // Расстановка записи в переданную позицию
+        public Position toPosition(Position target) {
+            target.set(getWhite(), getBlack(), getKings(), block.getLong(offset + KEY));
+            return target;
+        }
+
+        // Допустимые ходы стороны, которая ходит
+        public int generateMoves(MoveList target) {
+            return generators[block.get(offset + VARIANT)].generate(toPosition(position), isWhiteToMove(), target);
+        }
+
+        // Выполнение хода из generateMoves: маски и ключ обновляются на месте, затем проверяется конец партии
+        public void makeMove(int move, int captured) {
+            int from = Move.from(move);
+            int to = Move.to(move);
+            toPosition(position);
+            boolean kingMove = position.isKing(from);
+            position.applyMove(from, to, captured, Move.isPromotion(move));
+            boolean white = isWhiteToMove();
+
+            block.putInt(offset + WHITE, position.getWhite());
+            block.putInt(offset + BLACK, position.getBlack());
+            block.putInt(offset + KINGS, position.getKings());
+            block.putLong(offset + KEY, position.getKey());
+            block.put(offset + FLAGS, (byte) (FLAG_USED | (white ? 0 : FLAG_WHITE_TO_MOVE)));
+            block.putInt(offset + PLIES, getPlies() + 1);
+            block.putInt(offset + QUIET_PLIES, kingMove && captured == 0 ? getQuietPlies() + 1 : 0);
+            if (!generators[block.get(offset + VARIANT)].hasMoves(position, !white)) {
+                block.put(offset + STATE, (byte) (white ? GameState.WHITE_WIN : GameState.BLACK_WIN).ordinal());
+            }
+        }
+
+        // Ход по начальной и конечной клеткам, как Game.makeMove(Checker, Cell); false, если хода нет
+        // или туда ведут цепочки взятий с разными побитыми шашками - тогда нужен play(path, length)
+        public boolean play(int from, int to) {
+            int count = generateMoves(moves);
+            int found = -1;
+            for (int i = 0; i < count; i++) {
+                int move = moves.get(i);
+                if (Move.from(move) == from && Move.to(move) == to) {
+                    if (found >= 0 && moves.getCaptured(found) != moves.getCaptured(i)) {
+                        return false;
+                    }
+                    found = i;
+                }
+            }
+            if (found < 0) {
+                return false;
+            }
+            makeMove(moves.get(found), moves.getCaptured(found));
+            return true;
+        }
+
+        // Ход по пути из клеток (см. MovePath.find); false, если хода нет или путь неоднозначен
+        public boolean play(int[] path, int length) {
+            generateMoves(moves);
+            int found = MovePath.find(moves, position, isWhiteToMove(), path, length);
+            if (found < 0) {
+                return false;
+            }
+            makeMove(moves.get(found), moves.getCaptured(found));
+            return true;
+        }
+
+        public void setGameState(GameState state) {
+            block.put(offset + STATE, (byte) state.ordinal());
+        }
+
+        // Партия Game с той же позицией и стороной хода (история ходов не хранится в записи)
+        public Game toGame() {
+            GameSettings settings = new GameSettings();
+            settings.setVariant(getVariant());
+            Game game = new Game(settings);
+            game.setPosition(toPosition(new Position()), isWhiteToMove());
+            return game;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package checkers.game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Текстовая история партий (формат Game.writeHistory): "Режим: ..." начинает партию,
+// строки ходов - " 1. Белые: g3 → h4", взятия с пометкой "(взятие)".
+// Взятие записывается по строке на прыжок: подряд идущие прыжки одной стороны, где следующий
+// начинается на клетке конца предыдущего, собираются в один путь хода (см. MovePath)
+public final class HistoryFile {
+    public static final String RUSSIAN_MODE = "Русские шашки";
+    public static final String SPANISH_MODE = "Испанские шашки";
+
+    private HistoryFile() {
+    }
+
+    // Партия из файла: вариант правил и пути ходов по порядку
+    public static final class Record {
+        private final GameSettings.Variant variant;
+        private final List<int[]> paths = new ArrayList<>();
+
+        Record(GameSettings.Variant variant) {
+            this.variant = variant;
+        }
+
+        public GameSettings.Variant getVariant() { return variant; }
+        public List<int[]> getPaths() { return paths; }
+    }
+
+    // Партии файла; партии с неизвестным режимом пропускаются
+    public static List<Record> read(Path file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        Record current = null;
+        // Последняя строка: сторона и было ли взятие - к ней может добавиться следующий прыжок
+        boolean lastWhite = false;
+        boolean lastCapture = false;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Режим:")) {
+                    GameSettings.Variant variant = parseMode(line.substring("Режим:".length()).trim());
+                    current = variant != null ? new Record(variant) : null;
+                    if (current != null) {
+                        records.add(current);
+                    }
+                    lastCapture = false;
+                    continue;
+                }
+                int arrow = line.indexOf('→');
+                int colon = line.indexOf(':');
+                if (current == null || arrow < 0 || colon < 0) {
+                    continue;
+                }
+                boolean white = line.contains("Белые");
+                boolean capture = line.contains("(взятие)");
+                int from = Move.parseSquare(line, colon + 1);
+                int to = Move.parseSquare(line, arrow + 1);
+                List<int[]> paths = current.paths;
+                int[] last = paths.isEmpty() ? null : paths.get(paths.size() - 1);
+                if (capture && lastCapture && white == lastWhite && last[last.length - 1] == from) {
+                    int[] path = Arrays.copyOf(last, last.length + 1);
+                    path[last.length] = to;
+                    paths.set(paths.size() - 1, path);
+                } else {
+                    paths.add(new int[] {from, to});
+                }
+                lastWhite = white;
+                lastCapture = capture;
+            }
+        }
+        return records;
+    }
+
+    private static GameSettings.Variant parseMode(String mode) {
+        if (mode.equals(RUSSIAN_MODE)) {
+            return GameSettings.Variant.RUSSIAN;
+        } else if (mode.equals(SPANISH_MODE)) {
+            return GameSettings.Variant.SPANISH;
+        }
+        return null;
+    }
+}
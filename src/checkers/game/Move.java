@@ -0,0 +1,64 @@
+package checkers.game;
+
+import checkers.classes.Bitboard;
+
+// Упакованный в int ход: биты 0-4 - откуда, 5-9 - куда, 10 - превращение в дамку,
+// 11-15 - число побитых шашек. Взятие с несколькими прыжками - один ход до конечной клетки,
+// маска всех побитых клеток хранится рядом в MoveList.
+public final class Move {
+    public static final int NONE = -1;
+
+    private static final int SQUARE_MASK = 0x1F;
+    private static final int TO_SHIFT = 5;
+    private static final int PROMOTION_BIT = 1 << 10;
+    private static final int CAPTURES_SHIFT = 11;
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, boolean promotion, int captures) {
+        return from | (to << TO_SHIFT) | (promotion ? PROMOTION_BIT : 0) | (captures << CAPTURES_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_BIT) != 0;
+    }
+
+    public static int captureCount(int move) {
+        return (move >>> CAPTURES_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return captureCount(move) != 0;
+    }
+
+    // Запись хода в шашечной нотации: c3-d4, взятие - c3:e5
+    public static String toNotation(int move) {
+        return squareName(from(move)) + (isCapture(move) ? ':' : '-') + squareName(to(move));
+    }
+
+    // Название клетки: c3
+    public static String squareName(int sq) {
+        return String.valueOf((char) ('a' + Bitboard.x(sq))) + (8 - Bitboard.y(sq));
+    }
+
+    // Первая клетка в записи вида c3, начиная с позиции start, или -1
+    public static int parseSquare(String text, int start) {
+        for (int i = start; i + 1 < text.length(); i++) {
+            char file = text.charAt(i);
+            char rank = text.charAt(i + 1);
+            if (file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8') {
+                return Bitboard.square(file - 'a', 8 - (rank - '0'));
+            }
+        }
+        return -1;
+    }
+}
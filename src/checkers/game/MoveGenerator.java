@@ -0,0 +1,278 @@
+package checkers.game;
+
+import checkers.classes.Bitboard;
+import checkers.classes.Position;
+
+// Генератор ходов без выделения памяти: пишет упакованные ходы (см. Move)
+// в переданный вызывающим кодом буфер MoveList.
+// Хранит временное состояние обхода взятий, поэтому у каждого потока должен быть свой экземпляр
+public class MoveGenerator {
+    private final boolean flyingKings;
+    private final boolean menCaptureBackward;
+    private final boolean promoteDuringCapture;
+    private final boolean majorityCapture;
+
+    // Временное состояние обхода цепочек взятий
+    private MoveList searchMoves;
+    private int searchStart;
+    private int searchFrom;
+    private int searchOpponent;
+    private int searchEmpty;
+    private int searchPromotionRow;
+    private boolean searchWhite;
+    private boolean searchMan;
+
+    public MoveGenerator(GameRules rules) {
+        this.flyingKings = rules.canKingMoveMultipleSteps();
+        this.menCaptureBackward = rules.canMenCaptureBackward();
+        this.promoteDuringCapture = rules.canPromoteDuringCapture();
+        this.majorityCapture = rules.isMajorityCaptureRequired();
+    }
+
+    // Все допустимые ходы стороны (при наличии взятия - только взятия), возвращает их число
+    public int generate(Position position, boolean white, MoveList moves) {
+        moves.clear();
+        generateCaptures(position, white, position.getPieces(white), moves);
+        if (moves.isEmpty()) {
+            generateQuietMoves(position, white, moves);
+        }
+        return moves.size();
+    }
+
+    // Полные цепочки взятий шашками из маски pieces, дописываются в конец буфера.
+    // Каждая цепочка - один ход с маской всех побитых шашек
+    public int generateCaptures(Position position, boolean white, int pieces, MoveList moves) {
+        int start = moves.size();
+        if (!canCapture(position, white, pieces)) {
+            return 0;
+        }
+        int own = pieces;
+        while (own != 0) {
+            int from = Integer.numberOfTrailingZeros(own);
+            searchFrom = from;
+            searchMoves = moves;
+            searchStart = start;
+            searchOpponent = position.getPieces(!white);
+            // Побитые шашки остаются на доске до конца хода, а исходная клетка освобождается
+            searchEmpty = position.getEmpty() | (1 << from);
+            searchPromotionRow = Bitboard.promotionRow(white);
+            searchWhite = white;
+            searchMan = !position.isKing(from);
+            searchCaptures(from, !searchMan, 0, false);
+            own &= own - 1;
+        }
+        searchMoves = null;
+        if (majorityCapture) {
+            keepMajorityCaptures(position, moves, start);
+        }
+        return moves.size() - start;
+    }
+
+    // Обход цепочек взятий в глубину на общем временном состоянии (без выделения памяти)
+    private void searchCaptures(int sq, boolean king, int captured, boolean promoted) {
+        boolean found = king && flyingKings
+                ? searchFlyingCaptures(sq, captured, promoted)
+                : searchShortCaptures(sq, king, captured, promoted);
+        if (!found && captured != 0) {
+            boolean promotion = searchMan && (promoted || (searchPromotionRow & (1 << sq)) != 0);
+            addUnique(Move.of(searchFrom, sq, promotion, Integer.bitCount(captured)), captured);
+        }
+    }
+
+    private boolean searchShortCaptures(int sq, boolean king, int captured, boolean promoted) {
+        boolean found = false;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && !menCaptureBackward && !isForward(searchWhite, dir)) {
+                continue;
+            }
+            int enemy = Bitboard.NEIGHBOR[dir][sq];
+            if (enemy < 0 || (searchOpponent & ~captured & (1 << enemy)) == 0) {
+                continue;
+            }
+            int to = Bitboard.NEIGHBOR[dir][enemy];
+            if (to < 0 || (searchEmpty & (1 << to)) == 0) {
+                continue;
+            }
+            found = true;
+            boolean promotes = !king && promoteDuringCapture && (searchPromotionRow & (1 << to)) != 0;
+            searchCaptures(to, king || promotes, captured | (1 << enemy), promoted || promotes);
+        }
+        return found;
+    }
+
+    private boolean searchFlyingCaptures(int sq, int captured, boolean promoted) {
+        boolean found = false;
+        for (int dir = 0; dir < 4; dir++) {
+            int enemy = findFlyingTarget(sq, dir, captured);
+            if (enemy < 0) {
+                continue;
+            }
+            int nextCaptured = captured | (1 << enemy);
+            int landing = 0;
+            int continuing = 0;
+            for (int to = Bitboard.NEIGHBOR[dir][enemy];
+                 to >= 0 && (searchEmpty & (1 << to)) != 0; to = Bitboard.NEIGHBOR[dir][to]) {
+                landing |= 1 << to;
+                if (canContinueFlying(to, nextCaptured)) {
+                    continuing |= 1 << to;
+                }
+            }
+            if (landing == 0) {
+                continue;
+            }
+            found = true;
+            // Если с какой-то клетки приземления можно бить дальше, остановиться на других нельзя
+            int targets = continuing != 0 ? continuing : landing;
+            while (targets != 0) {
+                searchCaptures(Integer.numberOfTrailingZeros(targets), true, nextCaptured, promoted);
+                targets &= targets - 1;
+            }
+        }
+        return found;
+    }
+
+    // Первая по лучу шашка соперника, которую можно бить (-1, если луч упирается в другое)
+    private int findFlyingTarget(int sq, int dir, int captured) {
+        int next = Bitboard.NEIGHBOR[dir][sq];
+        while (next >= 0 && (searchEmpty & (1 << next)) != 0) {
+            next = Bitboard.NEIGHBOR[dir][next];
+        }
+        if (next < 0 || (searchOpponent & ~captured & (1 << next)) == 0) {
+            return -1;
+        }
+        int behind = Bitboard.NEIGHBOR[dir][next];
+        return behind >= 0 && (searchEmpty & (1 << behind)) != 0 ? next : -1;
+    }
+
+    private boolean canContinueFlying(int sq, int captured) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (findFlyingTarget(sq, dir, captured) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Разные пути могут дать один и тот же итог хода - такие ходы не дублируются
+    private void addUnique(int move, int captured) {
+        for (int i = searchStart; i < searchMoves.size(); i++) {
+            if (searchMoves.get(i) == move && searchMoves.getCaptured(i) == captured) {
+                return;
+            }
+        }
+        searchMoves.add(move, captured);
+    }
+
+    // Правило большинства: остаются взятия с наибольшим числом шашек, при равенстве - дамок
+    private void keepMajorityCaptures(Position position, MoveList moves, int start) {
+        int best = 0;
+        for (int i = start; i < moves.size(); i++) {
+            best = Math.max(best, captureWeight(position, moves, i));
+        }
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            if (captureWeight(position, moves, i) == best) {
+                moves.set(kept++, moves.get(i), moves.getCaptured(i));
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private int captureWeight(Position position, MoveList moves, int index) {
+        int captured = moves.getCaptured(index);
+        return (Integer.bitCount(captured) << 5) + Integer.bitCount(captured & position.getKings());
+    }
+
+    private static boolean isForward(boolean white, int dir) {
+        return dir == Bitboard.forwardLeft(white) || dir == Bitboard.forwardRight(white);
+    }
+
+    // Тихие ходы всех шашек стороны, дописываются в конец буфера
+    public void generateQuietMoves(Position position, boolean white, MoveList moves) {
+        int own = position.getPieces(white);
+        int men = own & ~position.getKings();
+        int kings = own & position.getKings();
+        int empty = position.getEmpty();
+        int promotionRow = Bitboard.promotionRow(white);
+
+        for (int dir = 0; dir < 4; dir++) {
+            int back = 3 - dir;
+            int targets = Bitboard.shift(isForward(white, dir) ? men : 0, dir) & empty;
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                moves.add(Move.of(Bitboard.NEIGHBOR[back][to], to, (promotionRow & (1 << to)) != 0, 0), 0);
+                targets &= targets - 1;
+            }
+        }
+
+        while (kings != 0) {
+            int from = Integer.numberOfTrailingZeros(kings);
+            for (int dir = 0; dir < 4; dir++) {
+                int to = Bitboard.NEIGHBOR[dir][from];
+                while (to >= 0 && (empty & (1 << to)) != 0) {
+                    moves.add(Move.of(from, to, false, 0), 0);
+                    to = flyingKings ? Bitboard.NEIGHBOR[dir][to] : -1;
+                }
+            }
+            kings &= kings - 1;
+        }
+    }
+
+    // Есть ли взятие у шашек из маски pieces: сдвиги масок, лучи - только для летающих дамок
+    public boolean canCapture(Position position, boolean white, int pieces) {
+        int opponent = position.getPieces(!white);
+        int empty = position.getEmpty();
+        for (int dir = 0; dir < 4; dir++) {
+            int jumpers = getShortCapturers(position, white, pieces, dir);
+            if ((Bitboard.shift(Bitboard.shift(jumpers, dir) & opponent, dir) & empty) != 0) {
+                return true;
+            }
+        }
+        if (flyingKings) {
+            int kings = pieces & position.getKings();
+            while (kings != 0) {
+                if (hasFlyingCapture(Integer.numberOfTrailingZeros(kings), opponent, empty)) {
+                    return true;
+                }
+                kings &= kings - 1;
+            }
+        }
+        return false;
+    }
+
+    // Есть ли у стороны хотя бы один ход
+    public boolean hasMoves(Position position, boolean white) {
+        int own = position.getPieces(white);
+        int men = own & ~position.getKings();
+        int kings = own & position.getKings();
+        int targets = Bitboard.shift(men, Bitboard.forwardLeft(white))
+                | Bitboard.shift(men, Bitboard.forwardRight(white));
+        for (int dir = 0; dir < 4; dir++) {
+            targets |= Bitboard.shift(kings, dir);
+        }
+        return (targets & position.getEmpty()) != 0 || canCapture(position, white, own);
+    }
+
+    // Шашки из маски pieces, которые бьют коротким прыжком в направлении dir
+    private int getShortCapturers(Position position, boolean white, int pieces, int dir) {
+        int men = pieces & ~position.getKings();
+        int kings = flyingKings ? 0 : pieces & position.getKings();
+        return (isForward(white, dir) || menCaptureBackward) ? men | kings : kings;
+    }
+
+    private boolean hasFlyingCapture(int from, int opponent, int empty) {
+        for (int dir = 0; dir < 4; dir++) {
+            int sq = Bitboard.NEIGHBOR[dir][from];
+            while (sq >= 0 && (empty & (1 << sq)) != 0) {
+                sq = Bitboard.NEIGHBOR[dir][sq];
+            }
+            if (sq >= 0 && (opponent & (1 << sq)) != 0) {
+                int behind = Bitboard.NEIGHBOR[dir][sq];
+                if (behind >= 0 && (empty & (1 << behind)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
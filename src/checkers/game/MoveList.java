@@ -0,0 +1,66 @@
+package checkers.game;
+
+import java.util.Arrays;
+
+// Переиспользуемый буфер ходов: упакованные ходы и маски побитых шашек в параллельных массивах
+public class MoveList {
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private int[] moves;
+    private int[] captured;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+        captured = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move, int capturedMask) {
+        if (size == moves.length) {
+            // Расширение только в редких позициях, в обычной игре буфера хватает
+            moves = Arrays.copyOf(moves, size * 2);
+            captured = Arrays.copyOf(captured, size * 2);
+        }
+        moves[size] = move;
+        captured[size] = capturedMask;
+        size++;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int get(int index) { return moves[index]; }
+    public int getCaptured(int index) { return captured[index]; }
+
+    public void set(int index, int move, int capturedMask) {
+        moves[index] = move;
+        captured[index] = capturedMask;
+    }
+
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public void swap(int i, int j) {
+        int move = moves[i];
+        int mask = captured[i];
+        moves[i] = moves[j];
+        captured[i] = captured[j];
+        moves[j] = move;
+        captured[j] = mask;
+    }
+
+    public void copyFrom(MoveList other) {
+        size = 0;
+        for (int i = 0; i < other.size; i++) {
+            add(other.moves[i], other.captured[i]);
+        }
+    }
+}
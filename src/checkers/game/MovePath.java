@@ -0,0 +1,160 @@
+package checkers.game;
+
+import checkers.classes.Bitboard;
+import checkers.classes.Position;
+
+// Путь хода в нотации: c3-d4, взятие - c3:e5 или полностью c3:e5:c7.
+// Ход хранит только начальную и конечную клетки, а разные цепочки взятий к одной клетке
+// могут бить разные шашки - такие ходы различаются по промежуточным клеткам пути.
+// Побитые шашки определяются по геометрии: на каждом прыжке между двумя клетками пути
+// стоит ровно одна шашка соперника
+public final class MovePath {
+    // Ход по паре клеток без промежуточных неоднозначен
+    public static final int AMBIGUOUS = -2;
+
+    private static final int MAX_LENGTH = 32;
+
+    private MovePath() {
+    }
+
+    // Клетки пути из текста в path; возвращает их число
+    public static int parse(String text, int[] path) {
+        int length = 0;
+        for (int i = 0; i + 1 < text.length() && length < path.length; i++) {
+            char file = text.charAt(i);
+            char rank = text.charAt(i + 1);
+            if (file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8') {
+                path[length++] = Bitboard.square(file - 'a', 8 - (rank - '0'));
+                i++;
+            }
+        }
+        return length;
+    }
+
+    public static String toNotation(int[] path, int length, boolean capture) {
+        StringBuilder text = new StringBuilder(Move.squareName(path[0]));
+        for (int i = 1; i < length; i++) {
+            text.append(capture ? ':' : '-').append(Move.squareName(path[i]));
+        }
+        return text.toString();
+    }
+
+    // Индекс хода legal, заданного путём, -1 если такого хода нет, AMBIGUOUS - если путь
+    // из двух клеток подходит к цепочкам взятий с разными побитыми шашками. Путь из двух клеток,
+    // который сам является прыжком через одну шашку, задаёт именно этот прыжок
+    public static int find(MoveList legal, Position position, boolean white, int[] path, int length) {
+        if (length < 2 || path[0] < 0 || path[length - 1] < 0) {
+            return -1;
+        }
+        int from = path[0];
+        int to = path[length - 1];
+        int captured = capturedOnPath(position, white, path, length);
+        if (length > 2 && captured == -1) {
+            return -1;
+        }
+        int found = -1;
+        boolean ambiguous = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            if (Move.from(move) != from || Move.to(move) != to) {
+                continue;
+            }
+            if (captured != -1 && legal.getCaptured(i) == captured) {
+                return i;
+            }
+            if (length > 2) {
+                continue;
+            }
+            if (found < 0) {
+                found = i;
+            } else if (legal.getCaptured(found) != legal.getCaptured(i)) {
+                ambiguous = true;
+            }
+        }
+        return ambiguous ? AMBIGUOUS : found;
+    }
+
+    // Маска шашек, побитых на пути, или -1, если путь - не цепочка прыжков через шашки соперника
+    static int capturedOnPath(Position position, boolean white, int[] path, int length) {
+        int fromBit = 1 << path[0];
+        int own = position.getPieces(white) & ~fromBit;
+        int enemy = position.getPieces(!white);
+        int captured = 0;
+        for (int i = 1; i < length; i++) {
+            if (path[i] < 0) {
+                return -1;
+            }
+            int between = between(path[i - 1], path[i]);
+            int landing = 1 << path[i];
+            if (between == -1 || ((own | enemy) & landing) != 0 || (between & own) != 0) {
+                return -1;
+            }
+            int hit = between & enemy;
+            if (Integer.bitCount(hit) != 1 || (hit & captured) != 0) {
+                return -1;
+            }
+            captured |= hit;
+        }
+        return captured;
+    }
+
+    // Клетки строго между a и b на одной диагонали; -1, если a и b не на одной диагонали
+    static int between(int a, int b) {
+        int dx = Bitboard.x(b) - Bitboard.x(a);
+        int dy = Bitboard.y(b) - Bitboard.y(a);
+        if (dx == 0 || Math.abs(dx) != Math.abs(dy)) {
+            return -1;
+        }
+        int stepX = Integer.signum(dx);
+        int stepY = Integer.signum(dy);
+        int mask = 0;
+        for (int i = 1; i < Math.abs(dx); i++) {
+            mask |= 1 << Bitboard.square(Bitboard.x(a) + i * stepX, Bitboard.y(a) + i * stepY);
+        }
+        return mask;
+    }
+
+    // Путь взятия move с маской побитых captured (для ответа другой стороне); для тихого хода -
+    // начальная и конечная клетки. Возвращает число клеток в path
+    public static int of(Position position, boolean white, int move, int captured, int[] path) {
+        path[0] = Move.from(move);
+        if (!Move.isCapture(move)) {
+            path[1] = Move.to(move);
+            return 2;
+        }
+        int length = search(position.getOccupied() & ~(1 << path[0]), path[0], Move.to(move), captured, path, 1);
+        if (length < 0) {
+            throw new IllegalArgumentException("Нет пути для взятия " + Move.toNotation(move));
+        }
+        return length;
+    }
+
+    // Поиск в глубину: прыжок через одну из оставшихся шашек remaining на свободную клетку за ней
+    private static int search(int occupied, int sq, int to, int remaining, int[] path, int length) {
+        if (remaining == 0) {
+            return sq == to ? length : -1;
+        }
+        if (length == MAX_LENGTH || length == path.length) {
+            return -1;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int next = Bitboard.NEIGHBOR[dir][sq];
+            while (next >= 0 && (occupied & (1 << next)) == 0) {
+                next = Bitboard.NEIGHBOR[dir][next];
+            }
+            if (next < 0 || (remaining & (1 << next)) == 0) {
+                continue;
+            }
+            int piece = next;
+            for (int land = Bitboard.NEIGHBOR[dir][piece]; land >= 0 && (occupied & (1 << land)) == 0;
+                    land = Bitboard.NEIGHBOR[dir][land]) {
+                path[length] = land;
+                int found = search(occupied, land, to, remaining & ~(1 << piece), path, length + 1);
+                if (found > 0) {
+                    return found;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+package checkers.game;
+
+import checkers.enums.GameState;
+
+import java.util.Arrays;
+
+// Стек записей для отмены ходов в примитивных массивах: ход (с флагом превращения),
+// маска побитых шашек, маска побитых дамок, сторона хода и состояние игры до хода
+class UndoStack {
+    private static final GameState[] STATES = GameState.values();
+
+    private int[] moves = new int[64];
+    private int[] captured = new int[64];
+    private int[] capturedKings = new int[64];
+    private byte[] flags = new byte[64];
+    private int size;
+
+    void push(int move, int capturedMask, int capturedKingsMask, boolean whiteToMove, GameState state) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            captured = Arrays.copyOf(captured, size * 2);
+            capturedKings = Arrays.copyOf(capturedKings, size * 2);
+            flags = Arrays.copyOf(flags, size * 2);
+        }
+        moves[size] = move;
+        captured[size] = capturedMask;
+        capturedKings[size] = capturedKingsMask;
+        flags[size] = (byte) ((state.ordinal() << 1) | (whiteToMove ? 1 : 0));
+        size++;
+    }
+
+    void pop() {
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+
+    // Данные верхней записи
+    int getMove() { return moves[size - 1]; }
+    int getCaptured() { return captured[size - 1]; }
+    int getCapturedKings() { return capturedKings[size - 1]; }
+    boolean wasWhiteToMove() { return (flags[size - 1] & 1) != 0; }
+    GameState getGameState() { return STATES[flags[size - 1] >> 1]; }
+
+    // Данные записи по номеру от начала партии
+    int getMove(int index) { return moves[index]; }
+    int getCaptured(int index) { return captured[index]; }
+}
@@ -1,6 +1,12 @@
 // checkers/json/JsonHelper.java
 package checkers.json;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
@@ -8,43 +14,72 @@ public class JsonHelper {
 
     // Сериализация объекта в JSON строку
     public static String toJson(Object obj) {
-        if (obj == null) return "null";
-        if (obj instanceof String) return "\"" + escapeJson((String) obj) + "\"";
-        if (obj instanceof Number) return obj.toString();
-        if (obj instanceof Boolean) return obj.toString();
-        if (obj instanceof List) return listToJson((List<?>) obj);
-        if (obj instanceof Map) return mapToJson((Map<?, ?>) obj);
-        return "\"" + escapeJson(obj.toString()) + "\"";
+        StringWriter out = new StringWriter();
+        try {
+            write(obj, out);
+        } catch (IOException e) {
+            // StringWriter не бросает IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
     }
 
-    private static String listToJson(List<?> list) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < list.size(); i++) {
-            if (i > 0) sb.append(",");
-            sb.append(toJson(list.get(i)));
-        }
-        sb.append("]");
-        return sb.toString();
+    // Сериализация объекта (Map, List, String, Number, Boolean) прямо в Writer
+    public static void write(Object obj, Writer out) throws IOException {
+        writeValue(new JsonWriter(out), obj);
+        out.flush();
     }
 
-    private static String mapToJson(Map<?, ?> map) {
-        StringBuilder sb = new StringBuilder("{");
-        boolean first = true;
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            if (!first) sb.append(",");
-            first = false;
-            sb.append("\"").append(escapeJson(entry.getKey().toString())).append("\":");
-            sb.append(toJson(entry.getValue()));
+    private static void writeValue(JsonWriter json, Object obj) throws IOException {
+        if (obj == null) {
+            json.nullValue();
+        } else if (obj instanceof String) {
+            json.value((String) obj);
+        } else if (obj instanceof Number) {
+            json.value((Number) obj);
+        } else if (obj instanceof Boolean) {
+            json.value((Boolean) obj);
+        } else if (obj instanceof List) {
+            json.beginArray();
+            for (Object item : (List<?>) obj) {
+                writeValue(json, item);
+            }
+            json.endArray();
+        } else if (obj instanceof Map) {
+            json.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                json.name(entry.getKey().toString());
+                writeValue(json, entry.getValue());
+            }
+            json.endObject();
+        } else {
+            json.value(obj.toString());
         }
-        sb.append("}");
-        return sb.toString();
     }
 
-    private static String escapeJson(String str) {
-        return str.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    // Разбор JSON в Map/List/String/Number/Boolean (см. JsonReader.readValue)
+    public static Object parse(Reader in) throws IOException {
+        JsonReader json = new JsonReader(in);
+        Object value = json.readValue();
+        // после значения не должно быть лишних данных
+        json.peek();
+        return value;
+    }
+
+    public static Object parse(String json) throws IOException {
+        return parse(new StringReader(json));
+    }
+
+    // Объект JSON из результата parse; null, если значение не объект.
+    // Ключи объектов, которые строит JsonReader, всегда строки
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> asObject(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    // Массив JSON из результата parse; null, если значение не массив
+    @SuppressWarnings("unchecked")
+    public static List<Object> asArray(Object value) {
+        return value instanceof List ? (List<Object>) value : null;
     }
 }
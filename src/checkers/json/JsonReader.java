@@ -0,0 +1,411 @@
+package checkers.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Потоковый разбор JSON за один проход: символы читаются из Reader через буфер постоянного размера,
+// без подстрок входных данных. peek() сообщает тип следующей лексемы, остальные методы её забирают.
+// Большой массив можно обходить по элементам (beginArray, hasNext, ..., endArray),
+// не держа его в памяти целиком; readValue() собирает значение в Map/List, как прежний разбор
+public class JsonReader implements Closeable {
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Состояния вложенности
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte DANGLING_NAME = 5;
+    private static final byte NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    // Позиция начала буфера во входных данных, для сообщений об ошибках
+    private long bufferStart;
+    // Переиспользуемый буфер для строк и чисел
+    private final StringBuilder text = new StringBuilder();
+
+    private byte[] stack = new byte[32];
+    private int depth = 1;
+    private Token peeked;
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != -1) {
+                    pos--;
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                return peeked = peekValue();
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("ожидалась ',' или ']'");
+                }
+                return peeked = peekValue();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("ожидалась ',' или '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("ожидалось имя поля");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("ожидалось ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return peeked = peekValue();
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return peeked = peekValue();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("лишние данные после значения");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    // Тип значения по первому символу; кавычка строки поглощается, остальное остаётся для чтения
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError(c == -1 ? "неожиданный конец данных" : "неожиданный символ '" + (char) c + "'");
+        }
+    }
+
+    private void consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("ожидалось " + expected + ", найдено " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(byte scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    // Есть ли ещё элементы в текущем массиве или объекте
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        return readString();
+    }
+
+    public String nextString() throws IOException {
+        consume(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        // первая буква литерала оставлена в буфере при peek
+        if (buffer[pos] == 't') {
+            expectLiteral("true");
+            return true;
+        }
+        expectLiteral("false");
+        return false;
+    }
+
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+        expectLiteral("null");
+    }
+
+    public long nextLong() throws IOException {
+        consume(Token.NUMBER);
+        readNumber();
+        try {
+            return Long.parseLong(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            throw syntaxError("ожидалось целое число: " + text);
+        }
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("число вне диапазона int: " + value);
+        }
+        return (int) value;
+    }
+
+    public double nextDouble() throws IOException {
+        consume(Token.NUMBER);
+        readNumber();
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException e) {
+            throw syntaxError("неверное число: " + text);
+        }
+    }
+
+    // Число как Integer, Long или Double - в зависимости от записи; целое вне диапазона long - BigInteger
+    public Number nextNumber() throws IOException {
+        consume(Token.NUMBER);
+        boolean integral = readNumber();
+        try {
+            if (integral) {
+                if (text.length() > 18) {
+                    BigInteger big = new BigInteger(text.toString());
+                    if (big.bitLength() >= 64) {
+                        return big;
+                    }
+                }
+                long value = Long.parseLong(text, 0, text.length(), 10);
+                return value == (int) value ? (Number) (int) value : (Number) value;
+            }
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException e) {
+            throw syntaxError("неверное число: " + text);
+        }
+    }
+
+    // Пропуск значения целиком, включая вложенные объекты и массивы
+    public void skipValue() throws IOException {
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT: beginObject(); level++; break;
+                case BEGIN_ARRAY: beginArray(); level++; break;
+                case END_OBJECT: endObject(); level--; break;
+                case END_ARRAY: endArray(); level--; break;
+                case NAME: nextName(); break;
+                case STRING: nextString(); break;
+                case NUMBER: consume(Token.NUMBER); readNumber(); break;
+                case BOOLEAN: nextBoolean(); break;
+                case NULL: nextNull(); break;
+                default: throw syntaxError("неожиданный конец данных");
+            }
+        } while (level > 0);
+    }
+
+    // Значение целиком: объект - Map (в порядке полей), массив - List, строка, число, Boolean или null
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, readValue());
+                }
+                endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            case STRING: return nextString();
+            case NUMBER: return nextNumber();
+            case BOOLEAN: return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default: throw syntaxError("ожидалось значение, найдено " + peek());
+        }
+    }
+
+    // Строка после открывающей кавычки, с обработкой экранирования
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    text.append(buffer, start, pos - 1 - start);
+                    return text.toString();
+                }
+                if (c == '\\') {
+                    text.append(buffer, start, pos - 1 - start);
+                    text.append(readEscape());
+                    start = pos;
+                }
+            }
+            text.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("незакрытая строка");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("неверная последовательность \\u");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("неверное экранирование");
+        }
+    }
+
+    // Символы числа в text; возвращает true, если число целое (без дробной части и экспоненты)
+    private boolean readNumber() throws IOException {
+        text.setLength(0);
+        boolean integral = true;
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                text.append(c);
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                integral = false;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        return integral;
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("ожидалось " + literal);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    // Новая порция символов; вызывается, только когда буфер прочитан полностью
+    private boolean fill() throws IOException {
+        bufferStart += limit;
+        pos = 0;
+        limit = 0;
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Ошибка JSON в позиции " + (bufferStart + pos) + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,216 @@
+package checkers.server;
+
+import checkers.classes.Position;
+import checkers.game.GameRules;
+import checkers.game.GameSettings;
+import checkers.game.Move;
+import checkers.game.MoveGenerator;
+import checkers.game.MoveList;
+import checkers.game.MovePath;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+// Нагрузочная проверка GameServer: много клиентов в одном потоке с селектором NIO.
+// Каждый клиент просит партию, ведёт свою копию позиции и сразу отвечает случайным допустимым ходом.
+// Замеряется время от отправки хода до его подтверждения сервером (MOVED).
+// Запуск: java -cp <classes> checkers.server.ClientSimulator [--games=N] [--port=N] [--embedded] [--variant=RUSSIAN|SPANISH]
+// С --embedded сервер запускается в той же JVM на свободном порту
+public class ClientSimulator {
+    private final Selector selector;
+    private final GameSettings.Variant variant;
+    private final MoveGenerator generator;
+    private final MoveList moves = new MoveList();
+    private final int[] path = new int[32];
+    private final Random random = new Random();
+
+    private int clients;
+    private int started;
+    private int finished;
+    private int errors;
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+
+    private final class Client {
+        final Connection connection;
+        final Position position = Position.initial();
+        boolean white;
+        boolean whiteToMove = true;
+        long sentAt;
+
+        Client(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    public ClientSimulator(GameSettings.Variant variant) throws IOException {
+        this.selector = Selector.open();
+        this.variant = variant;
+        this.generator = new MoveGenerator(new GameRules(variant == GameSettings.Variant.RUSSIAN
+                ? GameRules.RuleType.RUSSIAN : GameRules.RuleType.SPANISH));
+    }
+
+    // games партий - вдвое больше соединений; возвращает, когда все партии закончены или вышло время
+    public void run(InetSocketAddress address, int games, long timeoutMs) throws IOException {
+        for (int i = 0; i < games * 2; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(address);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+            key.attach(new Client(new Connection(channel, key)));
+            clients++;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (finished + errors < clients && System.currentTimeMillis() < deadline) {
+            selector.select(1000);
+            for (SelectionKey key : selector.selectedKeys()) {
+                Client client = (Client) key.attachment();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isConnectable()) {
+                        client.connection.getChannel().finishConnect();
+                        key.interestOps(SelectionKey.OP_READ);
+                        client.connection.send("NEW " + variant.name());
+                        continue;
+                    }
+                    if (key.isWritable()) {
+                        client.connection.flush();
+                    }
+                    if (key.isValid() && key.isReadable() && !client.connection.read(line -> handle(client, line))
+                            && client.connection.getChannel().isOpen()) {
+                        errors++;
+                        client.connection.close();
+                    }
+                } catch (IOException e) {
+                    errors++;
+                    client.connection.close();
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+        selector.close();
+    }
+
+    private void handle(Client client, String line) {
+        if (line.startsWith("GAME ")) {
+            started++;
+            client.white = line.endsWith("WHITE");
+            if (client.white) {
+                play(client);
+            }
+        } else if (line.startsWith("MOVED ")) {
+            apply(client, line.substring("MOVED ".length()));
+            if (client.sentAt != 0) {
+                record(System.nanoTime() - client.sentAt);
+                client.sentAt = 0;
+            }
+            if (client.whiteToMove == client.white) {
+                play(client);
+            }
+        } else if (line.startsWith("END ")) {
+            finished++;
+            client.connection.close();
+        } else if (line.startsWith("ERROR ")) {
+            if (errors < 10) {
+                System.err.println("Сервер: " + line);
+            }
+            errors++;
+            client.connection.close();
+        }
+    }
+
+    // Ход из сообщения сервера по его пути (см. MovePath)
+    private void apply(Client client, String notation) {
+        generator.generate(client.position, client.whiteToMove, moves);
+        int length = MovePath.parse(notation, path);
+        int index = MovePath.find(moves, client.position, client.whiteToMove, path, length);
+        if (index < 0) {
+            throw new IllegalStateException("Ход сервера не найден: " + notation);
+        }
+        int move = moves.get(index);
+        client.position.applyMove(Move.from(move), Move.to(move), moves.getCaptured(index), Move.isPromotion(move));
+        client.whiteToMove = !client.whiteToMove;
+    }
+
+    private void play(Client client) {
+        int count = generator.generate(client.position, client.white, moves);
+        if (count == 0) {
+            return;
+        }
+        int index = random.nextInt(count);
+        int move = moves.get(index);
+        // Взятие нескольких шашек - полным путём: к той же клетке может вести другая цепочка
+        String notation = Move.captureCount(move) > 1
+                ? MovePath.toNotation(path, MovePath.of(client.position, client.white, move, moves.getCaptured(index), path), true)
+                : Move.toNotation(move);
+        client.sentAt = System.nanoTime();
+        client.connection.send("MOVE " + notation);
+    }
+
+    private void record(long nanos) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = nanos;
+    }
+
+    private long percentile(long[] sorted, double fraction) {
+        return latencyCount == 0 ? 0 : sorted[Math.min(latencyCount - 1, (int) (latencyCount * fraction))];
+    }
+
+    public void printSummary(long elapsedMs) {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        System.out.printf("Клиентов: %d, партий начато: %d, закончено: %d, ошибок: %d%n",
+                clients, started / 2, finished / 2, errors);
+        System.out.printf("Ходов: %d за %d мс (%d ходов/с); ответ сервера: p50 %.1f мкс, p99 %.1f мкс, макс. %.1f мкс%n",
+                latencyCount, elapsedMs, latencyCount * 1000L / Math.max(1, elapsedMs),
+                percentile(sorted, 0.5) / 1000.0, percentile(sorted, 0.99) / 1000.0,
+                latencyCount == 0 ? 0.0 : sorted[latencyCount - 1] / 1000.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 1000;
+        int port = GameServer.DEFAULT_PORT;
+        boolean embedded = false;
+        GameSettings.Variant variant = GameSettings.Variant.RUSSIAN;
+        for (String arg : args) {
+            if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(arg.substring("--games=".length()));
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.equals("--embedded")) {
+                embedded = true;
+            } else if (arg.startsWith("--variant=")) {
+                variant = GameSettings.Variant.valueOf(arg.substring("--variant=".length()).toUpperCase());
+            } else {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            }
+        }
+
+        GameServer server = null;
+        if (embedded) {
+            server = new GameServer(0);
+            port = server.getPort();
+            Thread thread = new Thread(server, "checkers-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        ClientSimulator simulator = new ClientSimulator(variant);
+        long start = System.nanoTime();
+        simulator.run(new InetSocketAddress("127.0.0.1", port), games, 10 * 60 * 1000L);
+        simulator.printSummary((System.nanoTime() - start) / 1_000_000L);
+        if (server != null) {
+            System.out.println(server.statistics());
+            server.stop();
+        }
+    }
+}
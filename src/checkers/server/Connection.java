@@ -0,0 +1,99 @@
+package checkers.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Неблокирующее соединение с построчным протоколом (ASCII, строки заканчиваются '\n').
+// Используется только из потока селектора: входящие строки собираются в буфере чтения,
+// исходящие копятся в буфере записи, пока сокет не готов их принять
+class Connection {
+    private static final int MAX_LINE = 256;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE);
+    private ByteBuffer output = ByteBuffer.allocate(64);
+
+    Connection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    // Чтение доступных данных; для каждой полной строки вызывается handler.
+    // Возвращает false, если соединение закрыто другой стороной или строка слишком длинная
+    boolean read(Consumer<String> handler) throws IOException {
+        int read = channel.read(input);
+        if (read < 0) {
+            return false;
+        }
+        input.flip();
+        int start = 0;
+        for (int i = 0; i < input.limit(); i++) {
+            if (input.get(i) == '\n') {
+                handler.accept(new String(input.array(), start, i - start, StandardCharsets.US_ASCII).trim());
+                start = i + 1;
+                if (!channel.isOpen()) {
+                    return false;
+                }
+            }
+        }
+        input.position(start);
+        input.compact();
+        return input.hasRemaining();
+    }
+
+    // Строка ставится в очередь и отправляется сразу, если сокет готов
+    void send(String line) {
+        int length = line.length() + 1;
+        if (output.remaining() < length) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + length));
+            output.flip();
+            bigger.put(output);
+            output = bigger;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            output.put((byte) line.charAt(i));
+        }
+        output.put((byte) '\n');
+        try {
+            flush();
+        } catch (IOException e) {
+            // разрыв соединения обнаружится при следующем чтении, там его и обработают
+        }
+    }
+
+    // Запись накопленного; пока не всё записано, ждём готовности сокета к записи
+    void flush() throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        output.flip();
+        try {
+            channel.write(output);
+        } finally {
+            output.compact();
+        }
+        if (output.position() > 0) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // соединение уже закрыто
+        }
+    }
+}
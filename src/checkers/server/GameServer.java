@@ -0,0 +1,296 @@
+package checkers.server;
+
+import checkers.enums.GameState;
+import checkers.game.Game;
+import checkers.game.GameSettings;
+import checkers.game.Move;
+import checkers.game.MoveList;
+import checkers.game.MovePath;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+// Сервер для многих партий в одной JVM: один поток с селектором NIO обслуживает все соединения,
+// партии хранятся в реестре по номеру, ходы проверяются правилами Game.
+// Протокол построчный:
+//   клиент: NEW RUSSIAN|SPANISH - найти соперника, MOVE c3-d4 - ход, QUIT - сдаться и выйти
+//   сервер: WAIT - ждём соперника, GAME <номер> WHITE|BLACK - партия началась,
+//           MOVED c3:e5 - сделан ход (обоим игрокам), END WHITE_WIN|BLACK_WIN|DRAW - партия окончена,
+//           ERROR <причина> - команда отклонена
+// Взятие можно передать полным путём MOVE c3:e5:c7. Если к конечной клетке ведут цепочки взятий
+// с разными побитыми шашками, путь обязателен (иначе ERROR ambiguous capture), а MOVED
+// повторяет путь, присланный игроком
+// Запуск: java -cp <classes> checkers.server.GameServer [порт]
+public class GameServer implements Runnable {
+    public static final int DEFAULT_PORT = 7777;
+    // Ничья, если партия затянулась (в Game нет правил ничьей)
+    static final int MAX_PLIES = 400;
+    private static final int BACKLOG = 4096;
+    private static final long STATS_INTERVAL_MS = 10_000;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, GameSession> games = new HashMap<>();
+    // Ожидающие соперника, по варианту правил
+    private final Player[] waiting = new Player[GameSettings.Variant.values().length];
+    private final GameSettings[] settings = new GameSettings[GameSettings.Variant.values().length];
+    private int nextGameId = 1;
+    // Разбор пути хода (сервер однопоточный)
+    private final int[] path = new int[32];
+    private volatile boolean running = true;
+
+    private int connections;
+    private long moves;
+    private long validationNanos;
+    private long maxValidationNanos;
+    private long lastStats = System.currentTimeMillis();
+
+    // Игрок - соединение и его место в партии (вариант задаётся командой NEW)
+    private static final class Player {
+        final Connection connection;
+        GameSettings.Variant variant;
+        GameSession session;
+        boolean white;
+
+        Player(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static final class GameSession {
+        final int id;
+        final Game game;
+        final Player white;
+        final Player black;
+
+        GameSession(int id, Game game, Player white, Player black) {
+            this.id = id;
+            this.game = game;
+            this.white = white;
+            this.black = black;
+        }
+
+        void broadcast(String line) {
+            white.connection.send(line);
+            black.connection.send(line);
+        }
+    }
+
+    public GameServer(int port) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", port), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        for (GameSettings.Variant variant : GameSettings.Variant.values()) {
+            settings[variant.ordinal()] = new GameSettings();
+            settings[variant.ordinal()].setVariant(variant);
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(1000);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        serve(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+                printStats();
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка сервера: " + e.getMessage());
+        } finally {
+            try {
+                selector.close();
+                server.close();
+            } catch (IOException e) {
+                // закрываемся
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Player(new Connection(channel, key)));
+            connections++;
+        }
+    }
+
+    private void serve(SelectionKey key) {
+        Player player = (Player) key.attachment();
+        try {
+            if (key.isWritable()) {
+                player.connection.flush();
+            }
+            if (key.isValid() && key.isReadable() && !player.connection.read(line -> handle(player, line))) {
+                disconnect(player);
+            }
+        } catch (IOException e) {
+            disconnect(player);
+        }
+    }
+
+    private void handle(Player player, String line) {
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String argument = space < 0 ? "" : line.substring(space + 1).trim();
+        switch (command) {
+            case "NEW": join(player, argument); break;
+            case "MOVE": move(player, argument); break;
+            case "QUIT": disconnect(player); break;
+            default: player.connection.send("ERROR unknown command");
+        }
+    }
+
+    private void join(Player player, String argument) {
+        Connection connection = player.connection;
+        if (player.session != null) {
+            connection.send("ERROR already playing");
+            return;
+        }
+        GameSettings.Variant variant;
+        try {
+            variant = GameSettings.Variant.valueOf(argument.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            connection.send("ERROR unknown variant");
+            return;
+        }
+        if (player.variant != null && waiting[player.variant.ordinal()] == player) {
+            waiting[player.variant.ordinal()] = null;
+        }
+        player.variant = variant;
+        Player opponent = waiting[variant.ordinal()];
+        if (opponent == null) {
+            waiting[variant.ordinal()] = player;
+            connection.send("WAIT");
+            return;
+        }
+        waiting[variant.ordinal()] = null;
+        GameSession session = new GameSession(nextGameId++, new Game(settings[variant.ordinal()]), opponent, player);
+        opponent.session = session;
+        opponent.white = true;
+        player.session = session;
+        player.white = false;
+        games.put(session.id, session);
+        opponent.connection.send("GAME " + session.id + " WHITE");
+        connection.send("GAME " + session.id + " BLACK");
+    }
+
+    // Проверка хода правилами партии: ход ищется среди допустимых по пути (см. MovePath)
+    private void move(Player player, String argument) {
+        Connection connection = player.connection;
+        if (player.session == null) {
+            connection.send("ERROR no game");
+            return;
+        }
+        long start = System.nanoTime();
+        Game game = player.session.game;
+        if (game.isWhiteToMove() != player.white) {
+            connection.send("ERROR not your turn");
+            return;
+        }
+        int length = MovePath.parse(argument, path);
+        MoveList legal = game.getLegalMoves();
+        int index = MovePath.find(legal, game.getBoard().getPosition(), game.isWhiteToMove(), path, length);
+        if (index == MovePath.AMBIGUOUS) {
+            connection.send("ERROR ambiguous capture");
+            return;
+        }
+        if (index < 0) {
+            connection.send("ERROR illegal move");
+            return;
+        }
+        int move = legal.get(index);
+        String notation = length > 2 ? MovePath.toNotation(path, length, true) : Move.toNotation(move);
+        game.makeMove(move, legal.getCaptured(index));
+        long elapsed = System.nanoTime() - start;
+        moves++;
+        validationNanos += elapsed;
+        maxValidationNanos = Math.max(maxValidationNanos, elapsed);
+
+        GameSession session = player.session;
+        session.broadcast("MOVED " + notation);
+        if (game.isGameOver()) {
+            finish(session, game.getGameState());
+        } else if (game.getMoveHistory().size() >= MAX_PLIES) {
+            finish(session, GameState.DRAW);
+        }
+    }
+
+    private void finish(GameSession session, GameState result) {
+        session.broadcast("END " + result.name());
+        session.white.session = null;
+        session.black.session = null;
+        games.remove(session.id);
+    }
+
+    // Отключение игрока: в партии это поражение, соперник получает результат
+    private void disconnect(Player player) {
+        if (!player.connection.getChannel().isOpen()) {
+            return;
+        }
+        if (player.variant != null && waiting[player.variant.ordinal()] == player) {
+            waiting[player.variant.ordinal()] = null;
+        }
+        GameSession session = player.session;
+        if (session != null) {
+            Player opponent = player.white ? session.black : session.white;
+            opponent.connection.send("END " + (player.white ? GameState.BLACK_WIN : GameState.WHITE_WIN).name());
+            opponent.session = null;
+            player.session = null;
+            games.remove(session.id);
+        }
+        player.connection.close();
+        connections--;
+    }
+
+    private void printStats() {
+        long now = System.currentTimeMillis();
+        if (now - lastStats < STATS_INTERVAL_MS) {
+            return;
+        }
+        lastStats = now;
+        System.out.println(statistics());
+    }
+
+    public String statistics() {
+        return String.format("Соединений: %d, партий: %d, ходов: %d, проверка хода: средн. %.1f мкс, макс. %.1f мкс",
+                connections, games.size(), moves, moves == 0 ? 0.0 : validationNanos / 1000.0 / moves,
+                maxValidationNanos / 1000.0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        System.out.println("Сервер шашек: 127.0.0.1:" + server.getPort());
+        server.run();
+    }
+}